@@ -0,0 +1,64 @@
+package com.assignment.recipeapp.benchmark;
+
+import com.assignment.recipeapp.security.CachingAuthenticationProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication of an HTTP Basic request against the in-memory user, verifying the BCrypt hash of the password as
+ * the application encodes it, and through the cache of successful authentications.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private AuthenticationProvider passwordAuthentication;
+    private AuthenticationProvider cachingAuthentication;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(new InMemoryUserDetailsManager(User.withUsername("user")
+                .password(passwordEncoder.encode("password"))
+                .roles("USER")
+                .build()));
+        provider.setPasswordEncoder(passwordEncoder);
+        passwordAuthentication = provider;
+        cachingAuthentication = new CachingAuthenticationProvider(provider, Duration.ofMinutes(5), 10_000);
+    }
+
+    /**
+     * Every request verifies the hash, as with recipe-app.security.auth-cache.ttl=0.
+     */
+    @Benchmark
+    public Authentication verifyPassword() {
+        return passwordAuthentication.authenticate(token());
+    }
+
+    /**
+     * Requests after the first one are answered from the cache.
+     */
+    @Benchmark
+    public Authentication cachedAuthentication() {
+        return cachingAuthentication.authenticate(token());
+    }
+
+    private static Authentication token() {
+        return UsernamePasswordAuthenticationToken.unauthenticated("user", "password");
+    }
+}
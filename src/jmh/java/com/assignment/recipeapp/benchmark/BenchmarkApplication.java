@@ -0,0 +1,59 @@
+package com.assignment.recipeapp.benchmark;
+
+import com.assignment.recipeapp.RecipeAppApplication;
+import com.assignment.recipeapp.service.dataset.DatasetGenerator;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Starts the application without a web server for benchmarks, on a private in-memory database.
+ */
+final class BenchmarkApplication {
+
+    private static final long SEED = 42;
+    private static final int INGREDIENTS = 2000;
+    private static final DatasetGenerator DATASET = new DatasetGenerator(SEED, INGREDIENTS);
+
+    /**
+     * The most popular ingredients of the dataset, the ones searches are usually about.
+     */
+    static final List<String> POPULAR_INGREDIENTS = DATASET.ingredientNames().subList(0, 50);
+    static final List<String> DISHES = DATASET.dishes();
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * @return a started application context with an empty database, closed by the caller
+     */
+    static ConfigurableApplicationContext start() {
+        return start(0);
+    }
+
+    /**
+     * Starts the application on a generated dataset: the same size always yields the same recipes.
+     *
+     * @param recipes number of recipes to generate
+     * @return a started application context, closed by the caller
+     */
+    static ConfigurableApplicationContext start(int recipes) {
+        return new SpringApplicationBuilder(RecipeAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("dataset")
+                .properties(Map.of(
+                        "spring.datasource.url", "jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DATABASE_TO_UPPER=false;DB_CLOSE_ON_EXIT=FALSE",
+                        "recipe-app.dataset.seed", SEED,
+                        "recipe-app.dataset.ingredients", INGREDIENTS,
+                        "recipe-app.dataset.recipes", recipes,
+                        // the benchmarks repeat the same searches, they measure the searches rather than the cache
+                        "recipe-app.search.cache.time-to-live", "0s",
+                        "spring.main.banner-mode", "off",
+                        "logging.level.root", "warn"))
+                .run();
+    }
+}
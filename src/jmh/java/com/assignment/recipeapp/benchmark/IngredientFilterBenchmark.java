@@ -0,0 +1,201 @@
+package com.assignment.recipeapp.benchmark;
+
+import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.repository.search.CandidateIds;
+import com.assignment.recipeapp.repository.search.RecipeSearchSpecification;
+import com.assignment.recipeapp.repository.search.index.RecipeIngredientIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Subquery;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingredient filters of the recipe searches evaluated in SQL, as before the ingredient index is loaded, on catalogs
+ * whose recipes all have the same number of ingredients.
+ * <p>
+ *     Every ingredient name contains a number no other name contains, so that a term matches a single ingredient,
+ *     used by about ingredientsPerRecipe / 1000 of the recipes. For comparison:
+ * </p>
+ * <ul>
+ *     <li>the index filters resolve the terms with the loaded ingredient index and restrict the ids in SQL, as
+ *     searches do once the index is loaded, falling back to SQL when the ids do not fit in a list;</li>
+ *     <li>the join filters are the way the filters were evaluated before the semi and anti-joins: a join per include
+ *     term, whose rows are made distinct;</li>
+ *     <li>the NOT EXISTS filter is the anti-join correlated with the recipe, looking up the ingredients of every
+ *     recipe.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class IngredientFilterBenchmark {
+
+    private static final int INGREDIENTS = 1000;
+    private static final long SEED = 42;
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20, Sort.by("name"));
+
+    @Param({"10000"})
+    public int recipes;
+
+    @Param({"4", "16", "64"})
+    public int ingredientsPerRecipe;
+
+    private ConfigurableApplicationContext context;
+    private RecipeRepository recipeRepository;
+    private RecipeIngredientIndex recipeIngredientIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        recipeRepository = context.getBean(RecipeRepository.class);
+        recipeIngredientIndex = context.getBean(RecipeIngredientIndex.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Timestamp now = Timestamp.from(Instant.now());
+        // ids above those of the catalog the application starts with
+        long firstIngredient = jdbcTemplate.queryForObject("select coalesce(max(id), 0) + 1 from ingredients", Long.class);
+        long firstRecipe = jdbcTemplate.queryForObject("select coalesce(max(id), 0) + 1 from recipes", Long.class);
+
+        List<Object[]> ingredients = new ArrayList<>();
+        for (int ingredient = 0; ingredient < INGREDIENTS; ingredient++) {
+            ingredients.add(new Object[]{firstIngredient + ingredient, 0, now, "Spice " + term(ingredient)});
+        }
+        jdbcTemplate.batchUpdate("insert into ingredients (id, version, last_modified, name) values (?, ?, ?, ?)", ingredients);
+
+        Random random = new Random(SEED);
+        List<Object[]> recipeRows = new ArrayList<>();
+        List<Object[]> links = new ArrayList<>();
+        for (long recipe = firstRecipe; recipe < firstRecipe + recipes; recipe++) {
+            recipeRows.add(new Object[]{recipe, 0, now, "Recipe " + recipe, random.nextBoolean(), 4, "description", "instructions"});
+            // distinct ingredients: a random start and a stride coprime with the number of ingredients
+            int start = random.nextInt(INGREDIENTS);
+            int stride = 1 + 2 * random.nextInt(INGREDIENTS / 2);
+            while (stride % 5 == 0) {
+                stride += 2;
+            }
+            for (int i = 0; i < ingredientsPerRecipe; i++) {
+                links.add(new Object[]{recipe, firstIngredient + (start + (long) i * stride) % INGREDIENTS});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into recipes (id, version, last_modified, name, vegetarian, servings, description, "
+                + "instructions) values (?, ?, ?, ?, ?, ?, ?, ?)", recipeRows);
+        jdbcTemplate.batchUpdate("insert into recipes_ingredients (recipe_id, ingredient_id) values (?, ?)", links);
+        jdbcTemplate.execute("analyze");
+        // the rows were inserted bypassing the change events the index listens to
+        recipeIngredientIndex.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Recipes containing two ingredients, a semi-join each.
+     */
+    @Benchmark
+    public Page<Long> include() {
+        return recipeRepository.findIdPage(RecipeSearchSpecification.searchByText(request(2, 0)), FIRST_PAGE);
+    }
+
+    /**
+     * Recipes containing none of two ingredients, one anti-join.
+     */
+    @Benchmark
+    public Page<Long> exclude() {
+        return recipeRepository.findIdPage(RecipeSearchSpecification.searchByText(request(0, 2)), FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<Long> includeAndExclude() {
+        return recipeRepository.findIdPage(RecipeSearchSpecification.searchByText(request(1, 1)), FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<Long> includeByIndex() {
+        return searchByIndex(request(2, 0));
+    }
+
+    @Benchmark
+    public Page<Long> excludeByIndex() {
+        return searchByIndex(request(0, 2));
+    }
+
+    /**
+     * Recipes containing two ingredients, a join each.
+     */
+    @Benchmark
+    public Page<Long> includeByJoins() {
+        List<String> includes = request(2, 0).getIncludeIngredients();
+        Specification<Recipe> joins = (root, query, cb) -> cb.and(includes.stream()
+                .map(include -> {
+                    Join<Recipe, Ingredient> ingredient = root.join("ingredients");
+                    return cb.like(cb.lower(ingredient.get("name")), "%" + include + "%");
+                })
+                .toArray(Predicate[]::new));
+        return recipeRepository.findIdPage(joins, FIRST_PAGE);
+    }
+
+    /**
+     * Recipes containing none of two ingredients, a correlated NOT EXISTS.
+     */
+    @Benchmark
+    public Page<Long> excludeByNotExists() {
+        List<String> excludes = request(0, 2).getExcludeIngredients();
+        Specification<Recipe> notExists = (root, query, cb) -> {
+            Subquery<Long> used = query.subquery(Long.class);
+            Join<Recipe, Ingredient> ingredient = used.correlate(root).join("ingredients");
+            used.select(ingredient.get("id"))
+                    .where(cb.or(excludes.stream()
+                            .map(exclude -> cb.like(ingredient.get("nameKey"), "%" + exclude + "%"))
+                            .toArray(Predicate[]::new)));
+            return cb.not(cb.exists(used));
+        };
+        return recipeRepository.findIdPage(notExists, FIRST_PAGE);
+    }
+
+    private Page<Long> searchByIndex(RecipeSearchRequest request) {
+        CandidateIds ingredientMatches = recipeIngredientIndex.match(request.getIncludeIngredients(),
+                request.getExcludeIngredients()).orElseThrow();
+        return recipeRepository.findIdPage(RecipeSearchSpecification.searchByText(request, null, ingredientMatches), FIRST_PAGE);
+    }
+
+    private static RecipeSearchRequest request(int includes, int excludes) {
+        RecipeSearchRequest request = new RecipeSearchRequest();
+        request.setIncludeIngredients(randomTerms(includes));
+        request.setExcludeIngredients(randomTerms(excludes));
+        return request;
+    }
+
+    private static List<String> randomTerms(int count) {
+        List<String> terms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            terms.add(term(ThreadLocalRandom.current().nextInt(INGREDIENTS)));
+        }
+        return terms;
+    }
+
+    private static String term(int ingredient) {
+        return String.format("%03d", ingredient);
+    }
+}
@@ -0,0 +1,71 @@
+package com.assignment.recipeapp.benchmark;
+
+import com.assignment.recipeapp.dto.RecipeDto;
+import com.assignment.recipeapp.dto.request.RecipeUpdateRequest;
+import com.assignment.recipeapp.dto.response.RecipeListingElementDto;
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.mapper.ObjectMapper;
+import com.assignment.recipeapp.mapper.ObjectMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversions of the MapStruct generated {@link ObjectMapperImpl} between entities and DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectMapperBenchmark {
+
+    @Param({"5", "50"})
+    public int ingredients;
+
+    private final ObjectMapper objectMapper = new ObjectMapperImpl();
+    private Recipe recipe;
+    private RecipeUpdateRequest updateRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Set<Ingredient> recipeIngredients = new HashSet<>();
+        List<RecipeUpdateRequest.IngredientRequest> ingredientRequests = new ArrayList<>();
+        for (long id = 1; id <= ingredients; id++) {
+            recipeIngredients.add(new Ingredient(id, "Ingredient " + id, new HashSet<>()));
+            RecipeUpdateRequest.IngredientRequest ingredientRequest = new RecipeUpdateRequest.IngredientRequest();
+            ingredientRequest.setId(id);
+            ingredientRequests.add(ingredientRequest);
+        }
+        recipe = new Recipe(1L, "Tomato Soup", true, 4, recipeIngredients, "Blend the tomatoes.", "A smooth soup.");
+
+        updateRequest = new RecipeUpdateRequest();
+        updateRequest.setName("Tomato Soup");
+        updateRequest.setDescription("A smooth soup.");
+        updateRequest.setInstructions("Blend the tomatoes.");
+        updateRequest.setServings(4);
+        updateRequest.setVegetarian(true);
+        updateRequest.setIngredients(ingredientRequests);
+    }
+
+    @Benchmark
+    public RecipeDto toRecipeDto() {
+        return objectMapper.toRecipeDto(recipe);
+    }
+
+    @Benchmark
+    public RecipeListingElementDto toRecipeListingElementDto() {
+        return objectMapper.toRecipeListingElementDto(recipe);
+    }
+
+    @Benchmark
+    public Recipe toRecipe() {
+        return objectMapper.toRecipe(updateRequest);
+    }
+}
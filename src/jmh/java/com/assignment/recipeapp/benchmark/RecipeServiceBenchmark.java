@@ -0,0 +1,102 @@
+package com.assignment.recipeapp.benchmark;
+
+import com.assignment.recipeapp.dto.RecipeDto;
+import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
+import com.assignment.recipeapp.dto.response.RecipeListingElementDto;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.service.RecipeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end recipe reads through {@link RecipeService}, its in-memory indexes and H2, on a dataset of configurable size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RecipeServiceBenchmark {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20, Sort.by("name"));
+    private static final Pageable BEST_MATCHES = PageRequest.of(0, 20, Sort.by("relevance"));
+
+    @Param({"1000", "10000"})
+    public int recipes;
+
+    private ConfigurableApplicationContext context;
+    private RecipeService recipeService;
+    private List<Long> recipeIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(recipes);
+        recipeService = context.getBean(RecipeService.class);
+        RecipeRepository recipeRepository = context.getBean(RecipeRepository.class);
+        recipeIds = new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).execute(status -> {
+            try (Stream<Long> ids = recipeRepository.streamAllIds()) {
+                return ids.toList();
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public RecipeDto getRecipe() {
+        return recipeService.getRecipe(recipeIds.get(ThreadLocalRandom.current().nextInt(recipeIds.size())));
+    }
+
+    @Benchmark
+    public Page<RecipeListingElementDto> searchByText() {
+        RecipeSearchRequest request = new RecipeSearchRequest();
+        request.setSearchText(randomIngredient() + " " + randomDish());
+        return recipeService.searchRecipes(request, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<RecipeListingElementDto> searchByRelevance() {
+        RecipeSearchRequest request = new RecipeSearchRequest();
+        request.setSearchText(randomIngredient() + " " + randomDish());
+        return recipeService.searchRecipes(request, BEST_MATCHES);
+    }
+
+    @Benchmark
+    public Page<RecipeListingElementDto> searchByIngredients() {
+        RecipeSearchRequest request = new RecipeSearchRequest();
+        request.setVegetarian(true);
+        request.setIncludeIngredients(List.of(randomIngredient()));
+        request.setExcludeIngredients(List.of(randomIngredient()));
+        return recipeService.searchRecipes(request, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<RecipeListingElementDto> listFiltered() {
+        RecipeSearchRequest request = new RecipeSearchRequest();
+        request.setServings(1 + ThreadLocalRandom.current().nextInt(8));
+        return recipeService.searchRecipes(request, FIRST_PAGE);
+    }
+
+    private static String randomIngredient() {
+        return BenchmarkApplication.POPULAR_INGREDIENTS.get(ThreadLocalRandom.current().nextInt(BenchmarkApplication.POPULAR_INGREDIENTS.size()));
+    }
+
+    private static String randomDish() {
+        return BenchmarkApplication.DISHES.get(ThreadLocalRandom.current().nextInt(BenchmarkApplication.DISHES.size()));
+    }
+}
@@ -0,0 +1,98 @@
+package com.assignment.recipeapp.benchmark;
+
+import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.repository.search.CandidateIds;
+import com.assignment.recipeapp.repository.search.RecipeSearchSpecification;
+import com.assignment.recipeapp.repository.search.SearchSpecification;
+import org.openjdk.jmh.annotations.*;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of search texts and building of the recipe search predicates, without running any query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchSpecificationBenchmark {
+
+    @Param({"tomato", "Spicy tomato soup, with fresh basil & garlic!"})
+    public String searchText;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private CriteriaBuilder cb;
+    private RecipeSearchRequest request;
+    private CandidateIds textMatches;
+    private CandidateIds ingredientMatches;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        cb = entityManager.getCriteriaBuilder();
+
+        request = new RecipeSearchRequest();
+        request.setSearchText(searchText);
+        request.setVegetarian(true);
+        request.setServings(4);
+        request.setIncludeIngredients(List.of("tomato", "basil"));
+        request.setExcludeIngredients(List.of("beef"));
+
+        RoaringBitmap universe = new RoaringBitmap();
+        universe.add(1L, 10_001L);
+        RoaringBitmap matches = new RoaringBitmap();
+        for (int id = 1; id <= 10_000; id += 40) {
+            matches.add(id);
+        }
+        textMatches = new CandidateIds(matches, universe, 1000);
+        ingredientMatches = new CandidateIds(universe.clone(), universe, 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Set<String> parseSearchTerms() {
+        return SearchSpecification.parseSearchTerms(searchText);
+    }
+
+    /**
+     * Search text and ingredient filters matched in SQL, as before the indexes are loaded.
+     */
+    @Benchmark
+    public Predicate sqlPredicates() {
+        return toPredicate(null, null);
+    }
+
+    /**
+     * Search text and ingredient filters resolved by the in-memory indexes, sent as id predicates.
+     */
+    @Benchmark
+    public Predicate indexPredicates() {
+        return toPredicate(textMatches, ingredientMatches);
+    }
+
+    private Predicate toPredicate(CandidateIds textMatches, CandidateIds ingredientMatches) {
+        CriteriaQuery<Recipe> query = cb.createQuery(Recipe.class);
+        Root<Recipe> root = query.from(Recipe.class);
+        return RecipeSearchSpecification.searchByText(request, textMatches, ingredientMatches).toPredicate(root, query, cb);
+    }
+}
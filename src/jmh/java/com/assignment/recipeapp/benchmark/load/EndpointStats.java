@@ -0,0 +1,77 @@
+package com.assignment.recipeapp.benchmark.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the recorded requests of an operation, updated by the HTTP client threads.
+ * <p>
+ *     The latency runs from the time a request was scheduled to be sent to the time its response was read, so that
+ *     a slow server or a late scheduler shows in the percentiles rather than slowing down the request rate
+ *     (no coordinated omission). The service time runs from the time the request was actually sent.
+ * </p>
+ */
+final class EndpointStats {
+
+    static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Histogram latency = new ConcurrentHistogram(1, HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+    private final Histogram serviceTime = new ConcurrentHistogram(1, HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+    private final Map<String, LongAdder> outcomes = new ConcurrentSkipListMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param intendedNanos time the request was scheduled to be sent
+     * @param sentNanos time the request was sent
+     * @param doneNanos time the response was read or the request failed
+     * @param outcome the status code, or the name of the failure
+     */
+    void record(long intendedNanos, long sentNanos, long doneNanos, String outcome) {
+        latency.recordValue(toMicros(doneNanos - intendedNanos));
+        serviceTime.recordValue(toMicros(doneNanos - sentNanos));
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records a request that was not sent because too many requests were in flight.
+     */
+    void drop() {
+        dropped.increment();
+    }
+
+    Histogram latency() {
+        return latency;
+    }
+
+    Histogram serviceTime() {
+        return serviceTime;
+    }
+
+    Map<String, LongAdder> outcomes() {
+        return outcomes;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return number of requests answered with a status other than 2xx or that failed
+     */
+    long errors() {
+        return outcomes.entrySet().stream()
+                .filter(outcome -> !outcome.getKey().startsWith("2"))
+                .mapToLong(outcome -> outcome.getValue().sum())
+                .sum();
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.max(1, Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+}
@@ -0,0 +1,159 @@
+package com.assignment.recipeapp.benchmark.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a traffic mix against a running application at a fixed request rate and reports latency percentiles
+ * per endpoint.
+ * <p>
+ *     This is an open model: requests are sent at their scheduled times whether or not earlier requests have been
+ *     answered, and latencies are measured from the scheduled times. Requests above the in-flight limit are
+ *     dropped and reported rather than queued, so that the request rate never depends on the server.
+ * </p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec@load -Dload.args="--rate 200 --duration 60s"},
+ * see {@link LoadOptions#USAGE} for all options.
+ */
+public final class LoadDriver {
+
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    private final LoadOptions options;
+    private final HttpClient client;
+    private final Workload workload;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Semaphore inFlight;
+    private final LongAdder completed = new LongAdder();
+
+    private LoadDriver(LoadOptions options, HttpClient client, Workload workload) {
+        this.options = options;
+        this.client = client;
+        this.workload = workload;
+        this.operations = options.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new EndpointStats());
+        }
+        this.inFlight = new Semaphore(options.maxInFlight());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        ObjectMapper jsonMapper = new ObjectMapper();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Workload workload = Workload.sample(client, options, jsonMapper);
+        System.out.printf("Sampled %d recipes and %d ingredients from %s%n", workload.recipes(), workload.ingredients(), options.url());
+
+        Instant startedAt = Instant.now();
+        LoadDriver driver = new LoadDriver(options, client, workload);
+        driver.run();
+
+        LoadReport report = new LoadReport(options, startedAt, driver.stats);
+        report.print(System.out);
+        report.write(jsonMapper, options.report());
+        System.out.printf("Report written to %s%n", options.report().toAbsolutePath());
+        if (options.baseline() != null) {
+            report.compare(jsonMapper, options.baseline(), System.out);
+        }
+        System.exit(0);
+    }
+
+    private void run() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(options.seed());
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long recordFrom = start + options.warmup().toNanos();
+        long end = recordFrom + options.duration().toNanos();
+        long nextProgress = start + PROGRESS_INTERVAL_NANOS;
+        System.out.printf("Sending %.1f requests/s for %s of warmup and %s recorded%n", options.rate(),
+                options.warmup(), options.duration());
+
+        for (double next = start; next < end; next += options.poisson()
+                ? -Math.log(1 - random.nextDouble()) * intervalNanos : intervalNanos) {
+            long intended = (long) next;
+            parkUntil(intended);
+            Operation operation = pick(random);
+            HttpRequest request = workload.request(operation, random);
+            send(operation, request, intended, intended >= recordFrom);
+            if (intended >= nextProgress) {
+                System.out.printf("%3ds: %d responses, %d in flight%s%n", TimeUnit.NANOSECONDS.toSeconds(intended - start),
+                        completed.sum(), options.maxInFlight() - inFlight.availablePermits(),
+                        intended < recordFrom ? " (warmup)" : "");
+                nextProgress += PROGRESS_INTERVAL_NANOS;
+            }
+        }
+        if (!inFlight.tryAcquire(options.maxInFlight(), DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            System.err.println("Some requests were still in flight after " + DRAIN_TIMEOUT_SECONDS + "s, they are not reported");
+        }
+    }
+
+    private void send(Operation operation, HttpRequest request, long intended, boolean recorded) {
+        EndpointStats endpoint = stats.get(operation);
+        if (!inFlight.tryAcquire()) {
+            if (recorded) {
+                endpoint.drop();
+            }
+            return;
+        }
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long done = System.nanoTime();
+            if (recorded) {
+                endpoint.record(intended, sent, done, response != null
+                        ? Integer.toString(response.statusCode())
+                        : unwrap(failure).getClass().getSimpleName());
+            }
+            completed.increment();
+            inFlight.release();
+        });
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; ; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+    }
+
+    private static void parkUntil(long deadline) {
+        for (long wait = deadline - System.nanoTime(); wait > 0; wait = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
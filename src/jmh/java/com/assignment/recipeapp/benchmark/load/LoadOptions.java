@@ -0,0 +1,118 @@
+package com.assignment.recipeapp.benchmark.load;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Options of a load run, parsed from {@code --name value} arguments.
+ *
+ * @param url base URL of the application
+ * @param user user of the HTTP Basic authentication
+ * @param password password of the HTTP Basic authentication
+ * @param rate target number of requests per second, whatever the response times
+ * @param warmup duration of the unrecorded warmup
+ * @param duration duration of the recorded run, after the warmup
+ * @param mix relative weight of every operation, operations without weight are not run
+ * @param poisson whether requests arrive at exponentially distributed intervals rather than evenly spaced
+ * @param seed seed of the arrivals and of the requests, the same seed replays the same requests
+ * @param maxInFlight number of requests in flight above which new requests are dropped rather than delayed
+ * @param sample number of recipes and ingredients read from the application to build requests
+ * @param label name of the run in the report, typically the version under test
+ * @param report file the report is written to
+ * @param baseline report of a previous run to compare with, if any
+ */
+record LoadOptions(URI url, String user, String password, double rate, Duration warmup, Duration duration,
+                   Map<Operation, Integer> mix, boolean poisson, long seed, int maxInFlight, int sample, String label,
+                   Path report, Path baseline) {
+
+    private static final Set<String> OPTIONS = Set.of("url", "user", "password", "rate", "warmup", "duration", "mix",
+            "arrivals", "seed", "max-in-flight", "sample", "label", "report", "baseline");
+    private static final String DEFAULT_MIX = "get-recipe=40,search-recipes=30,get-ingredient=10,search-ingredients=5,"
+            + "create-recipe=5,update-recipe=5,create-ingredient=3,update-ingredient=2";
+
+    static final String USAGE = """
+            Options:
+              --url <url>                 base URL of the application (http://localhost:8080)
+              --user <user>               HTTP Basic user (user)
+              --password <password>       HTTP Basic password (password)
+              --rate <requests/s>         target request rate (100)
+              --warmup <duration>         unrecorded warmup, e.g. 10s or 1m (10s)
+              --duration <duration>       recorded run (60s)
+              --mix <operation=weight,..> traffic mix (%s)
+              --arrivals <poisson|uniform> arrival process (poisson)
+              --seed <seed>               seed of arrivals and requests (42)
+              --max-in-flight <n>         requests in flight above which new requests are dropped (1024)
+              --sample <n>                recipes and ingredients read to build requests (10000)
+              --label <label>             name of the run in the report (unnamed)
+              --report <file>             JSON report (target/load-report.json)
+              --baseline <file>           previous report to compare with
+            """.formatted(DEFAULT_MIX);
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                throw new IllegalArgumentException("Expected --<option> <value> but got " + args[i]);
+            }
+            values.put(args[i].substring(2), args[++i]);
+        }
+        if (!OPTIONS.containsAll(values.keySet())) {
+            throw new IllegalArgumentException("Unknown options in " + values.keySet() + "\n" + USAGE);
+        }
+        LoadOptions options = new LoadOptions(
+                URI.create(values.getOrDefault("url", "http://localhost:8080")),
+                values.getOrDefault("user", "user"),
+                values.getOrDefault("password", "password"),
+                Double.parseDouble(values.getOrDefault("rate", "100")),
+                parseDuration(values.getOrDefault("warmup", "10s")),
+                parseDuration(values.getOrDefault("duration", "60s")),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                switch (values.getOrDefault("arrivals", "poisson")) {
+                    case "poisson" -> true;
+                    case "uniform" -> false;
+                    default -> throw new IllegalArgumentException("Unknown arrival process " + values.get("arrivals"));
+                },
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "1024")),
+                Integer.parseInt(values.getOrDefault("sample", "10000")),
+                values.getOrDefault("label", "unnamed"),
+                Path.of(values.getOrDefault("report", "target/load-report.json")),
+                values.containsKey("baseline") ? Path.of(values.get("baseline")) : null);
+        if (options.rate <= 0 || options.maxInFlight <= 0 || options.sample <= 0) {
+            throw new IllegalArgumentException("The rate, max-in-flight and sample must be positive");
+        }
+        return options;
+    }
+
+    private static Duration parseDuration(String value) {
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Expected a duration such as 30s, 5m or 1h but got " + value);
+        };
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] weight = entry.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Expected <operation>=<weight> but got " + entry);
+            }
+            int parsed = Integer.parseInt(weight[1].trim());
+            if (parsed > 0) {
+                mix.put(Operation.of(weight[0].trim()), parsed);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no operation");
+        }
+        return mix;
+    }
+}
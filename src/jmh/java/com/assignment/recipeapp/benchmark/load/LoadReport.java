@@ -0,0 +1,163 @@
+package com.assignment.recipeapp.benchmark.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * The JSON report of a load run.
+ * <p>
+ *     Keys are sorted and latencies are in microseconds, so that the reports of two versions can be diffed.
+ *     Every endpoint also carries its compressed latency histogram (HdrHistogram, base64), from which percentiles
+ *     not in the report can be computed later.
+ * </p>
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final String[] COMPARED = {"p50", "p99", "p99.9"};
+
+    private final Map<String, Object> content = new LinkedHashMap<>();
+
+    LoadReport(LoadOptions options, Instant startedAt, Map<Operation, EndpointStats> stats) {
+        Histogram total = new Histogram(1, EndpointStats.HIGHEST_MICROS, 3);
+        long completed = 0;
+        long dropped = 0;
+        long errors = 0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpoint = entry.getValue();
+            Map<String, Long> outcomes = new LinkedHashMap<>();
+            endpoint.outcomes().forEach((outcome, count) -> outcomes.put(outcome, count.sum()));
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("completed", endpoint.latency().getTotalCount());
+            summary.put("dropped", endpoint.dropped());
+            summary.put("errors", endpoint.errors());
+            summary.put("outcomes", outcomes);
+            summary.put("latencyMicros", percentiles(endpoint.latency()));
+            summary.put("serviceTimeMicros", percentiles(endpoint.serviceTime()));
+            summary.put("latencyHistogram", encode(endpoint.latency()));
+            endpoints.put(entry.getKey().key(), summary);
+            total.add(endpoint.latency());
+            completed += endpoint.latency().getTotalCount();
+            dropped += endpoint.dropped();
+            errors += endpoint.errors();
+        }
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("url", options.url().toString());
+        settings.put("rate", options.rate());
+        settings.put("warmupSeconds", options.warmup().toSeconds());
+        settings.put("durationSeconds", options.duration().toSeconds());
+        settings.put("arrivals", options.poisson() ? "poisson" : "uniform");
+        settings.put("seed", options.seed());
+        settings.put("maxInFlight", options.maxInFlight());
+        settings.put("sample", options.sample());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.mix().forEach((operation, weight) -> mix.put(operation.key(), weight));
+        settings.put("mix", mix);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("completed", completed);
+        summary.put("dropped", dropped);
+        summary.put("errors", errors);
+        summary.put("achievedRate", Math.round(completed * 10.0 / Math.max(1, options.duration().toSeconds())) / 10.0);
+        summary.put("latencyMicros", percentiles(total));
+
+        content.put("label", options.label());
+        content.put("startedAt", startedAt.toString());
+        content.put("options", settings);
+        content.put("summary", summary);
+        content.put("endpoints", endpoints);
+    }
+
+    void write(ObjectMapper jsonMapper, Path file) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        jsonMapper.writer()
+                .with(SerializationFeature.INDENT_OUTPUT)
+                .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .writeValue(file.toFile(), content);
+    }
+
+    /**
+     * Prints the percentiles of every endpoint, in milliseconds.
+     */
+    @SuppressWarnings("unchecked")
+    void print(PrintStream out) {
+        out.printf("%-20s %10s %8s %8s %10s %10s %10s %10s%n", "endpoint", "completed", "errors", "dropped",
+                "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        ((Map<String, Object>) content.get("endpoints"))
+                .forEach((endpoint, summary) -> printLine(out, endpoint, (Map<String, Object>) summary));
+        printLine(out, "total", (Map<String, Object>) content.get("summary"));
+    }
+
+    /**
+     * Prints the latency percentiles of every endpoint next to those of a previous report.
+     */
+    void compare(ObjectMapper jsonMapper, Path baseline, PrintStream out) throws IOException {
+        JsonNode previous = jsonMapper.readTree(baseline.toFile());
+        JsonNode current = jsonMapper.valueToTree(content);
+        out.printf("Compared with %s (%s)%n", previous.path("label").asText(), baseline);
+        current.get("endpoints").fieldNames().forEachRemaining(endpoint -> {
+            JsonNode before = previous.path("endpoints").path(endpoint).path("latencyMicros");
+            JsonNode after = current.get("endpoints").get(endpoint).get("latencyMicros");
+            if (before.isMissingNode()) {
+                out.printf("%-20s not in the baseline%n", endpoint);
+                return;
+            }
+            StringBuilder line = new StringBuilder(String.format("%-20s", endpoint));
+            for (String percentile : COMPARED) {
+                double was = before.path(percentile).asDouble();
+                double is = after.path(percentile).asDouble();
+                line.append(String.format(" %s %.2f -> %.2f ms (%+.1f%%)", percentile, was / 1000, is / 1000,
+                        was == 0 ? 0 : (is - was) * 100 / was));
+            }
+            out.println(line);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printLine(PrintStream out, String endpoint, Map<String, Object> summary) {
+        Map<String, Object> latency = (Map<String, Object>) summary.get("latencyMicros");
+        out.printf("%-20s %10d %8d %8d %10.2f %10.2f %10.2f %10.2f%n", endpoint, summary.get("completed"),
+                summary.get("errors"), summary.get("dropped"), millis(latency.get("p50")), millis(latency.get("p99")),
+                millis(latency.get("p99.9")), millis(latency.get("max")));
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("min", histogram.getTotalCount() == 0 ? 0 : histogram.getMinValue());
+        percentiles.put("mean", Math.round(histogram.getMean() * 10) / 10.0);
+        for (double percentile : PERCENTILES) {
+            String key = "p" + (percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile));
+            percentiles.put(key, histogram.getValueAtPercentile(percentile));
+        }
+        percentiles.put("max", histogram.getMaxValue());
+        return percentiles;
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer, Deflater.BEST_COMPRESSION);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static double millis(Object micros) {
+        return ((Number) micros).doubleValue() / 1000;
+    }
+}
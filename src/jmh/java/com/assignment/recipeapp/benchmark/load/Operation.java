@@ -0,0 +1,36 @@
+package com.assignment.recipeapp.benchmark.load;
+
+import java.util.Arrays;
+
+/**
+ * An operation of the traffic mix, recorded as an endpoint of the report.
+ */
+enum Operation {
+
+    GET_RECIPE("get-recipe"),
+    SEARCH_RECIPES("search-recipes"),
+    CREATE_RECIPE("create-recipe"),
+    UPDATE_RECIPE("update-recipe"),
+    GET_INGREDIENT("get-ingredient"),
+    SEARCH_INGREDIENTS("search-ingredients"),
+    CREATE_INGREDIENT("create-ingredient"),
+    UPDATE_INGREDIENT("update-ingredient");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    static Operation of(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation " + key + ", expected one of "
+                        + Arrays.stream(values()).map(Operation::key).toList()));
+    }
+}
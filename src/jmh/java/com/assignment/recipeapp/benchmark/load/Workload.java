@@ -0,0 +1,212 @@
+package com.assignment.recipeapp.benchmark.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the requests of a load run from a sample of the recipes and ingredients of the application.
+ * <p>
+ *     Ingredients are sampled in id order and picked with a skew towards the first ones, which are the most popular
+ *     in a generated dataset. Search words are taken from the sampled recipe names.
+ *     Requests only depend on the sample and on the random generator, so a seed replays the same traffic.
+ * </p>
+ */
+final class Workload {
+
+    private static final int SCROLL_SIZE = 1000;
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_NAME_LENGTH = 50;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI url;
+    private final String authorization;
+    private final ObjectMapper jsonMapper;
+    private final List<Long> recipeIds;
+    private final List<Long> ingredientIds;
+    private final List<String> ingredientNames;
+    private final List<String> words;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong created = new AtomicLong();
+
+    private Workload(URI url, String authorization, ObjectMapper jsonMapper, List<Long> recipeIds,
+                     List<Long> ingredientIds, List<String> ingredientNames, List<String> words) {
+        this.url = url;
+        this.authorization = authorization;
+        this.jsonMapper = jsonMapper;
+        this.recipeIds = recipeIds;
+        this.ingredientIds = ingredientIds;
+        this.ingredientNames = ingredientNames;
+        this.words = words;
+    }
+
+    /**
+     * Reads up to {@link LoadOptions#sample()} recipes and ingredients through the cursor listings.
+     */
+    static Workload sample(HttpClient client, LoadOptions options, ObjectMapper jsonMapper) throws IOException, InterruptedException {
+        String authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((options.user() + ":" + options.password()).getBytes(StandardCharsets.UTF_8));
+        List<Long> recipeIds = new ArrayList<>();
+        Set<String> words = new TreeSet<>();
+        for (JsonNode recipe : scroll(client, options, authorization, jsonMapper, "/api/recipes/scroll")) {
+            recipeIds.add(recipe.get("id").asLong());
+            for (String word : recipe.get("name").asText().toLowerCase(Locale.ROOT).split("\\W+")) {
+                if (word.length() > 3) {
+                    words.add(word);
+                }
+            }
+        }
+        List<Long> ingredientIds = new ArrayList<>();
+        List<String> ingredientNames = new ArrayList<>();
+        for (JsonNode ingredient : scroll(client, options, authorization, jsonMapper, "/api/ingredients/scroll")) {
+            ingredientIds.add(ingredient.get("id").asLong());
+            ingredientNames.add(ingredient.get("name").asText());
+        }
+        if (recipeIds.isEmpty() || words.isEmpty() || ingredientIds.size() < 2) {
+            throw new IllegalStateException("The application needs recipes and ingredients, start it with the dataset profile");
+        }
+        return new Workload(options.url(), authorization, jsonMapper, recipeIds, ingredientIds, ingredientNames,
+                List.copyOf(words));
+    }
+
+    int recipes() {
+        return recipeIds.size();
+    }
+
+    int ingredients() {
+        return ingredientIds.size();
+    }
+
+    HttpRequest request(Operation operation, SplittableRandom random) {
+        return switch (operation) {
+            case GET_RECIPE -> get("/api/recipes/" + pick(random, recipeIds));
+            case SEARCH_RECIPES -> get("/api/recipes?" + recipeSearch(random));
+            case CREATE_RECIPE -> send("POST", "/api/recipes", recipe(random));
+            case UPDATE_RECIPE -> send("PUT", "/api/recipes/" + pick(random, recipeIds), recipe(random));
+            case GET_INGREDIENT -> get("/api/ingredients/" + pick(random, ingredientIds));
+            case SEARCH_INGREDIENTS -> get("/api/ingredients/?" + query("searchText", pick(random, words)) + "&size=" + PAGE_SIZE);
+            case CREATE_INGREDIENT -> send("POST", "/api/ingredients", jsonMapper.createObjectNode()
+                    .put("name", "load " + runId + " " + created.incrementAndGet()));
+            case UPDATE_INGREDIENT -> {
+                int index = popular(random);
+                yield send("PUT", "/api/ingredients/" + ingredientIds.get(index), jsonMapper.createObjectNode()
+                        .put("id", ingredientIds.get(index))
+                        .put("name", ingredientNames.get(index)));
+            }
+        };
+    }
+
+    /**
+     * A search combining text, included and excluded ingredients, vegetarian and servings filters.
+     */
+    private String recipeSearch(SplittableRandom random) {
+        StringJoiner parameters = new StringJoiner("&");
+        if (random.nextInt(100) < 50) {
+            parameters.add(query("searchText", pick(random, words)));
+        }
+        if (random.nextInt(100) < 40) {
+            for (int i = 1 + random.nextInt(2); i > 0; i--) {
+                parameters.add(query("includeIngredients", ingredientNames.get(popular(random))));
+            }
+        }
+        if (random.nextInt(100) < 20) {
+            parameters.add(query("excludeIngredients", ingredientNames.get(popular(random))));
+        }
+        if (random.nextInt(100) < 30) {
+            parameters.add("vegetarian=" + random.nextBoolean());
+        }
+        if (random.nextInt(100) < 20) {
+            parameters.add("servings=" + (1 + random.nextInt(8)));
+        }
+        parameters.add("size=" + PAGE_SIZE);
+        return parameters.toString();
+    }
+
+    private ObjectNode recipe(SplittableRandom random) {
+        String name = "load " + pick(random, words) + " " + pick(random, words);
+        ObjectNode recipe = jsonMapper.createObjectNode()
+                .put("name", name.substring(0, Math.min(name.length(), MAX_NAME_LENGTH)))
+                .put("description", "A recipe written by the load driver")
+                .put("instructions", "1. Mix everything.\n2. Cook for " + (5 + random.nextInt(56)) + " minutes.")
+                .put("servings", 1 + random.nextInt(8))
+                .put("vegetarian", random.nextBoolean());
+        ArrayNode ingredients = recipe.putArray("ingredients");
+        Set<Long> picked = new LinkedHashSet<>();
+        for (int i = 2 + random.nextInt(9); i > 0 && picked.size() < ingredientIds.size(); i--) {
+            picked.add(ingredientIds.get(popular(random)));
+        }
+        picked.forEach(id -> ingredients.addObject().put("id", id));
+        return recipe;
+    }
+
+    /**
+     * @return an ingredient index, the lower the likelier
+     */
+    private int popular(SplittableRandom random) {
+        double u = random.nextDouble();
+        return (int) (u * u * u * ingredientIds.size());
+    }
+
+    private HttpRequest get(String path) {
+        return builder(path).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, ObjectNode body) {
+        try {
+            return builder(path)
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(jsonMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(url.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Authorization", authorization)
+                .header("Accept", "application/json");
+    }
+
+    private static List<JsonNode> scroll(HttpClient client, LoadOptions options, String authorization,
+                                         ObjectMapper jsonMapper, String path) throws IOException, InterruptedException {
+        List<JsonNode> elements = new ArrayList<>();
+        String after = null;
+        do {
+            String query = "?size=" + Math.min(SCROLL_SIZE, options.sample() - elements.size())
+                    + (after == null ? "" : "&" + query("after", after));
+            HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(options.url().resolve(path + query))
+                    .timeout(TIMEOUT)
+                    .header("Authorization", authorization)
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET " + path + query + " answered " + response.statusCode());
+            }
+            JsonNode slice = jsonMapper.readTree(response.body());
+            slice.get("content").forEach(elements::add);
+            after = slice.path("hasNext").asBoolean() ? slice.get("nextCursor").asText() : null;
+        } while (after != null && elements.size() < options.sample());
+        return elements;
+    }
+
+    private static String query(String name, String value) {
+        return name + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static <T> T pick(SplittableRandom random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
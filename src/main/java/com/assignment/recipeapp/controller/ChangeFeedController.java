@@ -0,0 +1,76 @@
+package com.assignment.recipeapp.controller;
+
+import com.assignment.recipeapp.dto.response.ChangeEvent;
+import com.assignment.recipeapp.service.changes.ChangeFeed;
+import com.assignment.recipeapp.service.changes.ChangeSink;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * The ChangeFeedController.
+ * <p>
+ *     This class is responsible for streaming the committed changes of recipes and ingredients as Server-Sent Events.
+ *     The id of every event is the sequence to resume after, so that an EventSource reconnecting resumes by itself.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final ChangeFeed changeFeed;
+
+    /**
+     * Stream the changes committed from now on, or since a sequence.
+     * Sends a "ready" event with the current sequence first when not resuming, then a "change" event per change, and
+     * a "resync" event when changes were missed, after which the recipes and ingredients must be read again.
+     * @param after sequence of the last change seen, to be sent the changes since
+     * @param lastEventId sent by reconnecting clients, takes precedence over after
+     * @return the event stream
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long after,
+                                    @RequestHeader(name = LAST_EVENT_ID, required = false) Long lastEventId) {
+        // timing out with the asynchronous requests, the client then reconnects and resumes
+        SseEmitter emitter = new SseEmitter();
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(lastEventId != null ? lastEventId : after, new EmitterSink(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements ChangeSink {
+
+        @Override
+        public void ready(long sequence) throws IOException {
+            emitter.send(SseEmitter.event().name("ready").id(Long.toString(sequence)).data(Map.of("sequence", sequence)));
+        }
+
+        @Override
+        public void change(ChangeEvent change) throws IOException {
+            emitter.send(SseEmitter.event().name("change").id(Long.toString(change.sequence())).data(change));
+        }
+
+        @Override
+        public void resync(long sequence) throws IOException {
+            emitter.send(SseEmitter.event().name("resync").id(Long.toString(sequence)).data(Map.of("sequence", sequence)));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.assignment.recipeapp.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET handler whose responses carry a validator, see {@link ConditionalGetInterceptor}.
+ * Handlers of a single entity take its id as the "id" path variable.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalGet {
+
+    /**
+     * @return the resource returned by the handler
+     */
+    Resource value();
+
+    enum Resource {
+        RECIPE,
+        RECIPE_LISTING,
+        INGREDIENT
+    }
+}
@@ -0,0 +1,96 @@
+package com.assignment.recipeapp.controller;
+
+import com.assignment.recipeapp.service.ResourceValidators;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Answers conditional GET requests of the handlers annotated with {@link ConditionalGet}.
+ * <p>
+ *     When the request has an If-None-Match or If-Modified-Since header, the validator of the resource is read before
+ *     the handler runs. When the header matches it, the request is answered with 304 Not Modified and the handler does
+ *     not run, so nothing is loaded or serialized. Otherwise the ETag and Last-Modified headers are added to the
+ *     response of the handler. Responses may be stored by clients but must be revalidated (Cache-Control: no-cache).
+ * </p>
+ * <p>
+ *     Unconditional requests of a recipe or an ingredient read no validator: the handler answers with {@link #ok}, whose
+ *     headers come from the entity it loaded, possibly from the second-level cache without any query.
+ * </p>
+ * <p>
+ *     Unknown entities are left to the handler, which answers 404.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private final ResourceValidators resourceValidators;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)
+                || !(HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod()))) {
+            return true;
+        }
+        ConditionalGet conditionalGet = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            return true;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        boolean conditional = request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+        if (!conditional && conditionalGet.value() != ConditionalGet.Resource.RECIPE_LISTING) {
+            return true;
+        }
+        Optional<ResourceValidators.Validator> validator = switch (conditionalGet.value()) {
+            case RECIPE -> id(request).flatMap(resourceValidators::recipe);
+            case INGREDIENT -> id(request).flatMap(resourceValidators::ingredient);
+            case RECIPE_LISTING -> Optional.of(resourceValidators.recipeListing());
+        };
+        if (validator.isEmpty()) {
+            return true;
+        }
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        ResourceValidators.Validator current = validator.get();
+        boolean notModified = current.lastModified() == null
+                ? webRequest.checkNotModified(current.etag())
+                : webRequest.checkNotModified(current.etag(), current.lastModified().toEpochMilli());
+        return !notModified;
+    }
+
+    /**
+     * @param validated a representation and the validator of the entity it was mapped from
+     * @return the response of the representation, with the ETag and Last-Modified headers of the validator
+     */
+    public static <T> ResponseEntity<T> ok(ResourceValidators.Validated<T> validated) {
+        ResourceValidators.Validator validator = validated.validator();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(validator.etag());
+        if (validator.lastModified() != null) {
+            response.lastModified(validator.lastModified());
+        }
+        return response.body(validated.body());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<Long> id(HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        try {
+            return Optional.ofNullable(variables).map(v -> v.get("id")).map(Long::valueOf);
+        } catch (NumberFormatException e) {
+            // left to the handler, which rejects it
+            return Optional.empty();
+        }
+    }
+}
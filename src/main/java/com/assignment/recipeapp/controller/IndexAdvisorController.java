@@ -0,0 +1,42 @@
+package com.assignment.recipeapp.controller;
+
+import com.assignment.recipeapp.metrics.IndexAdvice;
+import com.assignment.recipeapp.metrics.IndexAdvisor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * The IndexAdvisorController.
+ * <p>
+ *     This class exposes the combinations of columns the sampled recipe searches filter and sort on,
+ *     with the estimated rows they read and the composite indexes that would serve them.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/admin/index-advice")
+@RequiredArgsConstructor
+public class IndexAdvisorController {
+
+    private final IndexAdvisor indexAdvisor;
+
+    /**
+     * Get the index advice
+     * @return the sampled column combinations, those no index serves first
+     */
+    @GetMapping
+    public List<IndexAdvice> getIndexAdvice() {
+        return indexAdvisor.advise();
+    }
+
+    /**
+     * Forget the searches sampled so far
+     */
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void clearIndexAdvice() {
+        indexAdvisor.clear();
+    }
+}
@@ -5,6 +5,7 @@ import com.assignment.recipeapp.dto.request.IngredientSearchRequest;
 import com.assignment.recipeapp.dto.request.IngredientUpdateRequest;
 import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
 import com.assignment.recipeapp.dto.response.IngredientListingElementDto;
+import com.assignment.recipeapp.repository.search.CursorSlice;
 import com.assignment.recipeapp.service.IngredientService;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
@@ -58,12 +59,14 @@ public class IngredientController {
 
     /**
      * gets an ingredient by id.
+     * Answered with 304 when the If-None-Match or If-Modified-Since header matches the ingredient.
       * @param id the id of the ingredient
      * @return the ingredient
      */
     @GetMapping("/{id}")
-    public IngredientDto getIngredientById(@PathVariable Long id) {
-        return ingredientService.getIngredientById(id);
+    @ConditionalGet(ConditionalGet.Resource.INGREDIENT)
+    public ResponseEntity<IngredientDto> getIngredientById(@PathVariable Long id) {
+        return ConditionalGetInterceptor.ok(ingredientService.getValidatedIngredient(id));
     }
 
     /**
@@ -76,6 +79,21 @@ public class IngredientController {
         return ingredientService.searchIngredients(criteria, pageable);
     }
 
+    /**
+     * Gets ingredients with a cursor instead of a page number.
+     *
+     * @param criteria the search criteria
+     * @param after the cursor returned with the previous slice, absent for the first slice
+     * @param pageable the slice size and sort order
+     * @return the ingredients and the cursor of the next slice
+     */
+    @GetMapping("/scroll")
+    public CursorSlice<IngredientListingElementDto> scrollIngredients(@ModelAttribute IngredientSearchRequest criteria,
+                                                                      @RequestParam(name = "after", required = false) String after,
+                                                                      Pageable pageable) {
+        return ingredientService.scrollIngredients(criteria, after, pageable);
+    }
+
     /**
      * Updates an existing ingredient.
      *
@@ -1,8 +1,11 @@
 package com.assignment.recipeapp.controller;
 
+import com.assignment.recipeapp.dto.response.RecipeBatchResponse;
 import com.assignment.recipeapp.dto.response.RecipeListingElementDto;
+import com.assignment.recipeapp.dto.response.SearchExplanation;
 import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
 import com.assignment.recipeapp.dto.request.RecipeUpdateRequest;
+import com.assignment.recipeapp.repository.search.CursorSlice;
 import com.assignment.recipeapp.service.RecipeService;
 import com.assignment.recipeapp.dto.RecipeDto;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
@@ -15,6 +18,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.util.List;
 
 /**
  * The RecipeController.
@@ -36,12 +40,14 @@ public class RecipeController {
 
     /**
      * Get recipe by id
+     * Answered with 304 when the If-None-Match or If-Modified-Since header matches the recipe, see {@link ConditionalGet}
      * @param id recipe id
      * @return recipe
      */
     @GetMapping("/{id}")
-    public RecipeDto getRecipeById(@PathVariable("id") Long id) {
-        return recipeService.getRecipe(id);
+    @ConditionalGet(ConditionalGet.Resource.RECIPE)
+    public ResponseEntity<RecipeDto> getRecipeById(@PathVariable("id") Long id) {
+        return ConditionalGetInterceptor.ok(recipeService.getValidatedRecipe(id));
     }
 
     /**
@@ -55,6 +61,17 @@ public class RecipeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedRecipe);
     }
 
+    /**
+     * Add recipes in bulk
+     * @param recipeUpdateRequests recipes to be added
+     * @return outcome of every recipe, 201 when all were added and 207 when some were rejected
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<RecipeBatchResponse> createRecipes(@RequestBody List<RecipeUpdateRequest> recipeUpdateRequests) {
+        RecipeBatchResponse response = recipeService.createRecipes(recipeUpdateRequests);
+        return ResponseEntity.status(response.failed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(response);
+    }
+
     /**
      * Update recipe
      * @param id recipe id
@@ -77,8 +94,43 @@ public class RecipeController {
         recipeService.deleteRecipe(id);
     }
 
+    /**
+     * Search recipes
+     * Answered with 304 when the If-None-Match header matches, no recipe or ingredient having been written since
+     * @param criteria search criteria
+     * @param pageable page and sort order
+     * @return page of recipes
+     */
     @GetMapping
-        public Page<RecipeListingElementDto> getRecipes(@ModelAttribute RecipeSearchRequest criteria, Pageable pageable) {
+    @ConditionalGet(ConditionalGet.Resource.RECIPE_LISTING)
+    public Page<RecipeListingElementDto> getRecipes(@ModelAttribute RecipeSearchRequest criteria, Pageable pageable) {
         return recipeService.searchRecipes(criteria, pageable);
     }
+
+    /**
+     * Explain how a search is run: the parsed search terms, how each filter was resolved, the predicate of the
+     * queries, the number of candidates after each filter and the duration of each stage
+     * @param criteria search criteria, as for the search
+     * @param pageable page and sort order, as for the search
+     * @return explanation of the search
+     */
+    @GetMapping("/search/explain")
+    public SearchExplanation explainSearch(@ModelAttribute RecipeSearchRequest criteria, Pageable pageable) {
+        return recipeService.explainSearch(criteria, pageable);
+    }
+
+    /**
+     * Get recipes with a cursor instead of a page number
+     * @param criteria search criteria
+     * @param after cursor returned with the previous slice, absent for the first slice
+     * @param pageable slice size and sort order
+     * @return recipes and the cursor of the next slice
+     */
+    @GetMapping("/scroll")
+    @ConditionalGet(ConditionalGet.Resource.RECIPE_LISTING)
+    public CursorSlice<RecipeListingElementDto> scrollRecipes(@ModelAttribute RecipeSearchRequest criteria,
+                                                              @RequestParam(name = "after", required = false) String after,
+                                                              Pageable pageable) {
+        return recipeService.scrollRecipes(criteria, after, pageable);
+    }
 }
@@ -0,0 +1,41 @@
+package com.assignment.recipeapp.controller;
+
+import com.assignment.recipeapp.service.RecipeExportService;
+import com.assignment.recipeapp.service.importer.ImportFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * The RecipeExportController.
+ * <p>
+ *     This class is responsible for exporting the whole recipe catalog.
+ *     The response is written while the recipes are read, it is never buffered as a whole.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/recipes/export")
+@RequiredArgsConstructor
+public class RecipeExportController {
+
+    private final RecipeExportService recipeExportService;
+
+    /**
+     * Export all recipes with their ingredients, one JSON document per line
+     * @return recipes ordered by id
+     */
+    @GetMapping(produces = ImportFormat.NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportRecipes() {
+        StreamingResponseBody body = recipeExportService::exportRecipes;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ImportFormat.NDJSON_MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("recipes.ndjson").build().toString())
+                .body(body);
+    }
+}
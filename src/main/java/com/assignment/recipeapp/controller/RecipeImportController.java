@@ -0,0 +1,37 @@
+package com.assignment.recipeapp.controller;
+
+import com.assignment.recipeapp.dto.response.ImportReport;
+import com.assignment.recipeapp.service.RecipeImportService;
+import com.assignment.recipeapp.service.importer.ImportFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+/**
+ * The RecipeImportController.
+ * <p>
+ *     This class is responsible for importing recipes from large NDJSON or CSV streams.
+ *     The request body is read incrementally, it is never buffered as a whole.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/recipes/import")
+@RequiredArgsConstructor
+public class RecipeImportController {
+
+    private final RecipeImportService recipeImportService;
+
+    /**
+     * Import recipes, creating the ingredients they reference by name
+     * @param body records to be imported
+     * @param contentType application/x-ndjson or text/csv
+     * @return outcome of the import
+     */
+    @PostMapping(consumes = {ImportFormat.NDJSON_MEDIA_TYPE, ImportFormat.CSV_MEDIA_TYPE})
+    public ImportReport importRecipes(InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+        return recipeImportService.importRecipes(body, ImportFormat.of(contentType));
+    }
+}
@@ -0,0 +1,42 @@
+package com.assignment.recipeapp.controller;
+
+import com.assignment.recipeapp.metrics.SlowQuery;
+import com.assignment.recipeapp.metrics.SlowQueryLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * The SlowQueryController.
+ * <p>
+ *     This class exposes the statements that took longer than the slow query threshold,
+ *     with the request and search they were executed for, their bind values, row counts and plans.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/admin/slow-queries")
+@RequiredArgsConstructor
+public class SlowQueryController {
+
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * Get the slow queries
+     * @return the most recent slow queries, the most recent first
+     */
+    @GetMapping
+    public List<SlowQuery> getSlowQueries() {
+        return slowQueryLog.entries();
+    }
+
+    /**
+     * Forget the slow queries recorded so far
+     */
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void clearSlowQueries() {
+        slowQueryLog.clear();
+    }
+}
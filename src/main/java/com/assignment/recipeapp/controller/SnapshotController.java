@@ -0,0 +1,32 @@
+package com.assignment.recipeapp.controller;
+
+import com.assignment.recipeapp.dto.response.SnapshotReport;
+import com.assignment.recipeapp.service.snapshot.CatalogSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * The SnapshotController.
+ * <p>
+ *     This class writes binary snapshots of the catalog, that new nodes load on startup.
+ *     It is only available when a snapshot file is configured.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/admin/snapshot")
+@RequiredArgsConstructor
+@ConditionalOnProperty("recipe-app.snapshot.file")
+public class SnapshotController {
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    /**
+     * Write a snapshot of the catalog, replacing the previous one
+     * @return the snapshot file, the number of rows written, its size and the duration of the write
+     */
+    @PostMapping
+    public SnapshotReport writeSnapshot() {
+        return catalogSnapshotService.write();
+    }
+}
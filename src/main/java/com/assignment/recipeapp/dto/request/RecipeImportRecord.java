@@ -0,0 +1,32 @@
+package com.assignment.recipeapp.dto.request;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * A recipe read from an import file.
+ * Unlike a {@link RecipeUpdateRequest} it references its ingredients by name, missing ingredients are created.
+ */
+@Data
+@NoArgsConstructor
+public class RecipeImportRecord {
+    @NotBlank
+    @Size(max = 50, message = "Name cannot exceed {max} characters")
+    String name;
+    @NotBlank(message = "Description cannot be blank")
+    @Size(max = 500, message = "Description cannot exceed {max} characters")
+    String description;
+    @NotEmpty(message = "Ingredients cannot be empty")
+    List<@NotBlank(message = "Ingredient names cannot be blank") String> ingredients;
+    @NotBlank(message = "Instructions cannot be blank")
+    String instructions;
+    @Positive(message = "Servings must be positive")
+    Integer servings;
+    Boolean vegetarian;
+}
@@ -0,0 +1,32 @@
+package com.assignment.recipeapp.dto.response;
+
+import com.assignment.recipeapp.event.ChangeType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * A committed change of a recipe or an ingredient, as streamed by GET /api/changes.
+ *
+ * @param sequence position of the change in the feed, one more than the previous change
+ * @param entity the kind of entity changed
+ * @param changeType whether the entity was created, updated or deleted
+ * @param id the id of the entity
+ * @param name the name of the entity, absent when it was deleted
+ * @param committedAt when the change was published, right after its commit
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChangeEvent(
+        long sequence,
+        Entity entity,
+        ChangeType changeType,
+        Long id,
+        String name,
+        Instant committedAt
+) {
+
+    public enum Entity {
+        RECIPE,
+        INGREDIENT
+    }
+}
@@ -0,0 +1,32 @@
+package com.assignment.recipeapp.dto.response;
+
+import java.util.List;
+
+/**
+ * Outcome of a recipe import.
+ *
+ * @param read number of records read
+ * @param created number of recipes created
+ * @param failed number of records rejected
+ * @param ingredientsCreated number of ingredients created because no ingredient had their name
+ * @param elapsedMillis duration of the import
+ * @param recordsPerSecond throughput of the import
+ * @param errors the first rejected records
+ */
+public record ImportReport(
+        long read,
+        long created,
+        long failed,
+        long ingredientsCreated,
+        long elapsedMillis,
+        double recordsPerSecond,
+        List<ImportError> errors
+) {
+
+    /**
+     * @param line line of the record in the import file
+     * @param message why the record was rejected
+     */
+    public record ImportError(long line, String message) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.assignment.recipeapp.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Outcome of a single recipe of a batch.
+ *
+ * @param index position of the recipe in the request
+ * @param id id of the created recipe, absent when it failed
+ * @param errors reasons the recipe was rejected, absent when it was created
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record RecipeBatchItemResult(
+        int index,
+        Long id,
+        List<String> errors
+) {
+    public static RecipeBatchItemResult created(int index, Long id) {
+        return new RecipeBatchItemResult(index, id, List.of());
+    }
+
+    public static RecipeBatchItemResult failed(int index, List<String> errors) {
+        return new RecipeBatchItemResult(index, null, errors);
+    }
+}
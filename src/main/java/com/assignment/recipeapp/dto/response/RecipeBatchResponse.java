@@ -0,0 +1,17 @@
+package com.assignment.recipeapp.dto.response;
+
+import java.util.List;
+
+/**
+ * Outcome of a recipe batch.
+ *
+ * @param created number of recipes created
+ * @param failed number of recipes rejected
+ * @param items outcome of every recipe, in request order
+ */
+public record RecipeBatchResponse(
+        int created,
+        int failed,
+        List<RecipeBatchItemResult> items
+) {
+}
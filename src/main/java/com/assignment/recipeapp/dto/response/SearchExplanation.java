@@ -0,0 +1,79 @@
+package com.assignment.recipeapp.dto.response;
+
+import com.assignment.recipeapp.repository.search.PredicateTree;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * How a recipe search was run.
+ *
+ * @param terms the terms parsed from the search text
+ * @param path how the page was found
+ * @param filters how the search text and ingredient filters were resolved, for those requested
+ * @param predicate the predicate of the database queries, null when no query filtered the recipes
+ * @param candidates the number of recipes known to the indexes, matching each index filter, and matching
+ *                   the filters combined, in the order they were resolved
+ * @param stages the duration of each stage, in the order they ran
+ * @param totalMatches number of recipes matching the search
+ * @param returned number of recipes in the requested page
+ * @param elapsedMillis duration of the whole search
+ */
+public record SearchExplanation(
+        Set<String> terms,
+        ExecutionPath path,
+        Map<String, FilterResolution> filters,
+        PredicateTree predicate,
+        List<Candidates> candidates,
+        List<Stage> stages,
+        long totalMatches,
+        int returned,
+        double elapsedMillis
+) {
+
+    public enum ExecutionPath {
+        /**
+         * An in-memory index matched no recipe, no query was run.
+         */
+        EMPTY,
+        /**
+         * The text index ranked the matches by relevance, the recipes of the page were loaded by id.
+         */
+        RANKED,
+        /**
+         * The database selected and counted the page of ids, the recipes of the page were loaded by id.
+         */
+        SQL
+    }
+
+    public enum FilterResolution {
+        /**
+         * Resolved by the in-memory index, the database only received the matching ids.
+         */
+        INDEX,
+        /**
+         * Resolved by the in-memory index, but the matching ids and the other ids were both too many to be sent
+         * as a list, so the database evaluated the filter again.
+         */
+        INDEX_TOO_MANY_IDS,
+        /**
+         * Evaluated by the database, the index was not loaded.
+         */
+        SQL
+    }
+
+    /**
+     * @param filter the filter, or the filters combined
+     * @param count number of recipes matching it
+     */
+    public record Candidates(String filter, long count) {
+    }
+
+    /**
+     * @param name the stage
+     * @param millis its duration
+     */
+    public record Stage(String name, double millis) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.assignment.recipeapp.dto.response;
+
+/**
+ * Outcome of writing or loading a catalog snapshot.
+ *
+ * @param file the snapshot file
+ * @param ingredients number of ingredients
+ * @param recipes number of recipes
+ * @param recipeIngredients number of recipe/ingredient associations
+ * @param bytes size of the snapshot file
+ * @param elapsedMillis duration of the write or load
+ */
+public record SnapshotReport(
+        String file,
+        long ingredients,
+        long recipes,
+        long recipeIngredients,
+        long bytes,
+        long elapsedMillis
+) {
+}
@@ -1,34 +1,69 @@
 package com.assignment.recipeapp.entity;
 
+import com.assignment.recipeapp.repository.cache.EntityCacheConfiguration;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.persistence.metamodel.StaticMetamodel;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
 @StaticMetamodel(Ingredient.class)
 @Entity
-@Table(name = "ingredients")
+@Table(name = "ingredients",
+        uniqueConstraints = @UniqueConstraint(name = "ingredients_name_key_uk", columnNames = "name_key"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfiguration.INGREDIENTS)
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class Ingredient {
 
+    // pooled sequence ids let Hibernate batch the inserts, IDENTITY would force one insert per round trip
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredients_seq")
+    @SequenceGenerator(name = "ingredients_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, unique = true)
     private String name;
 
+    // lower(name), computed by the database: names are unique whatever their case, and case-insensitive lookups use
+    // the unique index instead of applying lower() to every name; only ever read by queries
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "name_key", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(name))")
+    private String nameKey;
+
     @ManyToMany(mappedBy = "ingredients")
     private Set<Recipe> recipes = new HashSet<>();
 
+    // incremented by Hibernate with every update; part of the ETags, also of the recipes using the ingredient
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @Column(nullable = false)
+    private Instant lastModified;
+
+    public Ingredient(Long id, String name, Set<Recipe> recipes) {
+        this.id = id;
+        this.name = name;
+        this.recipes = recipes;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = Instant.now();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
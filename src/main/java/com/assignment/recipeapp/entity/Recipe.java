@@ -1,13 +1,17 @@
 package com.assignment.recipeapp.entity;
 
+import com.assignment.recipeapp.repository.cache.EntityCacheConfiguration;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.persistence.metamodel.StaticMetamodel;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -15,15 +19,22 @@ import java.util.Set;
 
 @StaticMetamodel(Recipe.class)
 @Entity
-@Table(name = "recipes")
+// the indexes of the search filters and of sorting by name, also created by db/migration for the persistent profile
+@Table(name = "recipes", indexes = {
+        @Index(name = "recipes_servings_idx", columnList = "servings, vegetarian"),
+        @Index(name = "recipes_vegetarian_idx", columnList = "vegetarian"),
+        @Index(name = "recipes_name_idx", columnList = "name")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfiguration.RECIPES)
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class Recipe {
 
+    // pooled sequence ids let Hibernate batch the inserts, IDENTITY would force one insert per round trip
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipes_seq")
+    @SequenceGenerator(name = "recipes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -36,10 +47,13 @@ public class Recipe {
     private int servings;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfiguration.RECIPE_INGREDIENTS)
     @JoinTable(
             name = "recipes_ingredients",
             joinColumns = @JoinColumn(name = "recipe_id"),
-            inverseJoinColumns = @JoinColumn(name = "ingredient_id")
+            inverseJoinColumns = @JoinColumn(name = "ingredient_id"),
+            // the primary key serves lookups by recipe, this one the recipes of an ingredient
+            indexes = @Index(name = "recipes_ingredients_ingredient_idx", columnList = "ingredient_id, recipe_id")
     )
     private Set<Ingredient> ingredients = new HashSet<>();
 
@@ -49,6 +63,31 @@ public class Recipe {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String description;
 
+    // incremented by Hibernate with every update, changes of the ingredient list included; part of the ETags
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @Column(nullable = false)
+    private Instant lastModified;
+
+    public Recipe(Long id, String name, boolean vegetarian, int servings, Set<Ingredient> ingredients,
+                  String instructions, String description) {
+        this.id = id;
+        this.name = name;
+        this.vegetarian = vegetarian;
+        this.servings = servings;
+        this.ingredients = ingredients;
+        this.instructions = instructions;
+        this.description = description;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = Instant.now();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,10 @@
+package com.assignment.recipeapp.event;
+
+/**
+ * Kind of change applied to an entity.
+ */
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
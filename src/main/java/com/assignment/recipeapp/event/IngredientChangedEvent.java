@@ -0,0 +1,21 @@
+package com.assignment.recipeapp.event;
+
+import com.assignment.recipeapp.entity.Ingredient;
+
+/**
+ * Published by the IngredientService whenever an ingredient is created, updated or deleted.
+ */
+public record IngredientChangedEvent(
+        ChangeType changeType,
+        Long ingredientId,
+        String name
+) {
+
+    public static IngredientChangedEvent of(ChangeType changeType, Ingredient ingredient) {
+        return new IngredientChangedEvent(changeType, ingredient.getId(), ingredient.getName());
+    }
+
+    public static IngredientChangedEvent deleted(Long ingredientId) {
+        return new IngredientChangedEvent(ChangeType.DELETED, ingredientId, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.assignment.recipeapp.event;
+
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.entity.Recipe;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published by the RecipeService whenever a recipe is created, updated or deleted.
+ * <p>
+ *     The event carries a detached snapshot of the recipe so that listeners running
+ *     after the transaction has committed never touch lazy associations.
+ * </p>
+ */
+public record RecipeChangedEvent(
+        ChangeType changeType,
+        Long recipeId,
+        String name,
+        String description,
+        String instructions,
+        Set<Long> ingredientIds
+) {
+
+    public static RecipeChangedEvent of(ChangeType changeType, Recipe recipe) {
+        Set<Long> ingredientIds = recipe.getIngredients().stream()
+                .map(Ingredient::getId)
+                .collect(Collectors.toUnmodifiableSet());
+        return new RecipeChangedEvent(changeType, recipe.getId(), recipe.getName(),
+                recipe.getDescription(), recipe.getInstructions(), ingredientIds);
+    }
+
+    public static RecipeChangedEvent deleted(Long recipeId) {
+        return new RecipeChangedEvent(ChangeType.DELETED, recipeId, null, null, null, Set.of());
+    }
+}
@@ -0,0 +1,16 @@
+package com.assignment.recipeapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception thrown when a batch request holds more items than allowed.
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class BatchTooLargeException extends ResponseStatusException {
+
+    public BatchTooLargeException(int size, int maxSize) {
+        super(HttpStatus.PAYLOAD_TOO_LARGE, String.format("Batch of %d items exceeds the maximum of %d.", size, maxSize));
+    }
+}
@@ -4,11 +4,19 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collection;
+
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class EntityNotFoundException extends ResponseStatusException {
 
     public EntityNotFoundException(String entityName, Long entityId) {
         super(HttpStatus.NOT_FOUND, String.format("%s with id %d not found.", entityName, entityId));
     }
+
+    public EntityNotFoundException(String entityName, Collection<Long> entityIds) {
+        super(HttpStatus.NOT_FOUND, entityIds.size() == 1
+                ? String.format("%s with id %d not found.", entityName, entityIds.iterator().next())
+                : String.format("%ss with ids %s not found.", entityName, entityIds));
+    }
 }
 
@@ -3,6 +3,8 @@ package com.assignment.recipeapp.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collection;
+
 /**
  * Exception thrown when an ingredient is not found.
  */
@@ -11,4 +13,8 @@ public class IngredientNotFoundException extends EntityNotFoundException {
     public IngredientNotFoundException(Long id) {
         super("Ingredient", id);
     }
+
+    public IngredientNotFoundException(Collection<Long> ids) {
+        super("Ingredient", ids);
+    }
 }
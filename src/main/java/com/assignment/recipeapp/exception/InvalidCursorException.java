@@ -0,0 +1,16 @@
+package com.assignment.recipeapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception thrown when a cursor listing is requested with an unsupported sort order or a malformed cursor.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends ResponseStatusException {
+
+    public InvalidCursorException(String reason) {
+        super(HttpStatus.BAD_REQUEST, reason);
+    }
+}
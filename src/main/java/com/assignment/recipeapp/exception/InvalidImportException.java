@@ -0,0 +1,16 @@
+package com.assignment.recipeapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception thrown when an import file cannot be read at all, as opposed to a single rejected record.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidImportException extends ResponseStatusException {
+
+    public InvalidImportException(String reason) {
+        super(HttpStatus.BAD_REQUEST, reason);
+    }
+}
@@ -0,0 +1,16 @@
+package com.assignment.recipeapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception thrown when the change feed already streams to as many subscribers as allowed.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TooManySubscribersException extends ResponseStatusException {
+
+    public TooManySubscribersException(int maxSubscribers) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, String.format("The change feed already has %d subscribers.", maxSubscribers));
+    }
+}
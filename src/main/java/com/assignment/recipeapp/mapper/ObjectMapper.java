@@ -31,6 +31,8 @@ public interface ObjectMapper {
     @Mapping(target = "instructions", source = "instructions")
     @Mapping(target = "description", source = "description")
     @Mapping(target = "ingredients", source = "ingredients")
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
     Recipe toRecipe(RecipeUpdateRequest recipeUpdateRequest);
 
     @Mapping(target = "id", source = "ingredient.id")
@@ -38,6 +40,8 @@ public interface ObjectMapper {
     IngredientListingElementDto toIngredientListingElementDto(Ingredient ingredient);
 
     @Mapping(target = "recipes", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
     @Mapping(target = "name", source = "ingredientDto.name")
     Ingredient toIngredient(IngredientUpdateRequest ingredientDto);
 
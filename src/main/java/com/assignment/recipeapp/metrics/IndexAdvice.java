@@ -0,0 +1,26 @@
+package com.assignment.recipeapp.metrics;
+
+import java.util.List;
+
+/**
+ * A combination of recipe columns searches filter and sort on, and whether an index serves it.
+ *
+ * @param columns the columns of the index serving the searches: the filtered columns, most selective first, then the
+ *                sorted columns
+ * @param searches number of sampled searches
+ * @param share share of the sampled searches
+ * @param matchingRows estimated rows matching the filters of a search
+ * @param rowsRead estimated rows read per search with the existing indexes
+ * @param coveringIndex the existing index serving the combination, null when there is none
+ * @param statement the statement creating the index, null when an index serves the combination already
+ */
+public record IndexAdvice(
+        List<String> columns,
+        long searches,
+        double share,
+        long matchingRows,
+        long rowsRead,
+        String coveringIndex,
+        String statement
+) {
+}
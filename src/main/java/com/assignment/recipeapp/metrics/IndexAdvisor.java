@@ -0,0 +1,199 @@
+package com.assignment.recipeapp.metrics;
+
+import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Samples the shapes of the recipe searches run in SQL, the columns they filter and sort on, and reports the
+ * combinations of columns a composite index would serve.
+ * <p>
+ *     Sampling costs a random draw per search, and a counter increment for the sampled ones. The advice is computed
+ *     on request: the number of distinct values of every column, read with a full scan of the recipes, gives the
+ *     estimated rows a search matches, assuming the columns independent, and the rows it reads with the leading
+ *     filtered columns of the best existing index. A combination is served by an index starting with its filtered
+ *     columns, in any order, followed by its sorted columns.
+ * </p>
+ */
+@Component
+public class IndexAdvisor {
+
+    private static final String TABLE = "recipes";
+    /**
+     * Columns of the recipes that searches filter or sort on, whose property names are the column names.
+     */
+    private static final Set<String> COLUMNS = Set.of("id", "name", "servings", "vegetarian");
+    private static final String STATISTICS = "select count(*), count(distinct name), count(distinct servings), "
+            + "count(distinct vegetarian) from " + TABLE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double sampleRate;
+    private final Map<SearchShape, LongAdder> shapes = new ConcurrentHashMap<>();
+    private final LongAdder sampled = new LongAdder();
+
+    public IndexAdvisor(JdbcTemplate jdbcTemplate, @Value("${recipe-app.index-advisor.sample-rate:0.1}") double sampleRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Samples a search run in SQL.
+     *
+     * @param searchRequest the search criteria
+     * @param sort the sort order of the query, unsorted when it only filters
+     */
+    public void sample(RecipeSearchRequest searchRequest, Sort sort) {
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        sampled.increment();
+        shapes.computeIfAbsent(SearchShape.of(searchRequest, sort), shape -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return the combinations of at least two columns sampled, those no index serves first, then by the rows an
+     *         index would spare
+     */
+    public List<IndexAdvice> advise() {
+        long total = sampled.sum();
+        if (total == 0) {
+            return List.of();
+        }
+        Statistics statistics = jdbcTemplate.queryForObject(STATISTICS, (rs, row) -> new Statistics(rs.getLong(1),
+                Map.of("name", rs.getLong(2), "servings", rs.getLong(3), "vegetarian", rs.getLong(4), "id", rs.getLong(1))));
+        Map<String, List<String>> indexes = existingIndexes();
+        List<IndexAdvice> advice = new ArrayList<>();
+        shapes.forEach((shape, count) -> {
+            if (shape.filters().size() + shape.sorts().size() >= 2) {
+                advice.add(advise(shape, count.sum(), total, statistics, indexes));
+            }
+        });
+        advice.sort(Comparator.comparing((IndexAdvice a) -> a.coveringIndex() != null)
+                .thenComparing(a -> -a.searches() * (double) (a.rowsRead() - a.matchingRows())));
+        return advice;
+    }
+
+    public void clear() {
+        shapes.clear();
+        sampled.reset();
+    }
+
+    private static IndexAdvice advise(SearchShape shape, long searches, long total, Statistics statistics,
+                                      Map<String, List<String>> indexes) {
+        List<String> columns = new ArrayList<>(shape.filters());
+        // equality filters serve in any order, the most selective first keeps the index useful to searches filtering on it alone
+        columns.sort(Comparator.comparing(column -> -statistics.distinct(column)));
+        columns.addAll(shape.sorts());
+        long rowsRead = statistics.rows();
+        String coveringIndex = null;
+        for (Map.Entry<String, List<String>> index : indexes.entrySet()) {
+            rowsRead = Math.min(rowsRead, statistics.rowsMatching(leadingFilters(index.getValue(), shape.filters())));
+            if (covers(index.getValue(), shape)) {
+                coveringIndex = index.getKey();
+            }
+        }
+        String statement = coveringIndex != null ? null
+                : "create index " + TABLE + "_" + String.join("_", columns) + "_idx on " + TABLE + " (" + String.join(", ", columns) + ")";
+        return new IndexAdvice(List.copyOf(columns), searches, (double) searches / total,
+                statistics.rowsMatching(shape.filters()), rowsRead, coveringIndex, statement);
+    }
+
+    /**
+     * @return the leading columns of an index among the filtered columns, those the index narrows the search with
+     */
+    private static List<String> leadingFilters(List<String> indexColumns, List<String> filters) {
+        int length = 0;
+        while (length < indexColumns.size() && filters.contains(indexColumns.get(length))) {
+            length++;
+        }
+        return indexColumns.subList(0, length);
+    }
+
+    private static boolean covers(List<String> indexColumns, SearchShape shape) {
+        int filters = shape.filters().size();
+        if (indexColumns.size() < filters + shape.sorts().size()) {
+            return false;
+        }
+        return new HashSet<>(indexColumns.subList(0, filters)).equals(new HashSet<>(shape.filters()))
+                && indexColumns.subList(filters, filters + shape.sorts().size()).equals(shape.sorts());
+    }
+
+    /**
+     * @return the columns of the indexes of the recipes, primary key included, by index name
+     */
+    private Map<String, List<String>> existingIndexes() {
+        return jdbcTemplate.execute((ConnectionCallback<Map<String, List<String>>>) connection -> {
+            Map<String, SortedMap<Short, String>> columns = new TreeMap<>();
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, TABLE, false, true)) {
+                while (rs.next()) {
+                    String column = rs.getString("COLUMN_NAME");
+                    if (column != null) {
+                        columns.computeIfAbsent(rs.getString("INDEX_NAME"), name -> new TreeMap<>())
+                                .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            Map<String, List<String>> indexes = new TreeMap<>();
+            columns.forEach((name, ordered) -> indexes.put(name, List.copyOf(ordered.values())));
+            return indexes;
+        });
+    }
+
+    /**
+     * @param filters the columns filtered on, sorted
+     * @param sorts the columns sorted on and not filtered on, in order
+     */
+    record SearchShape(List<String> filters, List<String> sorts) {
+
+        static SearchShape of(RecipeSearchRequest searchRequest, Sort sort) {
+            SortedSet<String> filters = new TreeSet<>();
+            if (searchRequest.getName() != null && !searchRequest.getName().isEmpty()) {
+                filters.add("name");
+            }
+            if (searchRequest.getServings() != null) {
+                filters.add("servings");
+            }
+            if (searchRequest.getVegetarian() != null) {
+                filters.add("vegetarian");
+            }
+            List<String> sorts = sort.stream()
+                    .map(Sort.Order::getProperty)
+                    .filter(COLUMNS::contains)
+                    // a column filtered on has a single value, sorting on it is free
+                    .filter(column -> !filters.contains(column))
+                    .distinct()
+                    .toList();
+            return new SearchShape(List.copyOf(filters), sorts);
+        }
+    }
+
+    /**
+     * @param rows number of recipes
+     * @param distinct number of distinct values by column
+     */
+    private record Statistics(long rows, Map<String, Long> distinct) {
+
+        long distinct(String column) {
+            return distinct.getOrDefault(column, 1L);
+        }
+
+        long rowsMatching(Collection<String> filters) {
+            double rows = this.rows;
+            for (String column : filters) {
+                rows /= Math.max(1, distinct(column));
+            }
+            return (long) Math.ceil(rows);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.assignment.recipeapp.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+
+/**
+ * Data source measuring every statement executed through its connections: the execution and the reading of the
+ * results, the bind values and the number of rows. Statements reaching the threshold of the {@link SlowQueryLog}
+ * are recorded there.
+ * <p>
+ *     The time between two rows, spent by the caller rather than the database, is not measured.
+ * </p>
+ */
+final class InstrumentedDataSource extends DelegatingDataSource {
+
+    private final Supplier<SlowQueryLog> slowQueryLog;
+
+    /**
+     * @param target the data source of the connections
+     * @param slowQueryLog resolved on the first statement, as the data source is created before it
+     */
+    InstrumentedDataSource(DataSource target, Supplier<SlowQueryLog> slowQueryLog) {
+        super(target);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Proxies are only equal to themselves, whatever the equality of the proxied objects.
+     */
+    private static boolean isIdentityMethod(Method method) {
+        return method.getDeclaringClass() == Object.class && !method.getName().equals("toString");
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = InstrumentedDataSource.invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> proxy(PreparedStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+                case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result, null));
+                default -> result;
+            };
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final SortedMap<Integer, Object> parameters = new TreeMap<>();
+        private String sql;
+        private long nanos;
+        private long rows;
+        private boolean reading;
+
+        private StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+                return InstrumentedDataSource.invoke(statement, method, args);
+            }
+            return switch (name) {
+                case "clearParameters" -> {
+                    parameters.clear();
+                    yield InstrumentedDataSource.invoke(statement, method, args);
+                }
+                case "close" -> {
+                    finish();
+                    yield InstrumentedDataSource.invoke(statement, method, args);
+                }
+                case "getResultSet" -> wrapResultSet(InstrumentedDataSource.invoke(statement, method, args));
+                default -> name.startsWith("execute")
+                        ? execute(method, args)
+                        : InstrumentedDataSource.invoke(statement, method, args);
+            };
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finish();
+            if (args != null && args.length > 0 && args[0] instanceof String text) {
+                sql = text;
+            }
+            long started = System.nanoTime();
+            Object result = InstrumentedDataSource.invoke(statement, method, args);
+            nanos = System.nanoTime() - started;
+            if (result instanceof ResultSet) {
+                reading = true;
+                return wrapResultSet(result);
+            }
+            if (result instanceof int[] counts) {
+                rows = Arrays.stream(counts).asLongStream().sum();
+            } else if (result instanceof long[] counts) {
+                rows = Arrays.stream(counts).sum();
+            } else if (result instanceof Number count) {
+                rows = count.longValue();
+            } else {
+                reading = true;
+                return result;
+            }
+            record();
+            return result;
+        }
+
+        private Object wrapResultSet(Object result) {
+            return result instanceof ResultSet resultSet && reading
+                    ? proxy(ResultSet.class, new ResultSetHandler(resultSet, this))
+                    : result;
+        }
+
+        private void finish() {
+            if (reading) {
+                reading = false;
+                record();
+            }
+        }
+
+        private void record() {
+            SlowQueryLog log = slowQueryLog.get();
+            if (sql != null && log.isSlow(nanos)) {
+                log.record(sql, parameters, rows, nanos, getTargetDataSource());
+            }
+            rows = 0;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet resultSet;
+        private final StatementHandler statement;
+
+        private ResultSetHandler(ResultSet resultSet, StatementHandler statement) {
+            this.resultSet = resultSet;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            return switch (method.getName()) {
+                case "next" -> {
+                    long started = System.nanoTime();
+                    Object next = InstrumentedDataSource.invoke(resultSet, method, args);
+                    statement.nanos += System.nanoTime() - started;
+                    if (Boolean.TRUE.equals(next)) {
+                        statement.rows++;
+                    }
+                    yield next;
+                }
+                case "close" -> {
+                    Object result = InstrumentedDataSource.invoke(resultSet, method, args);
+                    statement.finish();
+                    yield result;
+                }
+                default -> InstrumentedDataSource.invoke(resultSet, method, args);
+            };
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.assignment.recipeapp.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Metrics configuration.
+ * <p>
+ *     Requests are timed per endpoint by Spring Boot ({@code http.server.requests}), service methods by the
+ *     {@link io.micrometer.core.annotation.Timed} annotations of the services ({@value #SERVICE_TIMER}), SQL statements
+ *     by {@link SqlStatementListener} and {@link SqlRequestMetricsFilter}. Hibernate statistics and connection pool
+ *     metrics are bound by Spring Boot. Everything is exposed at /actuator/metrics.
+ * </p>
+ * <p>
+ *     Statements over a threshold are kept with their plans by the {@link SlowQueryLog}, at /api/admin/slow-queries.
+ * </p>
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Timer of the service methods, tagged with the class and the method.
+     */
+    public static final String SERVICE_TIMER = "recipeapp.service";
+
+    /**
+     * Times the methods annotated with {@link io.micrometer.core.annotation.Timed}, or all the methods of an annotated class.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Measures the statements of the data source for the slow query log.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "recipe-app.slow-query.enabled", matchIfMissing = true)
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)
+                        ? new InstrumentedDataSource(dataSource, slowQueryLog::getObject)
+                        : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.assignment.recipeapp.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Records the searches run by the services, with their criteria and page, for the {@link SlowQueryLog}.
+ */
+@Aspect
+@Component
+public class SearchOriginAspect {
+
+    @Around("execution(public * com.assignment.recipeapp.service..*(com.assignment.recipeapp.repository.search.SearchRequest+, ..))")
+    public Object recordSearch(ProceedingJoinPoint joinPoint) throws Throwable {
+        String search = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName()
+                + Arrays.stream(joinPoint.getArgs()).map(String::valueOf).collect(Collectors.joining(", ", "(", ")"));
+        String previous = SlowQueryLog.startSearch(search);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            SlowQueryLog.endSearch(previous);
+        }
+    }
+}
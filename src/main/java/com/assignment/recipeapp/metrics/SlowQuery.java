@@ -0,0 +1,49 @@
+package com.assignment.recipeapp.metrics;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A statement that reached the slow query threshold.
+ */
+@Getter
+public class SlowQuery {
+
+    private final long id;
+    private final Instant executedAt;
+    private final double durationMillis;
+    private final long rows;
+    private final String sql;
+    private final List<String> parameters;
+    /**
+     * The HTTP request being served, if any.
+     */
+    private final String request;
+    /**
+     * The search being run, with its criteria and page, if any.
+     */
+    private final String search;
+    /**
+     * The plan of the query with the actual row counts (EXPLAIN ANALYZE), captured after the query.
+     * Null until captured, and for statements other than queries.
+     */
+    private volatile String plan;
+
+    SlowQuery(long id, Instant executedAt, double durationMillis, long rows, String sql, List<String> parameters,
+              String request, String search) {
+        this.id = id;
+        this.executedAt = executedAt;
+        this.durationMillis = durationMillis;
+        this.rows = rows;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.request = request;
+        this.search = search;
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+}
@@ -0,0 +1,171 @@
+package com.assignment.recipeapp.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * The last statements that took longer than a threshold, with what they were executed for.
+ * <p>
+ *     Statements are measured by {@link InstrumentedDataSource}. The log keeps the most recent ones in a ring buffer
+ *     of fixed capacity. The plans of slow queries are captured with EXPLAIN ANALYZE, which runs the query again,
+ *     on a background thread: plans are skipped rather than queued when queries are slow faster than they are explained.
+ * </p>
+ */
+@Slf4j
+@Component
+public class SlowQueryLog {
+
+    private static final ThreadLocal<String> CURRENT_SEARCH = new ThreadLocal<>();
+    private static final Pattern QUERY = Pattern.compile("^\\s*(select|with)\\b", Pattern.CASE_INSENSITIVE);
+    private static final int MAX_PARAMETERS = 100;
+    private static final int MAX_PARAMETER_LENGTH = 100;
+    private static final int EXPLAIN_QUEUE_SIZE = 16;
+
+    private final long thresholdNanos;
+    private final int capacity;
+    private final boolean explain;
+    private final Deque<SlowQuery> entries = new ArrayDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(EXPLAIN_QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-explain");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    public SlowQueryLog(@Value("${recipe-app.slow-query.threshold:100ms}") Duration threshold,
+                        @Value("${recipe-app.slow-query.capacity:100}") int capacity,
+                        @Value("${recipe-app.slow-query.explain:true}") boolean explain) {
+        this.thresholdNanos = threshold.toNanos();
+        this.capacity = capacity;
+        this.explain = explain;
+    }
+
+    /**
+     * @return the recorded statements, the most recent first
+     */
+    public List<SlowQuery> entries() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        explainer.shutdownNow();
+    }
+
+    /**
+     * Sets the search run by the current thread, recorded with its slow queries.
+     * A search started within another one runs on its behalf, the outer search is kept.
+     *
+     * @return the previous search of the thread, to restore when this one is over
+     */
+    static String startSearch(String search) {
+        String previous = CURRENT_SEARCH.get();
+        if (previous == null) {
+            CURRENT_SEARCH.set(search);
+        }
+        return previous;
+    }
+
+    static void endSearch(String previous) {
+        if (previous == null) {
+            CURRENT_SEARCH.remove();
+        } else {
+            CURRENT_SEARCH.set(previous);
+        }
+    }
+
+    boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    /**
+     * @param parameters bind values by index
+     * @param dataSource data source of the plans, whose statements are not measured
+     */
+    void record(String sql, SortedMap<Integer, Object> parameters, long rows, long nanos, DataSource dataSource) {
+        SlowQuery slowQuery = new SlowQuery(sequence.incrementAndGet(), Instant.now(), nanos / 1e6, rows, sql,
+                format(parameters), currentRequest(), CURRENT_SEARCH.get());
+        synchronized (entries) {
+            entries.addFirst(slowQuery);
+            if (entries.size() > capacity) {
+                entries.removeLast();
+            }
+        }
+        log.debug("Slow query ({} ms, {} rows): {}", slowQuery.getDurationMillis(), rows, sql);
+        if (explain && QUERY.matcher(sql).find()) {
+            List<Object> values = new ArrayList<>(parameters.values());
+            explainer.execute(() -> slowQuery.setPlan(explain(dataSource, sql, values)));
+        }
+    }
+
+    private static String explain(DataSource dataSource, String sql, List<Object> values) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN ANALYZE " + sql)) {
+            for (int i = 0; i < values.size(); i++) {
+                statement.setObject(i + 1, values.get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString().trim();
+        } catch (SQLException e) {
+            log.debug("Could not explain {}", sql, e);
+            return "Not explained: " + e.getMessage();
+        }
+    }
+
+    private static List<String> format(SortedMap<Integer, Object> parameters) {
+        List<String> formatted = new ArrayList<>(Math.min(parameters.size(), MAX_PARAMETERS + 1));
+        for (Object value : parameters.values()) {
+            if (formatted.size() == MAX_PARAMETERS) {
+                formatted.add("... " + (parameters.size() - MAX_PARAMETERS) + " more");
+                break;
+            }
+            String text = value instanceof byte[] bytes ? "<" + bytes.length + " bytes>" : String.valueOf(value);
+            formatted.add(text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text);
+        }
+        return formatted;
+    }
+
+    private static String currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        return request.getMethod() + " " + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+    }
+}
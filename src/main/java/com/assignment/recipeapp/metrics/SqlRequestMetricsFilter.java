@@ -0,0 +1,55 @@
+package com.assignment.recipeapp.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the number of SQL statements and the time spent in them per request, tagged like
+ * {@code http.server.requests} with the method and the URI template.
+ * Statements executed after the request thread is released, by streamed responses, are not included.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlRequestMetricsFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_SUMMARY = "http.server.requests.sql.statements";
+    static final String TIME_TIMER = "http.server.requests.sql.time";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementMetrics.RequestStatements statements = SqlStatementMetrics.startRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementMetrics.endRequest();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+            DistributionSummary.builder(STATEMENTS_SUMMARY)
+                    .description("SQL statements executed per request")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(statements.statements());
+            Timer.builder(TIME_TIMER)
+                    .description("Time spent in SQL statements per request")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(statements.nanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
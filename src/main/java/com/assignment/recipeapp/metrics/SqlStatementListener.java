@@ -0,0 +1,33 @@
+package com.assignment.recipeapp.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Times the JDBC statements and batches executed by a Hibernate session.
+ * Hibernate creates one per session, as configured with {@code hibernate.session.events.auto}.
+ */
+public class SqlStatementListener extends BaseSessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementMetrics.recordStatement(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementMetrics.recordBatch(System.nanoTime() - batchStart);
+    }
+}
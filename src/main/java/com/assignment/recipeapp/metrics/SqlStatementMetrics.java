@@ -0,0 +1,84 @@
+package com.assignment.recipeapp.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL statements executed by Hibernate, overall and per request.
+ * <p>
+ *     Hibernate instantiates {@link SqlStatementListener} itself, so statements are recorded to the global registry,
+ *     to which Spring Boot adds its own. The statements of a request are also added up for
+ *     {@link SqlRequestMetricsFilter}, on the thread serving the request.
+ * </p>
+ */
+final class SqlStatementMetrics {
+
+    static final String STATEMENT_TIMER = "sql.statements";
+
+    private static final Timer STATEMENTS = Timer.builder(STATEMENT_TIMER)
+            .description("JDBC statements executed by Hibernate")
+            .tag("kind", "statement")
+            .register(Metrics.globalRegistry);
+    private static final Timer BATCHES = Timer.builder(STATEMENT_TIMER)
+            .description("JDBC statements executed by Hibernate")
+            .tag("kind", "batch")
+            .register(Metrics.globalRegistry);
+    private static final ThreadLocal<RequestStatements> CURRENT_REQUEST = new ThreadLocal<>();
+
+    /**
+     * Statements executed while serving a request.
+     */
+    static final class RequestStatements {
+
+        private int statements;
+        private long nanos;
+
+        int statements() {
+            return statements;
+        }
+
+        long nanos() {
+            return nanos;
+        }
+
+        private void add(long duration) {
+            statements++;
+            nanos += duration;
+        }
+    }
+
+    private SqlStatementMetrics() {
+    }
+
+    /**
+     * Starts adding up the statements executed by the current thread.
+     */
+    static RequestStatements startRequest() {
+        RequestStatements request = new RequestStatements();
+        CURRENT_REQUEST.set(request);
+        return request;
+    }
+
+    static void endRequest() {
+        CURRENT_REQUEST.remove();
+    }
+
+    static void recordStatement(long nanos) {
+        STATEMENTS.record(nanos, TimeUnit.NANOSECONDS);
+        addToRequest(nanos);
+    }
+
+    static void recordBatch(long nanos) {
+        BATCHES.record(nanos, TimeUnit.NANOSECONDS);
+        addToRequest(nanos);
+    }
+
+    private static void addToRequest(long nanos) {
+        RequestStatements request = CURRENT_REQUEST.get();
+        if (request != null) {
+            request.add(nanos);
+        }
+    }
+}
@@ -6,19 +6,39 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository for Ingredient entities.
  */
-public interface IngredientRepository extends JpaRepository<Ingredient, Long>, JpaSpecificationExecutor<Ingredient> {
+public interface IngredientRepository extends JpaRepository<Ingredient, Long>, JpaSpecificationExecutor<Ingredient>,
+        IngredientRepositoryCustom {
 
     /**
-     * Finds an ingredient by name.
+     * Finds an ingredient by case-insensitive name, through the unique index of the lower-cased names.
      * @param name the name of the ingredient
      * @return the ingredient
      */
+    @Query("select i from Ingredient i where i.nameKey = lower(:name)")
     Optional<Ingredient> findFirstByNameIgnoreCase(@Param("name") String name);
 
+    /**
+     * Finds ingredients by case-insensitive name, through the unique index of the lower-cased names.
+     * @param names the lower-cased names of the ingredients
+     * @return the ingredients
+     */
+    @Query("select i from Ingredient i where i.nameKey in :names")
+    List<Ingredient> findAllByLowerCaseNameIn(@Param("names") Collection<String> names);
+
+    /**
+     * Reads the version and modification time of an ingredient, without loading it.
+     * @param id the id of the ingredient
+     * @return the version, empty when the ingredient does not exist
+     */
+    @Query("select i.version as version, i.lastModified as lastModified from Ingredient i where i.id = :id")
+    Optional<IngredientVersion> findVersionById(@Param("id") Long id);
+
 }
 
@@ -0,0 +1,31 @@
+package com.assignment.recipeapp.repository;
+
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.repository.search.CursorSlice;
+import com.assignment.recipeapp.repository.search.Keyset;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Custom queries of the {@link IngredientRepository}.
+ */
+public interface IngredientRepositoryCustom {
+
+    /**
+     * Finds the ids of the ingredients matching a specification, without loading the entities.
+     * @param specification the search specification
+     * @return the matching ids, in no particular order
+     */
+    List<Long> findIds(Specification<Ingredient> specification);
+
+    /**
+     * Finds a slice of the ids of the ingredients matching a specification, following a cursor.
+     * @param specification the search specification
+     * @param keyset the sort order
+     * @param after the cursor of the previous slice, null for the first slice
+     * @param size the maximum number of ids
+     * @return the ids in sort order and the cursor of the next slice
+     */
+    CursorSlice<Long> findIdSlice(Specification<Ingredient> specification, Keyset keyset, String after, int size);
+}
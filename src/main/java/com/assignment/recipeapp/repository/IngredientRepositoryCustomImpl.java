@@ -0,0 +1,10 @@
+package com.assignment.recipeapp.repository;
+
+import com.assignment.recipeapp.entity.Ingredient;
+
+class IngredientRepositoryCustomImpl extends SpecificationIdQuery<Ingredient> implements IngredientRepositoryCustom {
+
+    IngredientRepositoryCustomImpl() {
+        super(Ingredient.class);
+    }
+}
@@ -0,0 +1,13 @@
+package com.assignment.recipeapp.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of the version of an ingredient.
+ */
+public interface IngredientVersion {
+
+    long getVersion();
+
+    Instant getLastModified();
+}
@@ -0,0 +1,11 @@
+package com.assignment.recipeapp.repository;
+
+/**
+ * Projection of a single row of the recipes_ingredients join table.
+ */
+public interface RecipeIngredientLink {
+
+    Long getRecipeId();
+
+    Long getIngredientId();
+}
@@ -1,24 +1,101 @@
 package com.assignment.recipeapp.repository;
 
 import com.assignment.recipeapp.entity.Recipe;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * Repository for Recipe entities.
  */
-public interface RecipeRepository extends JpaRepository<Recipe, Long>, JpaSpecificationExecutor<Recipe> {
+public interface RecipeRepository extends JpaRepository<Recipe, Long>, JpaSpecificationExecutor<Recipe>, RecipeRepositoryCustom {
     /**
      * Finds a recipe by name.
      * @param name the name of the recipe
      * @return the recipe
      */
     Optional<Recipe> findByName(String name);
+
+    /**
+     * Finds a recipe by id together with its ingredients, in a single query.
+     * @param id the id of the recipe
+     * @return the recipe
+     */
+    @EntityGraph(attributePaths = "ingredients")
+    Optional<Recipe> findWithIngredientsById(Long id);
+
+    /**
+     * Finds recipes by id together with their ingredients, in a single query.
+     * @param ids the ids of the recipes
+     * @return the recipes, in no particular order
+     */
+    @EntityGraph(attributePaths = "ingredients")
+    @Query("select distinct r from Recipe r where r.id in :ids")
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Recipe> findAllWithIngredientsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads the versions and modification times of a recipe and of its ingredients, without loading them.
+     * @param id the id of the recipe
+     * @return the versions, empty when the recipe does not exist
+     */
+    @Query("select r.version as version, r.lastModified as lastModified, coalesce(sum(i.version), 0) as ingredientVersions, "
+            + "max(i.lastModified) as ingredientsLastModified "
+            + "from Recipe r left join r.ingredients i where r.id = :id group by r.id, r.version, r.lastModified")
+    Optional<RecipeVersion> findVersionById(@Param("id") Long id);
+
+    /**
+     * Streams the ids of all recipes.
+     * Must be consumed inside a transaction.
+     * @return the recipe ids
+     */
+    @Query("select r.id from Recipe r")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<Long> streamAllIds();
+
+    /**
+     * Streams every recipe/ingredient association.
+     * Must be consumed inside a transaction.
+     * @return the rows of the recipes_ingredients join table
+     */
+    @Query("select r.id as recipeId, i.id as ingredientId from Recipe r join r.ingredients i")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<RecipeIngredientLink> streamAllIngredientLinks();
+
+    /**
+     * Streams the free-text columns of all recipes.
+     * Must be consumed inside a transaction.
+     * @return the recipe texts
+     */
+    @Query("select r.id as id, r.name as name, r.description as description, r.instructions as instructions from Recipe r")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<RecipeText> streamAllTexts();
+
+    /**
+     * Streams all recipes together with their ingredients through a single server-side cursor.
+     * Every recipe is complete when it is returned, the rows of a recipe are consecutive as they are ordered by id.
+     * The recipes are read-only, must be consumed inside a transaction and detached once used.
+     * @return the recipes, ordered by id
+     */
+    @Query("select r from Recipe r left join fetch r.ingredients order by r.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Recipe> streamAllWithIngredients();
 }
 
@@ -0,0 +1,69 @@
+package com.assignment.recipeapp.repository;
+
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.repository.search.CursorSlice;
+import com.assignment.recipeapp.repository.search.Keyset;
+import com.assignment.recipeapp.repository.search.PredicateTree;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Custom queries of the {@link RecipeRepository}.
+ */
+public interface RecipeRepositoryCustom {
+
+    /**
+     * Finds the ids of the recipes matching a specification, without loading the entities.
+     * @param specification the search specification
+     * @return the matching ids, in no particular order
+     */
+    List<Long> findIds(Specification<Recipe> specification);
+
+    /**
+     * Finds a page of the ids of the recipes matching a specification.
+     * Selecting ids only keeps the page query free of the ingredients association,
+     * which is then loaded for the whole page at once with {@link RecipeRepository#findAllWithIngredientsByIdIn}.
+     * @param specification the search specification
+     * @param pageable the page and sort order
+     * @return the page of ids, in sort order
+     */
+    Page<Long> findIdPage(Specification<Recipe> specification, Pageable pageable);
+
+    /**
+     * Finds a slice of the ids of the recipes matching a specification, following a cursor.
+     * @param specification the search specification
+     * @param keyset the sort order
+     * @param after the cursor of the previous slice, null for the first slice
+     * @param size the maximum number of ids
+     * @return the ids in sort order and the cursor of the next slice
+     */
+    CursorSlice<Long> findIdSlice(Specification<Recipe> specification, Keyset keyset, String after, int size);
+
+    /**
+     * Describes the predicate a specification adds to the search queries, without running any query.
+     * @param specification the search specification
+     * @return the predicate, null when the specification does not filter
+     */
+    PredicateTree describe(Specification<Recipe> specification);
+
+    /**
+     * Finds a recipe with its ingredients, from the second-level cache when it holds the recipe.
+     * Otherwise the recipe is loaded with its ingredients in one statement, and cached.
+     * @param id the id of the recipe
+     * @return the recipe
+     */
+    Optional<Recipe> findCachedWithIngredientsById(Long id);
+
+    /**
+     * Inserts new recipes and their ingredient associations in JDBC batches.
+     * The persistence context is flushed and cleared after every batch, so the recipes are detached afterwards.
+     * The recipes are not put in the second-level cache, which keeps the entries of the recipes actually read.
+     * Must be called inside a transaction.
+     * @param recipes the new recipes
+     */
+    void insertAllInBatches(List<Recipe> recipes);
+}
@@ -0,0 +1,58 @@
+package com.assignment.recipeapp.repository;
+
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.entity.Recipe_;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCHGRAPH;
+
+class RecipeRepositoryCustomImpl extends SpecificationIdQuery<Recipe> implements RecipeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    RecipeRepositoryCustomImpl() {
+        super(Recipe.class);
+    }
+
+    @Override
+    public Optional<Recipe> findCachedWithIngredientsById(Long id) {
+        // a find checks the second-level cache first, the fetch graph only shapes the statement of a miss
+        EntityGraph<Recipe> withIngredients = entityManager.createEntityGraph(Recipe.class);
+        // by name: the static attribute belongs to the last session factory built, another one in tests sharing the JVM
+        withIngredients.addAttributeNodes(Recipe_.INGREDIENTS);
+        return Optional.ofNullable(entityManager.find(Recipe.class, id, Map.of(HINT_FETCHGRAPH, withIngredients)));
+    }
+
+    @Override
+    public void insertAllInBatches(List<Recipe> recipes) {
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        try {
+            for (int i = 0; i < recipes.size(); i++) {
+                entityManager.persist(recipes.get(i));
+                if ((i + 1) % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.assignment.recipeapp.repository;
+
+/**
+ * Projection of the free-text columns of a recipe.
+ */
+public interface RecipeText {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    String getInstructions();
+}
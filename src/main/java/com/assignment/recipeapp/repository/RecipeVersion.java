@@ -0,0 +1,23 @@
+package com.assignment.recipeapp.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of the versions of a recipe and of its ingredients, which together identify its representation.
+ */
+public interface RecipeVersion {
+
+    long getVersion();
+
+    Instant getLastModified();
+
+    /**
+     * @return the sum of the versions of the ingredients, incremented by every update of one of them
+     */
+    long getIngredientVersions();
+
+    /**
+     * @return the last modification of an ingredient, null when the recipe has none
+     */
+    Instant getIngredientsLastModified();
+}
@@ -0,0 +1,130 @@
+package com.assignment.recipeapp.repository;
+
+import com.assignment.recipeapp.repository.search.CursorSlice;
+import com.assignment.recipeapp.repository.search.Keyset;
+import com.assignment.recipeapp.repository.search.PredicateTree;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base of the custom repository fragments selecting entity ids instead of whole entities.
+ *
+ * @param <T> the entity type
+ */
+abstract class SpecificationIdQuery<T> {
+
+    private final Class<T> domainClass;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    protected SpecificationIdQuery(Class<T> domainClass) {
+        this.domainClass = domainClass;
+    }
+
+    public List<Long> findIds(Specification<T> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(domainClass);
+        query.select(root.get("id")).distinct(true);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    public Page<Long> findIdPage(Specification<T> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(domainClass);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // the sort expressions are selected too, a distinct query can only be ordered by selected columns
+        List<Order> orders = QueryUtils.toOrders(pageable.getSort(), root, cb);
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get("id"));
+        orders.forEach(order -> selections.add(order.getExpression()));
+        query.multiselect(selections).distinct(true).orderBy(orders);
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Long> ids = typedQuery.getResultList().stream()
+                .map(row -> row.get(0, Long.class))
+                .toList();
+        return PageableExecutionUtils.getPage(ids, pageable, () -> count(specification));
+    }
+
+    public CursorSlice<Long> findIdSlice(Specification<T> specification, Keyset keyset, String after, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(domainClass);
+        Path<?> key = root.get(keyset.getProperty());
+        Path<Long> id = root.get("id");
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            predicates.add(predicate);
+        }
+        if (after != null) {
+            predicates.add(keyset.after(after, key, id, cb));
+        }
+        query.multiselect(id, key).distinct(true)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(keyset.toOrders(key, id, cb));
+
+        // one extra row tells whether another slice follows, no count needed
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        boolean hasNext = rows.size() > size;
+        List<Tuple> slice = hasNext ? rows.subList(0, size) : rows;
+        List<Long> ids = slice.stream().map(row -> row.get(0, Long.class)).toList();
+        String nextCursor = null;
+        if (hasNext && !slice.isEmpty()) {
+            Tuple last = slice.get(slice.size() - 1);
+            nextCursor = keyset.cursor(last.get(1), last.get(0, Long.class));
+        }
+        return new CursorSlice<>(ids, hasNext, nextCursor);
+    }
+
+    public PredicateTree describe(Specification<T> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(domainClass);
+        root.alias(domainClass.getSimpleName().toLowerCase());
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate == null) {
+            return null;
+        }
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        return PredicateTree.of(predicate, sessionFactory.getJdbcServices().getDialect());
+    }
+
+    private long count(Specification<T> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(domainClass);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.countDistinct(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
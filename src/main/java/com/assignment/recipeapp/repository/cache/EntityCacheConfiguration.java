@@ -0,0 +1,97 @@
+package com.assignment.recipeapp.repository.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.Factory;
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Second-level cache of the entities, shared by all sessions.
+ * <p>
+ *     Recipes, ingredients and the ingredients of the recipes are cached by id in local Caffeine caches, through the
+ *     JCache region factory of Hibernate. Caffeine evicts with W-TinyLFU, each cache being bounded by the estimated
+ *     size of its entries, see {@link EntryWeigher}. The caches are read-write: Hibernate locks the entries of the
+ *     entities and collections it writes, and replaces or evicts them after commit, so the caches only ever hold
+ *     committed state. Writes bypassing Hibernate, such as the JDBC inserts of the dataset loader, only add rows
+ *     and never leave stale entries.
+ * </p>
+ * <p>
+ *     Hibernate exposes the hits, misses and puts of every region as hibernate.second.level.cache.* metrics, and
+ *     Caffeine its hits, misses, evictions and sizes as cache.* metrics tagged with the region.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "recipe-app.entity-cache.enabled", matchIfMissing = true)
+public class EntityCacheConfiguration {
+
+    public static final String RECIPES = "recipes";
+    public static final String RECIPE_INGREDIENTS = "recipes.ingredients";
+    public static final String INGREDIENTS = "ingredients";
+
+    /**
+     * The caches of the regions, in a cache manager of their own, so that application contexts sharing the JVM
+     * (as in the tests) never share entries.
+     */
+    @Bean
+    public CacheManager entityCacheManager(MeterRegistry meterRegistry,
+                                           @Value("${recipe-app.entity-cache.max-size.recipes:32MB}") DataSize recipes,
+                                           @Value("${recipe-app.entity-cache.max-size.recipe-ingredients:8MB}") DataSize recipeIngredients,
+                                           @Value("${recipe-app.entity-cache.max-size.ingredients:4MB}") DataSize ingredients) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("recipe-app:entity-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+        Map.of(RECIPES, recipes, RECIPE_INGREDIENTS, recipeIngredients, INGREDIENTS, ingredients).forEach((region, maxSize) -> {
+            Cache<Object, Object> cache = cacheManager.createCache(region, configuration(maxSize));
+            CaffeineCacheMetrics.monitor(meterRegistry, caffeineCache(cache), region);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheHibernateProperties(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            // every region is created above, a misspelled region must not silently get a default cache
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration(DataSize maxSize) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumWeight(OptionalLong.of(maxSize.toBytes()));
+        Factory<EntryWeigher> weigher = EntryWeigher::new;
+        configuration.setWeigherFactory(Optional.of(weigher));
+        // Hibernate caches immutable disassembled state, copying it on every read and write would only cost
+        configuration.setStoreByValue(false);
+        configuration.setNativeStatisticsEnabled(true);
+        return configuration;
+    }
+
+    /**
+     * The Caffeine cache behind a cache of the manager. Unwrapping only takes the raw class, the cache holds the keys
+     * and values of the JCache cache it backs.
+     */
+    @SuppressWarnings("unchecked")
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeineCache(Cache<Object, Object> cache) {
+        return cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+    }
+}
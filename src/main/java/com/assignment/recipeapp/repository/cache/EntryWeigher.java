@@ -0,0 +1,94 @@
+package com.assignment.recipeapp.repository.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Weighs the entries of the second-level cache by their estimated size in bytes.
+ * <p>
+ *     Hibernate caches entities and collections disassembled: arrays of property values and ids, wrapped with a
+ *     version and a lock state, under a key holding the id. The estimate walks these objects field by field, counting
+ *     strings by their length, boxed values and other JDK objects at a fixed size, and shared enum constants not at
+ *     all. It assumes compressed references and does not detect objects shared between entries, so it is an
+ *     approximation meant to compare entries rather than to account for the heap exactly.
+ * </p>
+ */
+final class EntryWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int PRIMITIVE = 8;
+    private static final int BOXED = 16;
+    /**
+     * Disassembled state is shallow, a deeper graph is not Hibernate state.
+     */
+    private static final int MAX_DEPTH = 8;
+
+    private static final ClassValue<List<Field>> FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        }
+    };
+
+    @Override
+    public int weigh(Object key, Object value) {
+        return (int) Math.min(Integer.MAX_VALUE, estimate(key, 0) + estimate(value, 0));
+    }
+
+    static long estimate(Object object, int depth) {
+        if (object == null || object instanceof Enum<?> || depth > MAX_DEPTH) {
+            return 0;
+        }
+        if (object instanceof String string) {
+            // the string and its byte array
+            return OBJECT_HEADER + 8 + OBJECT_HEADER + string.length();
+        }
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(object);
+            long size = OBJECT_HEADER + (long) length * (type.getComponentType().isPrimitive() ? PRIMITIVE : REFERENCE);
+            if (object instanceof Object[] elements) {
+                for (Object element : elements) {
+                    size += estimate(element, depth + 1);
+                }
+            }
+            return size;
+        }
+        if (type.getModule().isNamed()) {
+            // boxed values, dates... JDK internals are not accessible, nor worth walking
+            return BOXED;
+        }
+        long size = OBJECT_HEADER;
+        for (Field field : FIELDS.get(type)) {
+            if (field.getType().isPrimitive()) {
+                size += PRIMITIVE;
+            } else {
+                size += REFERENCE + estimate(valueOf(field, object), depth + 1);
+            }
+        }
+        return size;
+    }
+
+    private static Object valueOf(Field field, Object object) {
+        try {
+            return field.get(object);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read " + field, e);
+        }
+    }
+}
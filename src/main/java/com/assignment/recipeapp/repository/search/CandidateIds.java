@@ -0,0 +1,127 @@
+package com.assignment.recipeapp.repository.search;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set of entity ids resolved by an in-memory index.
+ * <p>
+ *     Keeps the ids matched by the index together with every id the index knows about,
+ *     so that the smaller of the matching ids and their complement can be handed to the database.
+ * </p>
+ */
+public final class CandidateIds {
+
+    private final RoaringBitmap ids;
+    private final RoaringBitmap universe;
+    private final int maxInListSize;
+
+    public CandidateIds(RoaringBitmap ids, RoaringBitmap universe, int maxInListSize) {
+        this.ids = ids;
+        this.universe = universe;
+        this.maxInListSize = maxInListSize;
+    }
+
+    public boolean isEmpty() {
+        return ids.isEmpty();
+    }
+
+    public int size() {
+        return ids.getCardinality();
+    }
+
+    /**
+     * @return number of ids known to the index that resolved the candidates
+     */
+    public int universeSize() {
+        return universe.getCardinality();
+    }
+
+    /**
+     * @return true when {@link #toPredicate} can restrict the ids in SQL, false when the original filter has to be
+     * evaluated in SQL instead
+     */
+    public boolean fitsInList() {
+        return ids.getCardinality() <= maxInListSize || RoaringBitmap.andNotCardinality(universe, ids) <= maxInListSize;
+    }
+
+    public boolean contains(Long id) {
+        return id != null && id <= Integer.MAX_VALUE && ids.contains(id.intValue());
+    }
+
+    /**
+     * Intersects these candidates with another set resolved over the same entity.
+     *
+     * @param other the other candidates, may be null
+     * @return the ids contained in both sets
+     */
+    public CandidateIds and(CandidateIds other) {
+        if (other == null) {
+            return this;
+        }
+        RoaringBitmap universeUnion = RoaringBitmap.or(universe, other.universe);
+        return new CandidateIds(RoaringBitmap.and(ids, other.ids), universeUnion, Math.min(maxInListSize, other.maxInListSize));
+    }
+
+    /**
+     * @return a copy of the matching ids
+     */
+    public RoaringBitmap toBitmap() {
+        return ids.clone();
+    }
+
+    /**
+     * Builds a predicate restricting {@code idPath} to the candidates.
+     * <p>
+     *     Uses {@code id in (...)} or {@code id not in (...)}, whichever list is shorter.
+     *     Returns null when both lists exceed the configured limit; the caller should then
+     *     fall back to evaluating the original filter in SQL.
+     * </p>
+     *
+     * @param idPath the id attribute of the searched entity
+     * @param cb the criteria builder
+     * @return the predicate or null
+     */
+    public Predicate toPredicate(Path<Long> idPath, CriteriaBuilder cb) {
+        if (ids.isEmpty()) {
+            return cb.disjunction();
+        }
+        RoaringBitmap excluded = RoaringBitmap.andNot(universe, ids);
+        if (excluded.isEmpty()) {
+            return cb.conjunction();
+        }
+        if (ids.getCardinality() <= maxInListSize) {
+            return idPath.in(toList(ids));
+        }
+        if (excluded.getCardinality() <= maxInListSize) {
+            return cb.not(idPath.in(toList(excluded)));
+        }
+        return null;
+    }
+
+    /**
+     * @param ids entity ids
+     * @return a bitmap of the ids
+     */
+    public static RoaringBitmap toBitmap(Collection<Long> ids) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        ids.forEach(id -> bitmap.add(Math.toIntExact(id)));
+        return bitmap;
+    }
+
+    private static List<Long> toList(RoaringBitmap bitmap) {
+        List<Long> list = new ArrayList<>(bitmap.getCardinality());
+        IntIterator iterator = bitmap.getIntIterator();
+        while (iterator.hasNext()) {
+            list.add((long) iterator.next());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,30 @@
+package com.assignment.recipeapp.repository.search;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A slice of a cursor listing.
+ * Unlike a page it carries no total count: the next slice is requested with {@code after=nextCursor}.
+ *
+ * @param content the elements of the slice
+ * @param hasNext whether more elements follow
+ * @param nextCursor opaque position of the last element, null on the last slice
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CursorSlice<T>(List<T> content, boolean hasNext, String nextCursor) {
+
+    public static <T> CursorSlice<T> empty() {
+        return new CursorSlice<>(List.of(), false, null);
+    }
+
+    /**
+     * @param mapper converts the whole content at once, keeping its order
+     * @return a slice with the converted content and the same cursor
+     */
+    public <U> CursorSlice<U> map(Function<List<T>, List<U>> mapper) {
+        return new CursorSlice<>(mapper.apply(content), hasNext, nextCursor);
+    }
+}
@@ -12,12 +12,43 @@ import java.util.Set;
 
 public class IngredientSearchSpecification extends SearchSpecification<Ingredient, IngredientSearchRequest>{
 
+    public IngredientSearchSpecification() {
+        this(null);
+    }
+
+    public IngredientSearchSpecification(CandidateIds textMatches) {
+        super(textMatches);
+    }
+
     public static Specification<Ingredient> searchByText(IngredientSearchRequest searchRequest) {
-        return new IngredientSearchSpecification().createSearchSpecification(searchRequest);
+        return searchByText(searchRequest, null);
+    }
+
+    /**
+     * Creates the search specification using search text matches already resolved by the text index.
+     *
+     * @param searchRequest the search request
+     * @param textMatches ingredients matching the search text, or null to match it in SQL
+     * @return the specification
+     */
+    public static Specification<Ingredient> searchByText(IngredientSearchRequest searchRequest, CandidateIds textMatches) {
+        return new IngredientSearchSpecification(textMatches).createSearchSpecification(searchRequest);
+    }
+
+    /**
+     * Creates the filters of a search ranked by the ingredient text index, without matching the search text in SQL.
+     *
+     * @param searchRequest the search request
+     * @param textMatches ingredients matching the search text, pushed into SQL when they fit
+     * @return the specification
+     */
+    public static Specification<Ingredient> rankingFilter(IngredientSearchRequest searchRequest, CandidateIds textMatches) {
+        return new IngredientSearchSpecification(textMatches).createRankingFilterSpecification(searchRequest);
     }
 
     @Override
-    public List<Predicate> addCustomSearchPredicates(Root<Ingredient> root, CriteriaBuilder cb, IngredientSearchRequest searchRequest) {
+    public List<Predicate> addCustomSearchPredicates(Root<Ingredient> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                                     IngredientSearchRequest searchRequest) {
         List<Predicate> predicates = new ArrayList<>();
 
         if (!searchRequest.getIds().isEmpty()) {
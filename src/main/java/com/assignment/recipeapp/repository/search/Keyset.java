@@ -0,0 +1,133 @@
+package com.assignment.recipeapp.repository.search;
+
+import com.assignment.recipeapp.exception.InvalidCursorException;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sort order of a cursor listing: a single sort property with the id as tie-breaker.
+ * <p>
+ *     A cursor encodes the sort order together with the sort value and id of the last element of a slice.
+ *     The next slice continues with {@code (key, id) > (value, lastId)} instead of skipping an offset,
+ *     so every slice costs the same whatever its depth. Cursors are opaque to clients.
+ * </p>
+ */
+public final class Keyset {
+
+    private static final String ID = "id";
+    private static final String SEPARATOR = "\n";
+
+    private final String property;
+    private final Sort.Direction direction;
+
+    private Keyset(String property, Sort.Direction direction) {
+        this.property = property;
+        this.direction = direction;
+    }
+
+    /**
+     * @param sort the requested sort order, unsorted means by id
+     * @param sortableProperties properties a cursor listing may be sorted by
+     * @return the keyset of the sort order
+     * @throws InvalidCursorException when the order has several or unsupported properties
+     */
+    public static Keyset of(Sort sort, Set<String> sortableProperties) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty()) {
+            return new Keyset(ID, Sort.Direction.ASC);
+        }
+        Sort.Order order = orders.get(0);
+        if (orders.size() > 1 || !sortableProperties.contains(order.getProperty())) {
+            throw new InvalidCursorException("Cursor listings are sorted by a single property among " + sortableProperties);
+        }
+        return new Keyset(order.getProperty(), order.getDirection());
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * @return the orders of the sort key then the id
+     */
+    public List<Order> toOrders(Path<?> key, Path<Long> id, CriteriaBuilder cb) {
+        if (ID.equals(property)) {
+            return List.of(order(id, cb));
+        }
+        return List.of(order(key, cb), order(id, cb));
+    }
+
+    /**
+     * Restricts a query to the elements following a cursor.
+     *
+     * @param cursor the cursor returned with the previous slice
+     * @param key the sort property of the queried entity
+     * @param id the id of the queried entity
+     * @param cb the criteria builder
+     * @return the predicate
+     * @throws InvalidCursorException when the cursor is malformed or was issued for another sort order
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Predicate after(String cursor, Path<?> key, Path<Long> id, CriteriaBuilder cb) {
+        String[] parts = decode(cursor);
+        if (!property.equals(parts[0]) || !direction.name().equals(parts[1])) {
+            throw new InvalidCursorException("The cursor was issued for another sort order");
+        }
+        Long lastId = convert(parts[2], Long.class);
+        Predicate idAfter = direction.isAscending() ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+        if (ID.equals(property)) {
+            return idAfter;
+        }
+        Comparable lastValue = (Comparable) convert(parts[3], key.getJavaType());
+        Expression<Comparable> comparableKey = (Expression<Comparable>) key;
+        Predicate keyAfter = direction.isAscending()
+                ? cb.greaterThan(comparableKey, lastValue)
+                : cb.lessThan(comparableKey, lastValue);
+        return cb.or(keyAfter, cb.and(cb.equal(key, lastValue), idAfter));
+    }
+
+    /**
+     * @param value the sort value of the last element of a slice
+     * @param id the id of the last element of a slice
+     * @return the cursor of the next slice
+     */
+    public String cursor(Object value, Long id) {
+        String position = String.join(SEPARATOR, property, direction.name(), String.valueOf(id), String.valueOf(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Order order(Expression<?> expression, CriteriaBuilder cb) {
+        return direction.isAscending() ? cb.asc(expression) : cb.desc(expression);
+    }
+
+    private static String[] decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+            if (parts.length == 4) {
+                return parts;
+            }
+        } catch (IllegalArgumentException e) {
+            // not base64, reported below
+        }
+        throw new InvalidCursorException("Malformed cursor");
+    }
+
+    private static <T> T convert(String value, Class<T> type) {
+        try {
+            return DefaultConversionService.getSharedInstance().convert(value, type);
+        } catch (ConversionException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.assignment.recipeapp.repository.search;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.internal.util.collections.Stack;
+import org.hibernate.internal.util.collections.StandardStack;
+import org.hibernate.query.criteria.internal.Renderable;
+import org.hibernate.query.criteria.internal.compile.ExplicitParameterInfo;
+import org.hibernate.query.criteria.internal.compile.RenderingContext;
+import org.hibernate.query.criteria.internal.expression.function.FunctionExpression;
+import org.hibernate.sql.ast.Clause;
+
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Readable form of the predicate of a search query.
+ * <p>
+ *     AND and OR nodes list their operands, every other condition is rendered as the JPQL Hibernate sends to the
+ *     database, with the bound values inlined. Negated AND and OR nodes come out with their operator flipped and
+ *     their operands negated, the way Hibernate renders them.
+ * </p>
+ *
+ * @param operator AND or OR, null for a condition
+ * @param condition the JPQL of the condition, null for AND and OR
+ * @param operands the operands of AND and OR, null for a condition
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PredicateTree(String operator, String condition, List<PredicateTree> operands) {
+
+    /**
+     * Conditions longer than this, such as long id lists, are cut.
+     */
+    static final int MAX_CONDITION_LENGTH = 300;
+
+    /**
+     * @param predicate a predicate built by the Hibernate criteria builder
+     * @param dialect the dialect of the database
+     * @return the tree of the predicate
+     */
+    public static PredicateTree of(Predicate predicate, Dialect dialect) {
+        return of(predicate, new DescribingContext(dialect));
+    }
+
+    private static PredicateTree of(Expression<Boolean> expression, DescribingContext context) {
+        if (expression instanceof Predicate predicate && !predicate.getExpressions().isEmpty()) {
+            List<PredicateTree> operands = predicate.getExpressions().stream()
+                    .map(operand -> of(operand, context))
+                    .toList();
+            return operands.size() == 1
+                    ? operands.get(0)
+                    : new PredicateTree(predicate.getOperator().name(), null, operands);
+        }
+        String condition = expression instanceof Renderable renderable
+                ? context.inlineLiterals(renderable.render(context))
+                : expression.toString();
+        if (condition.length() > MAX_CONDITION_LENGTH) {
+            condition = condition.substring(0, MAX_CONDITION_LENGTH) + "... (" + condition.length() + " characters)";
+        }
+        return new PredicateTree(null, condition, null);
+    }
+
+    /**
+     * Renders the values that would be bound as parameters in place, so that the conditions can be read alone.
+     */
+    private static final class DescribingContext implements RenderingContext {
+
+        private static final String LITERAL_PREFIX = "literal";
+        private static final Pattern LITERAL = Pattern.compile(":" + LITERAL_PREFIX + "(\\d+)");
+
+        private final Dialect dialect;
+        private final List<Object> literals = new ArrayList<>();
+        private final Stack<Clause> clauseStack = new StandardStack<>();
+        private final Stack<FunctionExpression> functionStack = new StandardStack<>();
+        private int aliasCount;
+
+        private DescribingContext(Dialect dialect) {
+            this.dialect = dialect;
+            clauseStack.push(Clause.WHERE);
+        }
+
+        @Override
+        public String generateAlias() {
+            return "generatedAlias" + aliasCount++;
+        }
+
+        @Override
+        public ExplicitParameterInfo<?> registerExplicitParameter(ParameterExpression<?> criteriaExpression) {
+            String name = criteriaExpression.getName() != null ? criteriaExpression.getName() : "param";
+            return new ExplicitParameterInfo<>(name, null, criteriaExpression.getJavaType());
+        }
+
+        /**
+         * Hibernate renders the name returned here as a named parameter, which {@link #inlineLiterals} replaces.
+         */
+        @Override
+        public String registerLiteralParameterBinding(Object literal, Class javaType) {
+            literals.add(literal);
+            return LITERAL_PREFIX + (literals.size() - 1);
+        }
+
+        private String inlineLiterals(String jpql) {
+            return LITERAL.matcher(jpql).replaceAll(match -> {
+                Object literal = literals.get(Integer.parseInt(match.group(1)));
+                String rendered = literal instanceof String || literal instanceof Character
+                        ? "'" + literal.toString().replace("'", "''") + "'"
+                        : String.valueOf(literal);
+                return Matcher.quoteReplacement(rendered);
+            });
+        }
+
+        @Override
+        public String getCastType(Class javaType) {
+            return javaType.getSimpleName().toLowerCase();
+        }
+
+        @Override
+        public Dialect getDialect() {
+            return dialect;
+        }
+
+        @Override
+        public Stack<Clause> getClauseStack() {
+            return clauseStack;
+        }
+
+        @Override
+        public Stack<FunctionExpression> getFunctionStack() {
+            return functionStack;
+        }
+    }
+}
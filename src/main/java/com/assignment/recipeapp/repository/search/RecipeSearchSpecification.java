@@ -8,16 +8,59 @@ import org.springframework.data.jpa.domain.Specification;
 import javax.persistence.criteria.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 public class RecipeSearchSpecification extends SearchSpecification<Recipe, RecipeSearchRequest>  {
 
+    /**
+     * Recipes matching the ingredient filters, as resolved by the ingredient index.
+     * Null when the filters have to be evaluated in SQL.
+     */
+    private final CandidateIds ingredientMatches;
+
+    public RecipeSearchSpecification() {
+        this(null, null);
+    }
+
+    public RecipeSearchSpecification(CandidateIds textMatches, CandidateIds ingredientMatches) {
+        super(textMatches);
+        this.ingredientMatches = ingredientMatches;
+    }
+
     public static Specification<Recipe> searchByText(RecipeSearchRequest searchRequest) {
-        return new RecipeSearchSpecification().createSearchSpecification(searchRequest);
+        return searchByText(searchRequest, null, null);
+    }
+
+    /**
+     * Creates the search specification using filters already resolved by in-memory indexes.
+     *
+     * @param searchRequest the search request
+     * @param textMatches recipes matching the search text, or null to match it in SQL
+     * @param ingredientMatches recipes matching the include/exclude ingredient filters, or null to filter in SQL
+     * @return the specification
+     */
+    public static Specification<Recipe> searchByText(RecipeSearchRequest searchRequest, CandidateIds textMatches,
+                                                     CandidateIds ingredientMatches) {
+        return new RecipeSearchSpecification(textMatches, ingredientMatches).createSearchSpecification(searchRequest);
+    }
+
+    /**
+     * Creates the filters of a search ranked by the recipe text index, without matching the search text in SQL.
+     *
+     * @param searchRequest the search request
+     * @param textMatches recipes matching the search text, pushed into SQL when they fit
+     * @param ingredientMatches recipes matching the include/exclude ingredient filters, or null to filter in SQL
+     * @return the specification
+     */
+    public static Specification<Recipe> rankingFilter(RecipeSearchRequest searchRequest, CandidateIds textMatches,
+                                                      CandidateIds ingredientMatches) {
+        return new RecipeSearchSpecification(textMatches, ingredientMatches).createRankingFilterSpecification(searchRequest);
     }
 
     @Override
-    public List<Predicate> addCustomSearchPredicates(Root<Recipe> root, CriteriaBuilder cb, RecipeSearchRequest searchRequest) {
+    public List<Predicate> addCustomSearchPredicates(Root<Recipe> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                                     RecipeSearchRequest searchRequest) {
         List<Predicate> predicates = new ArrayList<>();
 
         if (!searchRequest.getName().isEmpty()) {
@@ -31,34 +74,74 @@ public class RecipeSearchSpecification extends SearchSpecification<Recipe, Recip
         if (searchRequest.getVegetarian() != null) {
             predicates.add(cb.equal(root.get("vegetarian"), searchRequest.getVegetarian()));
         }
-        if (searchRequest.getIncludeIngredients() != null && !searchRequest.getIncludeIngredients().isEmpty()) {
-            Join<Recipe, Ingredient> join = root.join("ingredients");
-
-            searchRequest.getIncludeIngredients()
-                    .stream()
-                    .filter(ingredientName -> !ingredientName.isEmpty())
-                    .map(ingredientName -> cb.like(join.get("name"), "%" + ingredientName + "%"))
-                    .forEach(predicates::add);
+        Predicate ingredientPredicate = ingredientMatches == null ? null : ingredientMatches.toPredicate(root.get("id"), cb);
+        if (ingredientPredicate != null) {
+            predicates.add(ingredientPredicate);
+            return predicates;
+        }
+        // a semi-join per include term, which different ingredients of a recipe may match, and an anti-join for the
+        // exclude terms; the subqueries start from the few ingredients matching the terms and do not depend on the
+        // recipe, so the database reads their recipes once instead of the ingredients of every recipe: H2 keeps the
+        // distinct ids of an uncorrelated IN subquery and probes them per recipe, where a correlated NOT EXISTS would
+        // look up the ingredients of each recipe counted
+        for (String include : ingredientTerms(searchRequest.getIncludeIngredients())) {
+            predicates.add(root.get("id").in(recipesUsingIngredientLike(query, cb, List.of(include))));
         }
-        if (searchRequest.getExcludeIngredients() != null && !searchRequest.getExcludeIngredients().isEmpty()) {
-            Join<Recipe, Ingredient> join = root.join("ingredients");
-
-            searchRequest.getExcludeIngredients()
-                    .stream()
-                    .filter(ingredientName -> !ingredientName.isEmpty())
-                    .map(ingredientName -> cb.notLike(join.get("name"), "%" + ingredientName + "%"))
-                    .forEach(predicates::add);
+        List<String> excludes = ingredientTerms(searchRequest.getExcludeIngredients());
+        if (!excludes.isEmpty()) {
+            predicates.add(cb.not(root.get("id").in(recipesUsingIngredientLike(query, cb, excludes))));
         }
 
         return predicates;
     }
-        @Override
+
+    /**
+     * Selects the ids of the recipes using an ingredient whose lower-cased name contains any of the terms, as the
+     * ingredient index matches them.
+     */
+    private static Subquery<Long> recipesUsingIngredientLike(CriteriaQuery<?> query, CriteriaBuilder cb, List<String> terms) {
+        Subquery<Long> recipeIds = query.subquery(Long.class);
+        Root<Ingredient> ingredient = recipeIds.from(Ingredient.class);
+        Join<Ingredient, Recipe> recipe = ingredient.join("recipes");
+        recipeIds.select(recipe.get("id"))
+                .where(cb.or(terms.stream()
+                        .map(term -> cb.like(ingredient.get("nameKey"), "%" + escapeLike(term) + "%", LIKE_ESCAPE))
+                        .toArray(Predicate[]::new)));
+        return recipeIds;
+    }
+
+    /**
+     * @return the distinct non-empty lower-cased terms
+     */
+    private static List<String> ingredientTerms(List<String> ingredientNames) {
+        if (ingredientNames == null) {
+            return List.of();
+        }
+        return ingredientNames.stream()
+                .filter(ingredientName -> ingredientName != null && !ingredientName.isEmpty())
+                .map(ingredientName -> ingredientName.toLowerCase(Locale.ROOT))
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Matches the term against the searchable properties or the name of any ingredient of the recipe.
+     */
+    @Override
+    protected Predicate matchesSearchTerm(Root<Recipe> root, CriteriaQuery<?> query, CriteriaBuilder cb, String searchTerm) {
+        Subquery<Long> ingredientMatch = query.subquery(Long.class);
+        Join<Recipe, Ingredient> ingredient = ingredientMatch.correlate(root).join("ingredients");
+        ingredientMatch.select(ingredient.get("id"))
+                .where(cb.like(cb.lower(ingredient.get("name")), "%" + escapeLike(searchTerm) + "%", LIKE_ESCAPE));
+        return cb.or(super.matchesSearchTerm(root, query, cb, searchTerm), cb.exists(ingredientMatch));
+    }
+
+    @Override
     public Set<Path<?>> getSearchableProperties(Root<Recipe> root) {
         return Set.of(
                 root.get("name"),
-                root.get("vegetarian"),
-                root.get("servings"),
-                root.get("ingredients")
+                root.get("description"),
+                root.get("instructions")
         );
     }
 }
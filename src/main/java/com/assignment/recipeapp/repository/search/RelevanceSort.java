@@ -0,0 +1,48 @@
+package com.assignment.recipeapp.repository.search;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Handling of the {@code sort=relevance} order of the search endpoints.
+ * <p>
+ *     Relevance is not a column: it is computed by the text indexes from the search text,
+ *     so it has to be removed from a Pageable before the Pageable reaches the database.
+ * </p>
+ */
+public final class RelevanceSort {
+
+    public static final String PROPERTY = "relevance";
+
+    private RelevanceSort() {
+    }
+
+    /**
+     * @param pageable the requested page
+     * @return true when the results should be ordered by relevance
+     */
+    public static boolean isRequested(Pageable pageable) {
+        return pageable.getSort().getOrderFor(PROPERTY) != null;
+    }
+
+    /**
+     * @param pageable the requested page
+     * @return the same page without the relevance order
+     */
+    public static Pageable without(Pageable pageable) {
+        if (!isRequested(pageable)) {
+            return pageable;
+        }
+        Sort sort = Sort.by(pageable.getSort().filter(order -> !PROPERTY.equals(order.getProperty())).toList());
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort) : Pageable.unpaged();
+    }
+
+    /**
+     * @param pageable the requested page
+     * @return number of best results needed to fill the page
+     */
+    public static int limit(Pageable pageable) {
+        return pageable.isPaged() ? (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize()) : Integer.MAX_VALUE;
+    }
+}
@@ -3,10 +3,8 @@ package com.assignment.recipeapp.repository.search;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.jpa.domain.Specification;
 
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.Path;
-import javax.persistence.criteria.Predicate;
-import javax.persistence.criteria.Root;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -14,16 +12,42 @@ import java.util.stream.Collectors;
 
 public abstract class SearchSpecification<T, U extends SearchRequest> {
 
+    /**
+     * Escape character of the LIKE patterns, see {@link #escapeLike(String)}.
+     */
+    protected static final char LIKE_ESCAPE = '\\';
+
+    /**
+     * Entities matching the search terms, as resolved by a text index.
+     * Null when the search terms have to be matched in SQL.
+     */
+    private final CandidateIds textMatches;
+
+    protected SearchSpecification() {
+        this(null);
+    }
+
+    protected SearchSpecification(CandidateIds textMatches) {
+        this.textMatches = textMatches;
+    }
+
     public abstract Set<Path<?>> getSearchableProperties(Root<T> root);
 
     /**
-     * Add extra search predicates
+     * Add extra search predicates, the query lets them use subqueries
      */
-    public List<Predicate> addCustomSearchPredicates(Root<T> root, CriteriaBuilder cb, U searchRequest) {
+    public List<Predicate> addCustomSearchPredicates(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb, U searchRequest) {
         return Collections.emptyList();
     }
 
-    private Set<String> parseSearchTerms(String searchText) {
+    /**
+     * Parses a search text into lower-cased alphanumeric terms.
+     * Text indexes resolving the search text must receive the terms parsed here.
+     *
+     * @param searchText the search text, may be null
+     * @return the distinct search terms
+     */
+    public static Set<String> parseSearchTerms(String searchText) {
         if (searchText == null) {
             return Collections.emptySet();
         }
@@ -35,30 +59,64 @@ public abstract class SearchSpecification<T, U extends SearchRequest> {
     }
 
     protected Specification<T> createSearchSpecification(U searchRequest) {
+        return createSpecification(searchRequest, true);
+    }
+
+    /**
+     * Creates the filters of a search ranked by the text index, which intersects the filtered ids with the text
+     * matches itself: the text matches restrict the ids when they fit in SQL, the search terms are never matched in SQL.
+     */
+    protected Specification<T> createRankingFilterSpecification(U searchRequest) {
+        return createSpecification(searchRequest, false);
+    }
+
+    private Specification<T> createSpecification(U searchRequest, boolean matchTermsInSql) {
         return (root, query, cb) -> {
 
             // Parses search terms
             Set<String> searchTerms = parseSearchTerms(searchRequest.getSearchText());
 
-            // Search term predicates
-            List<Predicate> searchPredicates = searchTerms.stream()
-                    .map(searchTerm -> matchesAnyProperty(getSearchableProperties(root), searchTerm, cb))
-                    .collect(Collectors.toList());
+            // Search term predicates, taken from the text index when it resolved the terms
+            List<Predicate> searchPredicates = new ArrayList<>();
+            Predicate textPredicate = searchTerms.isEmpty() || textMatches == null
+                    ? null
+                    : textMatches.toPredicate(root.get("id"), cb);
+            if (textPredicate != null) {
+                searchPredicates.add(textPredicate);
+            } else if (matchTermsInSql) {
+                searchTerms.stream()
+                        .map(searchTerm -> matchesSearchTerm(root, query, cb, searchTerm))
+                        .forEach(searchPredicates::add);
+            }
 
-            searchPredicates.addAll(addCustomSearchPredicates(root, cb, searchRequest));
+            searchPredicates.addAll(addCustomSearchPredicates(root, query, cb, searchRequest));
 
             // Each predicate has to match
             return cb.and(searchPredicates.toArray(new Predicate[]{}));
         };
     }
 
+    /**
+     * Matches a single search term in SQL, used when no text index resolved the search text.
+     */
+    protected Predicate matchesSearchTerm(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb, String searchTerm) {
+        return matchesAnyProperty(getSearchableProperties(root), searchTerm, cb);
+    }
+
     private Predicate matchesAnyProperty(Set<Path<?>> searchablePaths, String searchTerm, CriteriaBuilder cb) {
         return cb.or(
                 searchablePaths.stream()
-                        .map(path -> cb.like(cb.lower(path.as(String.class)), '%' + searchTerm + '%'))
+                        .map(path -> cb.like(cb.lower(path.as(String.class)), '%' + escapeLike(searchTerm) + '%', LIKE_ESCAPE))
                         .toList()
                         .toArray(new Predicate[0])
         );
     }
 
+    /**
+     * Escapes the LIKE wildcards of a term, so that a pattern built from it with {@link #LIKE_ESCAPE} matches the term
+     * literally.
+     */
+    protected static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
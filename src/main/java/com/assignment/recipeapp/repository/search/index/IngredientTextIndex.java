@@ -0,0 +1,99 @@
+package com.assignment.recipeapp.repository.search.index;
+
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.event.ChangeType;
+import com.assignment.recipeapp.event.IngredientChangedEvent;
+import com.assignment.recipeapp.repository.IngredientRepository;
+import com.assignment.recipeapp.repository.search.CandidateIds;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Full-text index over the id and name of every ingredient, the searchable properties of an ingredient search.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngredientTextIndex {
+
+    static final int ID = 0;
+    static final int NAME = 1;
+
+    private static final float[] BOOSTS = {1f, 1f};
+
+    private final IngredientRepository ingredientRepository;
+
+    @Value("${recipe-app.search.index.max-in-list-size:1000}")
+    private int maxInListSize;
+
+    private final TextIndex textIndex = new TextIndex(2);
+    private volatile boolean ready;
+
+    /**
+     * Loads the index from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        ready = false;
+        textIndex.clear();
+        for (Ingredient ingredient : ingredientRepository.findAll()) {
+            put(ingredient.getId(), ingredient.getName());
+        }
+        ready = true;
+        log.info("Indexed the text of {} ingredients", textIndex.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onIngredientChanged(IngredientChangedEvent event) {
+        if (event.changeType() == ChangeType.DELETED) {
+            textIndex.remove(toKey(event.ingredientId()));
+        } else {
+            put(event.ingredientId(), event.name());
+        }
+    }
+
+    /**
+     * Resolves search terms to the ingredients containing all of them.
+     *
+     * @param searchTerms terms parsed from the search text
+     * @return the matching ingredient ids, or empty when there are no terms or the index is not loaded yet
+     */
+    public Optional<CandidateIds> match(Collection<String> searchTerms) {
+        if (!ready || searchTerms == null || searchTerms.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new CandidateIds(textIndex.match(searchTerms), textIndex.documents(), maxInListSize));
+    }
+
+    /**
+     * Ranks the ingredients containing all search terms by relevance.
+     *
+     * @param searchTerms terms parsed from the search text
+     * @param filter ingredient ids allowed in the result, or null to allow all
+     * @param limit maximum number of ingredients to return
+     * @return the best ingredients, or empty when there are no terms or the index is not loaded yet
+     */
+    public Optional<TextIndex.Ranking> rank(Collection<String> searchTerms, RoaringBitmap filter, int limit) {
+        if (!ready || searchTerms == null || searchTerms.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(textIndex.rank(searchTerms, filter, limit, BOOSTS));
+    }
+
+    private void put(Long id, String name) {
+        textIndex.put(toKey(id), String.valueOf(id), name);
+    }
+
+    private static int toKey(Long ingredientId) {
+        return Math.toIntExact(ingredientId);
+    }
+}
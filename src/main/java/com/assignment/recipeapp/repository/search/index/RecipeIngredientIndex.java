@@ -0,0 +1,321 @@
+package com.assignment.recipeapp.repository.search.index;
+
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.event.ChangeType;
+import com.assignment.recipeapp.event.IngredientChangedEvent;
+import com.assignment.recipeapp.event.RecipeChangedEvent;
+import com.assignment.recipeapp.repository.IngredientRepository;
+import com.assignment.recipeapp.repository.RecipeIngredientLink;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.repository.search.CandidateIds;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.transaction.Transactional;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index from ingredients to the recipes using them.
+ * <p>
+ *     Every ingredient owns a compressed bitmap of recipe ids, so the include/exclude
+ *     ingredient filters of a recipe search are resolved with bitmap unions, intersections
+ *     and differences instead of a join on recipes_ingredients per search term. The ingredients whose name contains a
+ *     term are looked up in a {@link TextIndex} of the ingredient names.
+ *     The index is loaded from the database once the application is ready and is kept in sync
+ *     through the change events published by the services after commit.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecipeIngredientIndex {
+
+    /**
+     * Order of the index listeners. Indexes reading ingredient names from this one listen after it.
+     */
+    public static final int LISTENER_ORDER = 0;
+
+    private static final long[] NO_INGREDIENTS = new long[0];
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientRepository ingredientRepository;
+
+    @Value("${recipe-app.search.index.max-in-list-size:1000}")
+    private int maxInListSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> ingredientNames = new HashMap<>();
+    private final TextIndex ingredientNameIndex = new TextIndex(1);
+    private final Map<Long, RoaringBitmap> recipesByIngredient = new HashMap<>();
+    private final Map<Integer, long[]> ingredientsByRecipe = new HashMap<>();
+    private final RoaringBitmap allRecipes = new RoaringBitmap();
+    private volatile boolean ready;
+
+    /**
+     * Loads the index from the database.
+     * Writers published while loading wait for the lock and are applied afterwards.
+     */
+    @Transactional
+    @Order(LISTENER_ORDER)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            ingredientNames.clear();
+            ingredientNameIndex.clear();
+            recipesByIngredient.clear();
+            ingredientsByRecipe.clear();
+            allRecipes.clear();
+
+            for (Ingredient ingredient : ingredientRepository.findAll()) {
+                putIngredientName(ingredient.getId(), ingredient.getName());
+            }
+            try (Stream<Long> ids = recipeRepository.streamAllIds()) {
+                ids.forEach(id -> allRecipes.add(toRecipeKey(id)));
+            }
+            Map<Integer, List<Long>> links = new HashMap<>();
+            try (Stream<RecipeIngredientLink> rows = recipeRepository.streamAllIngredientLinks()) {
+                rows.forEach(row -> links.computeIfAbsent(toRecipeKey(row.getRecipeId()), k -> new ArrayList<>())
+                        .add(row.getIngredientId()));
+            }
+            links.forEach((recipe, ingredientIds) -> link(recipe, ingredientIds));
+            recipesByIngredient.values().forEach(RoaringBitmap::runOptimize);
+            ready = true;
+            log.info("Indexed {} recipes over {} ingredients", allRecipes.getCardinality(), ingredientNames.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        int recipe = toRecipeKey(event.recipeId());
+        lock.writeLock().lock();
+        try {
+            unlink(recipe);
+            if (event.changeType() == ChangeType.DELETED) {
+                allRecipes.remove(recipe);
+            } else {
+                allRecipes.add(recipe);
+                link(recipe, event.ingredientIds());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.changeType() == ChangeType.DELETED) {
+                ingredientNames.remove(event.ingredientId());
+                ingredientNameIndex.remove(toIngredientKey(event.ingredientId()));
+                recipesByIngredient.remove(event.ingredientId());
+            } else {
+                putIngredientName(event.ingredientId(), event.name());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Resolves the ingredient filters of a recipe search.
+     * <p>
+     *     A recipe matches when, for every include term, it uses an ingredient whose name contains the term,
+     *     and it uses no ingredient whose name contains any of the exclude terms. Terms are case-insensitive.
+     * </p>
+     *
+     * @param includeIngredients ingredient name fragments a recipe must contain
+     * @param excludeIngredients ingredient name fragments a recipe must not contain
+     * @return the matching recipe ids, or empty when there is nothing to filter or the index is not loaded yet
+     */
+    public Optional<CandidateIds> match(Collection<String> includeIngredients, Collection<String> excludeIngredients) {
+        List<String> includes = normalizeTerms(includeIngredients);
+        List<String> excludes = normalizeTerms(excludeIngredients);
+        if (!ready || (includes.isEmpty() && excludes.isEmpty())) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap universe = allRecipes.clone();
+            // built from the recipes of the first include term, or from the universe for the exclude terms alone
+            RoaringBitmap matches = null;
+            for (String include : includes) {
+                RoaringBitmap recipes = recipesWithIngredientLike(List.of(include));
+                if (matches == null) {
+                    matches = recipes;
+                } else {
+                    matches.and(recipes);
+                }
+                if (matches.isEmpty()) {
+                    break;
+                }
+            }
+            if (!excludes.isEmpty() && (matches == null || !matches.isEmpty())) {
+                matches = RoaringBitmap.andNot(matches == null ? universe : matches, recipesWithIngredientLike(excludes));
+            }
+            return Optional.of(new CandidateIds(matches, universe, maxInListSize));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param ingredientId the ingredient id
+     * @return a copy of the ids of the recipes using the ingredient
+     */
+    public RoaringBitmap recipesUsing(Long ingredientId) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap recipes = recipesByIngredient.get(ingredientId);
+            return recipes == null ? new RoaringBitmap() : recipes.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param recipeId the recipe id
+     * @return the lower-cased names of the ingredients of the recipe, in no particular order
+     */
+    public List<String> ingredientNamesOf(Long recipeId) {
+        lock.readLock().lock();
+        try {
+            long[] ingredients = ingredientsByRecipe.getOrDefault(toRecipeKey(recipeId), NO_INGREDIENTS);
+            List<String> names = new ArrayList<>(ingredients.length);
+            for (long ingredientId : ingredients) {
+                names.add(ingredientNames.getOrDefault(ingredientId, ""));
+            }
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param recipeIds recipe ids
+     * @return the ids of the ingredients used by the recipes, or empty when the index is not loaded yet
+     */
+    public Optional<Set<Long>> ingredientIdsOf(Collection<Long> recipeIds) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            Set<Long> ingredientIds = new HashSet<>();
+            for (Long recipeId : recipeIds) {
+                for (long ingredientId : ingredientsByRecipe.getOrDefault(toRecipeKey(recipeId), NO_INGREDIENTS)) {
+                    ingredientIds.add(ingredientId);
+                }
+            }
+            return Optional.of(ingredientIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return the recipes using an ingredient whose name contains any of the terms
+     */
+    private RoaringBitmap recipesWithIngredientLike(Collection<String> terms) {
+        RoaringBitmap recipes = new RoaringBitmap();
+        for (String term : terms) {
+            List<String> tokens = TextIndex.tokenize(term);
+            if (tokens.isEmpty()) {
+                // no alphanumeric token to look up, every name is checked
+                ingredientNames.forEach((ingredientId, name) -> addRecipesIfNameContains(ingredientId, name, term, recipes));
+                continue;
+            }
+            // every token of the term lies within a token of a name containing the term, the names of the ingredients
+            // whose tokens contain all of them are then checked as a whole
+            IntIterator candidates = ingredientNameIndex.match(tokens).getIntIterator();
+            while (candidates.hasNext()) {
+                long ingredientId = candidates.next();
+                addRecipesIfNameContains(ingredientId, ingredientNames.get(ingredientId), term, recipes);
+            }
+        }
+        return recipes;
+    }
+
+    private void addRecipesIfNameContains(Long ingredientId, String name, String term, RoaringBitmap recipes) {
+        if (name != null && name.contains(term)) {
+            RoaringBitmap posting = recipesByIngredient.get(ingredientId);
+            if (posting != null) {
+                recipes.or(posting);
+            }
+        }
+    }
+
+    private void putIngredientName(Long ingredientId, String name) {
+        String normalized = normalize(name);
+        ingredientNames.put(ingredientId, normalized);
+        ingredientNameIndex.put(toIngredientKey(ingredientId), normalized);
+    }
+
+    private void link(int recipe, Collection<Long> ingredientIds) {
+        if (ingredientIds.isEmpty()) {
+            return;
+        }
+        long[] ingredients = new long[ingredientIds.size()];
+        int i = 0;
+        for (Long ingredientId : ingredientIds) {
+            ingredients[i++] = ingredientId;
+            recipesByIngredient.computeIfAbsent(ingredientId, k -> new RoaringBitmap()).add(recipe);
+        }
+        ingredientsByRecipe.put(recipe, ingredients);
+    }
+
+    private void unlink(int recipe) {
+        for (long ingredientId : ingredientsByRecipe.getOrDefault(recipe, NO_INGREDIENTS)) {
+            RoaringBitmap recipes = recipesByIngredient.get(ingredientId);
+            if (recipes != null) {
+                recipes.remove(recipe);
+            }
+        }
+        ingredientsByRecipe.remove(recipe);
+    }
+
+    private static List<String> normalizeTerms(Collection<String> terms) {
+        if (terms == null) {
+            return List.of();
+        }
+        return terms.stream()
+                .filter(term -> term != null && !term.isEmpty())
+                .map(RecipeIngredientIndex::normalize)
+                .distinct()
+                .toList();
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    static int toRecipeKey(Long recipeId) {
+        return Math.toIntExact(recipeId);
+    }
+
+    private static int toIngredientKey(Long ingredientId) {
+        return Math.toIntExact(ingredientId);
+    }
+}
@@ -0,0 +1,135 @@
+package com.assignment.recipeapp.repository.search.index;
+
+import com.assignment.recipeapp.event.ChangeType;
+import com.assignment.recipeapp.event.IngredientChangedEvent;
+import com.assignment.recipeapp.event.RecipeChangedEvent;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.repository.RecipeText;
+import com.assignment.recipeapp.repository.search.CandidateIds;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Full-text index over the name, description, instructions and ingredient names of every recipe.
+ * <p>
+ *     Resolves the search text of a recipe search to candidate recipe ids without scanning the recipes table.
+ *     Ingredient names are read from the {@link RecipeIngredientIndex}, so the listeners of this index run after it.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecipeTextIndex {
+
+    static final int NAME = 0;
+    static final int DESCRIPTION = 1;
+    static final int INSTRUCTIONS = 2;
+    static final int INGREDIENTS = 3;
+
+    private static final int LISTENER_ORDER = RecipeIngredientIndex.LISTENER_ORDER + 1;
+
+    /**
+     * Relevance weight of every field: a match in the name counts most, one in the instructions least.
+     */
+    private static final float[] BOOSTS = {3f, 1.5f, 1f, 2f};
+
+    private final RecipeRepository recipeRepository;
+    private final RecipeIngredientIndex recipeIngredientIndex;
+
+    @Value("${recipe-app.search.index.max-in-list-size:1000}")
+    private int maxInListSize;
+
+    private final TextIndex textIndex = new TextIndex(4);
+    private volatile boolean ready;
+
+    /**
+     * Loads the index from the database.
+     */
+    @Transactional
+    @Order(LISTENER_ORDER)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        ready = false;
+        textIndex.clear();
+        try (Stream<RecipeText> recipes = recipeRepository.streamAllTexts()) {
+            recipes.forEach(recipe -> textIndex.put(RecipeIngredientIndex.toRecipeKey(recipe.getId()),
+                    recipe.getName(), recipe.getDescription(), recipe.getInstructions(),
+                    ingredientText(recipe.getId())));
+        }
+        ready = true;
+        log.info("Indexed the text of {} recipes", textIndex.size());
+    }
+
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRecipeChanged(RecipeChangedEvent event) {
+        int recipe = RecipeIngredientIndex.toRecipeKey(event.recipeId());
+        if (event.changeType() == ChangeType.DELETED) {
+            textIndex.remove(recipe);
+        } else {
+            textIndex.put(recipe, event.name(), event.description(), event.instructions(), ingredientText(event.recipeId()));
+        }
+    }
+
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onIngredientChanged(IngredientChangedEvent event) {
+        if (event.changeType() != ChangeType.UPDATED) {
+            return;
+        }
+        IntIterator recipes = recipeIngredientIndex.recipesUsing(event.ingredientId()).getIntIterator();
+        while (recipes.hasNext()) {
+            int recipe = recipes.next();
+            textIndex.putField(recipe, INGREDIENTS, ingredientText((long) recipe));
+        }
+    }
+
+    /**
+     * Resolves search terms to the recipes containing all of them.
+     *
+     * @param searchTerms terms parsed from the search text
+     * @return the matching recipe ids, or empty when there are no terms or the index is not loaded yet
+     */
+    public Optional<CandidateIds> match(Collection<String> searchTerms) {
+        if (!ready || searchTerms == null || searchTerms.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new CandidateIds(textIndex.match(searchTerms), textIndex.documents(), maxInListSize));
+    }
+
+    /**
+     * Ranks the recipes containing all search terms by relevance.
+     *
+     * @param searchTerms terms parsed from the search text
+     * @param filter recipe ids allowed in the result, or null to allow all
+     * @param limit maximum number of recipes to return
+     * @return the best recipes, or empty when there are no terms or the index is not loaded yet
+     */
+    public Optional<TextIndex.Ranking> rank(Collection<String> searchTerms, RoaringBitmap filter, int limit) {
+        if (!ready || searchTerms == null || searchTerms.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(textIndex.rank(searchTerms, filter, limit, BOOSTS));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private String ingredientText(Long recipeId) {
+        return String.join(" ", recipeIngredientIndex.ingredientNamesOf(recipeId));
+    }
+}
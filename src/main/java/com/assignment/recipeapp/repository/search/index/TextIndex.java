@@ -0,0 +1,412 @@
+package com.assignment.recipeapp.repository.search.index;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenized full-text index over documents made of a fixed number of text fields.
+ * <p>
+ *     Field values are lower-cased and split into alphanumeric tokens, the same normalization
+ *     SearchSpecification applies to search terms. Every token keeps a bitmap of the documents
+ *     containing it, and every 1-, 2- and 3-gram keeps a bitmap of the tokens containing it.
+ *     A search term therefore matches like {@code lower(field) like '%term%'}: the n-gram bitmaps
+ *     narrow the dictionary down to the tokens containing the term and their document bitmaps are merged.
+ * </p>
+ * <p>
+ *     Matches can be ranked with BM25F: the term frequencies of every field are normalized by the field length,
+ *     weighted by a per-field boost and summed before saturation. Only the best {@code limit} documents are kept
+ *     in a bounded heap, so deep result sets are never fully materialized or sorted.
+ * </p>
+ * <p>
+ *     Tokens stay in the dictionary once seen; their document bitmaps simply become empty.
+ *     The index is thread safe.
+ * </p>
+ */
+public class TextIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+    private static final int MAX_GRAM = 3;
+    private static final int[] NO_TOKENS = new int[0];
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final Comparator<ScoredDocument> WORST_FIRST = Comparator
+            .comparingDouble(ScoredDocument::score)
+            .thenComparing(ScoredDocument::document, Comparator.reverseOrder());
+
+    private final int fieldCount;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> tokenIds = new HashMap<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<RoaringBitmap> documentsByToken = new ArrayList<>();
+    private final Map<String, RoaringBitmap> tokensByGram = new HashMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final RoaringBitmap allDocuments = new RoaringBitmap();
+    private final long[] totalFieldLengths;
+
+    /**
+     * A document matching a ranked search.
+     *
+     * @param document the document id
+     * @param score the BM25F score, higher is better
+     */
+    public record ScoredDocument(int document, float score) {
+    }
+
+    /**
+     * The best matches of a ranked search.
+     *
+     * @param top the best matches, best first
+     * @param totalMatches number of documents matching the search
+     */
+    public record Ranking(List<ScoredDocument> top, int totalMatches) {
+    }
+
+    /**
+     * Tokens of every field of a document.
+     * Token ids of a field are sorted and unique, frequencies are aligned with them.
+     */
+    private record Document(int[][] tokens, int[][] frequencies, int[] lengths) {
+    }
+
+    /**
+     * @param fieldCount number of text fields of every document
+     */
+    public TextIndex(int fieldCount) {
+        this.fieldCount = fieldCount;
+        this.totalFieldLengths = new long[fieldCount];
+    }
+
+    /**
+     * Adds or replaces a document.
+     *
+     * @param document the document id
+     * @param fields the text of every field, null fields are treated as empty
+     */
+    public void put(int document, String... fields) {
+        if (fields.length != fieldCount) {
+            throw new IllegalArgumentException("Expected " + fieldCount + " fields but got " + fields.length);
+        }
+        lock.writeLock().lock();
+        try {
+            Document tokenized = new Document(new int[fieldCount][], new int[fieldCount][], new int[fieldCount]);
+            for (int field = 0; field < fieldCount; field++) {
+                tokenize(fields[field], tokenized, field);
+            }
+            replace(document, tokenized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a single field of an indexed document. Unknown documents are ignored.
+     *
+     * @param document the document id
+     * @param field the field index
+     * @param text the new field text
+     */
+    public void putField(int document, int field, String text) {
+        lock.writeLock().lock();
+        try {
+            Document current = documents.get(document);
+            if (current == null) {
+                return;
+            }
+            Document tokenized = new Document(current.tokens().clone(), current.frequencies().clone(), current.lengths().clone());
+            tokenize(text, tokenized, field);
+            replace(document, tokenized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int document) {
+        lock.writeLock().lock();
+        try {
+            replace(document, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            tokenIds.clear();
+            tokens.clear();
+            documentsByToken.clear();
+            tokensByGram.clear();
+            documents.clear();
+            allDocuments.clear();
+            Arrays.fill(totalFieldLengths, 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the documents containing every term in any of their fields.
+     *
+     * @param terms normalized search terms
+     * @return the matching document ids
+     */
+    public RoaringBitmap match(Collection<String> terms) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = allDocuments.clone();
+            for (String term : terms) {
+                matches.and(documentsContaining(term));
+                if (matches.isEmpty()) {
+                    break;
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks the documents containing every term.
+     *
+     * @param terms normalized search terms
+     * @param filter documents allowed in the result, or null to allow all
+     * @param limit maximum number of documents to return
+     * @param boosts weight of every field
+     * @return the best {@code limit} documents and the number of matching documents
+     */
+    public Ranking rank(Collection<String> terms, RoaringBitmap filter, int limit, float[] boosts) {
+        lock.readLock().lock();
+        try {
+            List<String> distinctTerms = terms.stream().map(term -> term.toLowerCase(Locale.ROOT)).distinct().toList();
+            RoaringBitmap matches = filter == null ? allDocuments.clone() : RoaringBitmap.and(allDocuments, filter);
+            RoaringBitmap[] termTokens = new RoaringBitmap[distinctTerms.size()];
+            float[] idf = new float[distinctTerms.size()];
+            int documentCount = allDocuments.getCardinality();
+            for (int i = 0; i < termTokens.length; i++) {
+                termTokens[i] = tokensContaining(distinctTerms.get(i));
+                RoaringBitmap termDocuments = documentsContaining(termTokens[i]);
+                int df = termDocuments.getCardinality();
+                idf[i] = (float) Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+                matches.and(termDocuments);
+            }
+
+            int totalMatches = matches.getCardinality();
+            if (limit <= 0 || totalMatches == 0) {
+                return new Ranking(List.of(), totalMatches);
+            }
+            float[] averageLengths = new float[fieldCount];
+            for (int field = 0; field < fieldCount; field++) {
+                averageLengths[field] = Math.max(1f, (float) totalFieldLengths[field] / Math.max(1, documentCount));
+            }
+
+            PriorityQueue<ScoredDocument> best = new PriorityQueue<>(Math.min(limit, totalMatches), WORST_FIRST);
+            IntIterator iterator = matches.getIntIterator();
+            while (iterator.hasNext()) {
+                int document = iterator.next();
+                ScoredDocument scored = new ScoredDocument(document,
+                        score(documents.get(document), termTokens, idf, boosts, averageLengths));
+                if (best.size() < limit) {
+                    best.add(scored);
+                } else if (WORST_FIRST.compare(scored, best.peek()) > 0) {
+                    best.poll();
+                    best.add(scored);
+                }
+            }
+            List<ScoredDocument> top = new ArrayList<>(best);
+            top.sort(WORST_FIRST.reversed());
+            return new Ranking(top, totalMatches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return a copy of the ids of all indexed documents
+     */
+    public RoaringBitmap documents() {
+        lock.readLock().lock();
+        try {
+            return allDocuments.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return allDocuments.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits a text into lower-cased alphanumeric tokens.
+     *
+     * @param text the text, may be null
+     * @return the tokens in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>();
+        for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    private RoaringBitmap documentsContaining(String term) {
+        return documentsContaining(tokensContaining(term.toLowerCase(Locale.ROOT)));
+    }
+
+    private RoaringBitmap documentsContaining(RoaringBitmap tokens) {
+        RoaringBitmap result = new RoaringBitmap();
+        IntIterator matchingTokens = tokens.getIntIterator();
+        while (matchingTokens.hasNext()) {
+            result.or(documentsByToken.get(matchingTokens.next()));
+        }
+        return result;
+    }
+
+    private float score(Document document, RoaringBitmap[] termTokens, float[] idf, float[] boosts, float[] averageLengths) {
+        float score = 0;
+        for (int term = 0; term < termTokens.length; term++) {
+            float weightedFrequency = 0;
+            for (int field = 0; field < fieldCount; field++) {
+                int frequency = frequency(document, field, termTokens[term]);
+                if (frequency > 0) {
+                    float lengthNorm = 1 - B + B * document.lengths()[field] / averageLengths[field];
+                    weightedFrequency += boosts[field] * frequency / lengthNorm;
+                }
+            }
+            score += idf[term] * weightedFrequency * (K1 + 1) / (weightedFrequency + K1);
+        }
+        return score;
+    }
+
+    /**
+     * Sums the frequencies of the given tokens in a field, probing whichever side is smaller.
+     */
+    private static int frequency(Document document, int field, RoaringBitmap tokens) {
+        int[] fieldTokens = document.tokens()[field];
+        int[] fieldFrequencies = document.frequencies()[field];
+        int frequency = 0;
+        if (tokens.getCardinality() < fieldTokens.length) {
+            IntIterator iterator = tokens.getIntIterator();
+            while (iterator.hasNext()) {
+                int position = Arrays.binarySearch(fieldTokens, iterator.next());
+                if (position >= 0) {
+                    frequency += fieldFrequencies[position];
+                }
+            }
+        } else {
+            for (int i = 0; i < fieldTokens.length; i++) {
+                if (tokens.contains(fieldTokens[i])) {
+                    frequency += fieldFrequencies[i];
+                }
+            }
+        }
+        return frequency;
+    }
+
+    private RoaringBitmap tokensContaining(String term) {
+        if (term.length() <= MAX_GRAM) {
+            RoaringBitmap exact = tokensByGram.get(term);
+            return exact == null ? new RoaringBitmap() : exact;
+        }
+        RoaringBitmap candidates = null;
+        for (int i = 0; i + MAX_GRAM <= term.length(); i++) {
+            RoaringBitmap gramTokens = tokensByGram.get(term.substring(i, i + MAX_GRAM));
+            if (gramTokens == null) {
+                return new RoaringBitmap();
+            }
+            candidates = candidates == null ? gramTokens.clone() : RoaringBitmap.and(candidates, gramTokens);
+        }
+        RoaringBitmap verified = new RoaringBitmap();
+        IntIterator iterator = candidates.getIntIterator();
+        while (iterator.hasNext()) {
+            int token = iterator.next();
+            if (tokens.get(token).contains(term)) {
+                verified.add(token);
+            }
+        }
+        return verified;
+    }
+
+    private void replace(int document, Document tokenized) {
+        Document previous = documents.remove(document);
+        if (previous != null) {
+            for (int field = 0; field < fieldCount; field++) {
+                for (int token : previous.tokens()[field]) {
+                    documentsByToken.get(token).remove(document);
+                }
+                totalFieldLengths[field] -= previous.lengths()[field];
+            }
+            allDocuments.remove(document);
+        }
+        if (tokenized != null) {
+            for (int field = 0; field < fieldCount; field++) {
+                for (int token : tokenized.tokens()[field]) {
+                    documentsByToken.get(token).add(document);
+                }
+                totalFieldLengths[field] += tokenized.lengths()[field];
+            }
+            documents.put(document, tokenized);
+            allDocuments.add(document);
+        }
+    }
+
+    /**
+     * Tokenizes a field text into {@code target}, run-length encoding the sorted token ids into frequencies.
+     */
+    private void tokenize(String text, Document target, int field) {
+        int[] ids = tokenize(text).stream().mapToInt(this::tokenId).sorted().toArray();
+        target.lengths()[field] = ids.length;
+        if (ids.length == 0) {
+            target.tokens()[field] = NO_TOKENS;
+            target.frequencies()[field] = NO_TOKENS;
+            return;
+        }
+        int[] tokens = new int[ids.length];
+        int[] frequencies = new int[ids.length];
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0 && ids[i] == ids[i - 1]) {
+                frequencies[distinct - 1]++;
+            } else {
+                tokens[distinct] = ids[i];
+                frequencies[distinct++] = 1;
+            }
+        }
+        target.tokens()[field] = Arrays.copyOf(tokens, distinct);
+        target.frequencies()[field] = Arrays.copyOf(frequencies, distinct);
+    }
+
+    private int tokenId(String token) {
+        Integer id = tokenIds.get(token);
+        if (id != null) {
+            return id;
+        }
+        int newId = tokens.size();
+        tokenIds.put(token, newId);
+        tokens.add(token);
+        documentsByToken.add(new RoaringBitmap());
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (int i = 0; i + length <= token.length(); i++) {
+                tokensByGram.computeIfAbsent(token.substring(i, i + length), k -> new RoaringBitmap()).add(newId);
+            }
+        }
+        return newId;
+    }
+}
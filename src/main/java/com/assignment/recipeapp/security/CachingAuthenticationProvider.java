@@ -0,0 +1,128 @@
+package com.assignment.recipeapp.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Authentication provider remembering successful username/password authentications for a while.
+ * <p>
+ *     HTTP Basic sends the credentials with every request, and verifying a BCrypt hash deliberately costs
+ *     milliseconds, more than most requests of the API. Successful authentications are cached under an HMAC of
+ *     the credentials keyed with a secret generated at startup, so the cache never holds a password and its keys
+ *     cannot be precomputed. Entries expire after a fixed time to live, which bounds how long a changed password
+ *     is still accepted, and the least recently used entries are evicted beyond the maximum size.
+ *     Failed authentications always reach the delegate.
+ * </p>
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final AuthenticationProvider delegate;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoClock;
+    private final SecretKeySpec secret;
+    private final Map<String, CachedAuthentication> cache;
+
+    /**
+     * @param delegate verifies the credentials missing from the cache
+     * @param timeToLive how long an authentication is reused, zero disables the cache
+     * @param maxSize maximum number of cached authentications
+     */
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, Duration timeToLive, int maxSize) {
+        this(delegate, timeToLive, maxSize, System::nanoTime);
+    }
+
+    CachingAuthenticationProvider(AuthenticationProvider delegate, Duration timeToLive, int maxSize, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoClock = nanoClock;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.secret = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedAuthentication> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (timeToLiveNanos <= 0 || !(authentication.getCredentials() instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+        String key = key(authentication.getName(), password);
+        CachedAuthentication cached = get(key);
+        if (cached != null) {
+            // a new token, the details of the current request are copied onto it by the authentication manager
+            return UsernamePasswordAuthenticationToken.authenticated(cached.principal(), null, cached.authorities());
+        }
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            put(key, new CachedAuthentication(result.getPrincipal(), result.getAuthorities(), nanoClock.getAsLong() + timeToLiveNanos));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    /**
+     * Forgets all cached authentications, for instance after a password change.
+     */
+    public synchronized void invalidateAll() {
+        cache.clear();
+    }
+
+    synchronized int size() {
+        return cache.size();
+    }
+
+    private synchronized CachedAuthentication get(String key) {
+        CachedAuthentication cached = cache.get(key);
+        if (cached != null && nanoClock.getAsLong() - cached.expiresAt() >= 0) {
+            cache.remove(key);
+            return null;
+        }
+        return cached;
+    }
+
+    private synchronized void put(String key, CachedAuthentication authentication) {
+        cache.put(key, authentication);
+    }
+
+    private String key(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secret);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            // separates the username from the password, so that "ab" + "c" and "a" + "bc" differ
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private record CachedAuthentication(Object principal, Collection<? extends GrantedAuthority> authorities, long expiresAt) {
+    }
+}
@@ -1,14 +1,20 @@
 package com.assignment.recipeapp.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+
 /**
  * Configuration class for security.
  *
@@ -19,13 +25,20 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class WebSecurityConfig {
 
+    @Value("${recipe-app.security.auth-cache.ttl:5m}")
+    private Duration authCacheTimeToLive;
+
+    @Value("${recipe-app.security.auth-cache.max-size:10000}")
+    private int authCacheMaxSize;
+
     /**
      * Filter chain bean.
      * This method is used to configure the security filter chain.
      * It is annotated with @Bean to indicate that it is a Spring bean.
      *
-     * The security filter chain is configured to allow access to the H2 console and the Swagger UI.
-     * All other requests are allowed.
+     * The security filter chain is configured to allow access to the H2 console, the Swagger UI and the liveness and
+     * readiness probes.
+     * The actuator and admin endpoints (metrics, slow queries) require authentication. All other requests are allowed.
      *
      * @param http HttpSecurity
      * @return SecurityFilterChain
@@ -39,7 +52,10 @@ public class WebSecurityConfig {
                 .antMatchers("/v3/api-docs/**",
                         "/swagger-ui/**",
                         "/swagger-ui.html",
-                        "/h2-console/**").permitAll()
+                        "/h2-console/**",
+                        "/actuator/health/liveness",
+                        "/actuator/health/readiness").permitAll()
+                .antMatchers("/actuator/**", "/api/admin/**").authenticated()
                 .and()
                 .httpBasic();
         return http.build();
@@ -48,16 +64,21 @@ public class WebSecurityConfig {
     /**
      * Configure global.
      * This method is used to configure the authentication manager builder.
+     * Successful authentications are cached, so that the password hash is not verified on every request.
      * @param auth
      * @param passwordEncoder
      * @throws Exception
      */
     @Autowired
     public void configureGlobal(AuthenticationManagerBuilder auth, PasswordEncoder passwordEncoder) throws Exception {
-        auth.inMemoryAuthentication()
-                .withUser("user")
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(User.withUsername("user")
                 .password(passwordEncoder.encode("password"))
-                .roles("USER");
+                .roles("USER")
+                .build());
+        DaoAuthenticationProvider passwordAuthentication = new DaoAuthenticationProvider();
+        passwordAuthentication.setUserDetailsService(users);
+        passwordAuthentication.setPasswordEncoder(passwordEncoder);
+        auth.authenticationProvider(new CachingAuthenticationProvider(passwordAuthentication, authCacheTimeToLive, authCacheMaxSize));
     }
 
 }
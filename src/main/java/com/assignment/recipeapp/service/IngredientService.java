@@ -5,18 +5,35 @@ import com.assignment.recipeapp.dto.request.IngredientSearchRequest;
 import com.assignment.recipeapp.dto.request.IngredientUpdateRequest;
 import com.assignment.recipeapp.dto.response.IngredientListingElementDto;
 import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.event.ChangeType;
+import com.assignment.recipeapp.event.IngredientChangedEvent;
 import com.assignment.recipeapp.exception.EntityAlreadyExistsException;
 import com.assignment.recipeapp.exception.IngredientNotFoundException;
 import com.assignment.recipeapp.mapper.ObjectMapper;
+import com.assignment.recipeapp.metrics.MetricsConfiguration;
 import com.assignment.recipeapp.repository.IngredientRepository;
+import com.assignment.recipeapp.repository.search.CandidateIds;
+import com.assignment.recipeapp.repository.search.CursorSlice;
+import com.assignment.recipeapp.repository.search.Keyset;
+import com.assignment.recipeapp.repository.search.RelevanceSort;
+import com.assignment.recipeapp.repository.search.index.IngredientTextIndex;
+import com.assignment.recipeapp.repository.search.index.TextIndex;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
+import java.util.*;
 
+import static com.assignment.recipeapp.repository.search.IngredientSearchSpecification.rankingFilter;
 import static com.assignment.recipeapp.repository.search.IngredientSearchSpecification.searchByText;
+import static com.assignment.recipeapp.repository.search.SearchSpecification.parseSearchTerms;
 
 /**
  * Service for Ingredient entities.
@@ -35,11 +52,19 @@ import static com.assignment.recipeapp.repository.search.IngredientSearchSpecifi
  * @see ObjectMapper
  */
 @Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class IngredientService {
 
+    /**
+     * Properties a cursor listing of ingredients may be sorted by.
+     */
+    private static final Set<String> CURSOR_SORT_PROPERTIES = Set.of("id", "name");
+
     private final IngredientRepository ingredientRepository;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IngredientTextIndex ingredientTextIndex;
 
     /**
      * Creates an ingredient.
@@ -51,25 +76,53 @@ public class IngredientService {
         ingredientRepository.findFirstByNameIgnoreCase(ingredientDto.getName()).ifPresent(ingredient -> {
             throw new EntityAlreadyExistsException("Ingredient", ingredientDto.getName());
         });
-        return objectMapper.toIngredientDto(ingredientRepository.save(objectMapper.toIngredient(ingredientDto)));
+        Ingredient ingredient = ingredientRepository.save(objectMapper.toIngredient(ingredientDto));
+        eventPublisher.publishEvent(IngredientChangedEvent.of(ChangeType.CREATED, ingredient));
+        return objectMapper.toIngredientDto(ingredient);
     }
 
     /**
-     * gets an ingredient by id.
+     * gets an ingredient by id, from the second-level cache when it holds the ingredient.
      * @param id the id of the ingredient to get
      * @return the ingredient
      */
     public IngredientDto getIngredientById(Long id) {
+        return getValidatedIngredient(id).body();
+    }
+
+    /**
+     * get an ingredient with the validator of the ingredient loaded, for the ETag and Last-Modified headers of its response.
+     * @param id the id of the ingredient
+     * @return the ingredient and its validator
+     */
+    public ResourceValidators.Validated<IngredientDto> getValidatedIngredient(Long id) {
         Ingredient ingredient = ingredientRepository.findById(id).orElseThrow(() -> new IngredientNotFoundException(id));
-        return objectMapper.toIngredientDto(ingredient);
+        return new ResourceValidators.Validated<>(objectMapper.toIngredientDto(ingredient), ResourceValidators.of(ingredient));
     }
 
     /**
      * get all ingredients.
+     * The search text is resolved by the in-memory text index when it is loaded.
+     * With sort=relevance the matches are ranked by the text index, best first.
      * @return a list of all ingredients
      */
     public Page<IngredientListingElementDto> searchIngredients(IngredientSearchRequest ingredientSearchRequest, Pageable pageable) {
-        return ingredientRepository.findAll(searchByText(ingredientSearchRequest), pageable)
+        Set<String> searchTerms = parseSearchTerms(ingredientSearchRequest.getSearchText());
+        Optional<CandidateIds> textMatches = ingredientTextIndex.match(searchTerms);
+        if (textMatches.filter(CandidateIds::isEmpty).isPresent()) {
+            return Page.empty(pageable);
+        }
+        Specification<Ingredient> specification = searchByText(ingredientSearchRequest, textMatches.orElse(null));
+        if (RelevanceSort.isRequested(pageable) && textMatches.isPresent()) {
+            RoaringBitmap filter = hasAttributeFilters(ingredientSearchRequest)
+                    ? CandidateIds.toBitmap(ingredientRepository.findIds(rankingFilter(ingredientSearchRequest, textMatches.get())))
+                    : null;
+            Optional<TextIndex.Ranking> ranking = ingredientTextIndex.rank(searchTerms, filter, RelevanceSort.limit(pageable));
+            if (ranking.isPresent()) {
+                return toRankedPage(ranking.get(), pageable);
+            }
+        }
+        return ingredientRepository.findAll(specification, RelevanceSort.without(pageable))
                 .map(objectMapper::toIngredientListingElementDto);
     }
 
@@ -84,9 +137,59 @@ public class IngredientService {
         Ingredient optionalIngredient = ingredientRepository.findById(id).orElseThrow(() -> new IngredientNotFoundException(id));
         optionalIngredient.setName(ingredientDto.getName());
         Ingredient updatedIngredient = ingredientRepository.save(optionalIngredient);
+        eventPublisher.publishEvent(IngredientChangedEvent.of(ChangeType.UPDATED, updatedIngredient));
         return objectMapper.toIngredientDto(updatedIngredient);
     }
 
+    /**
+     * Lists ingredients with a cursor instead of a page number.
+     * Each slice continues after the last ingredient of the previous one and no total count is computed.
+     * @param ingredientSearchRequest the search criteria
+     * @param after the cursor returned with the previous slice, null for the first slice
+     * @param pageable the slice size and the sort order, by id or name
+     * @return the ingredients and the cursor of the next slice
+     */
+    public CursorSlice<IngredientListingElementDto> scrollIngredients(IngredientSearchRequest ingredientSearchRequest, String after,
+                                                                      Pageable pageable) {
+        Keyset keyset = Keyset.of(pageable.getSort(), CURSOR_SORT_PROPERTIES);
+        Optional<CandidateIds> textMatches = ingredientTextIndex.match(parseSearchTerms(ingredientSearchRequest.getSearchText()));
+        if (textMatches.filter(CandidateIds::isEmpty).isPresent()) {
+            return CursorSlice.empty();
+        }
+        Specification<Ingredient> specification = searchByText(ingredientSearchRequest, textMatches.orElse(null));
+        return ingredientRepository.findIdSlice(specification, keyset, after, pageable.getPageSize())
+                .map(this::loadListing);
+    }
+
+    /**
+     * Loads the ingredients of the requested page of a ranking, keeping the ranking order.
+     */
+    private Page<IngredientListingElementDto> toRankedPage(TextIndex.Ranking ranking, Pageable pageable) {
+        List<Long> ids = ranking.top().stream()
+                .skip(pageable.isPaged() ? pageable.getOffset() : 0)
+                .map(scored -> (long) scored.document())
+                .toList();
+        return new PageImpl<>(loadListing(ids), pageable, ranking.totalMatches());
+    }
+
+    /**
+     * Loads ingredients by id and maps them in the order of {@code ids}.
+     */
+    private List<IngredientListingElementDto> loadListing(List<Long> ids) {
+        Map<Long, Ingredient> ingredients = new HashMap<>();
+        ingredientRepository.findAllById(ids).forEach(ingredient -> ingredients.put(ingredient.getId(), ingredient));
+        return ids.stream()
+                .map(ingredients::get)
+                .filter(Objects::nonNull)
+                .map(objectMapper::toIngredientListingElementDto)
+                .toList();
+    }
+
+    private static boolean hasAttributeFilters(IngredientSearchRequest ingredientSearchRequest) {
+        return (ingredientSearchRequest.getIds() != null && !ingredientSearchRequest.getIds().isEmpty())
+                || (ingredientSearchRequest.getName() != null && !ingredientSearchRequest.getName().isEmpty());
+    }
+
     /**
      * Deletes an ingredient by id.
      * @param id the id of the ingredient to delete
@@ -96,6 +199,7 @@ public class IngredientService {
             throw new IngredientNotFoundException(id);
         }
         ingredientRepository.deleteById(id);
+        eventPublisher.publishEvent(IngredientChangedEvent.deleted(id));
     }
 }
 
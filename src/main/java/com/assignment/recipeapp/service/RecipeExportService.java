@@ -0,0 +1,79 @@
+package com.assignment.recipeapp.service;
+
+import com.assignment.recipeapp.dto.RecipeDto;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.mapper.ObjectMapper;
+import com.assignment.recipeapp.metrics.MetricsConfiguration;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports the whole recipe catalog as NDJSON, one recipe with its ingredients per line.
+ * <p>
+ *     Recipes are read through a single database cursor and written as soon as they are read.
+ *     Every recipe and its ingredients are detached once written, so the persistence context
+ *     and the memory used by an export stay constant whatever the size of the catalog.
+ * </p>
+ */
+@Slf4j
+@Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
+@RequiredArgsConstructor
+public class RecipeExportService {
+
+    private final RecipeRepository recipeRepository;
+    private final ObjectMapper objectMapper;
+    private final com.fasterxml.jackson.databind.ObjectMapper jsonMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Writes all recipes, ordered by id.
+     *
+     * @param output receives the UTF-8 encoded recipes, it is flushed but not closed
+     * @return number of recipes written
+     */
+    @Transactional
+    public long exportRecipes(OutputStream output) {
+        long start = System.nanoTime();
+        long count = 0;
+        // the generator buffers its output, flushing after every recipe would send one packet per recipe
+        ObjectWriter writer = jsonMapper.writerFor(RecipeDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<Recipe> recipes = recipeRepository.streamAllWithIngredients();
+             JsonGenerator generator = jsonMapper.getFactory().createGenerator(output)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .setRootValueSeparator(null)) {
+            for (Iterator<Recipe> it = recipes.iterator(); it.hasNext(); count++) {
+                Recipe recipe = it.next();
+                writer.writeValue(generator, objectMapper.toRecipeDto(recipe));
+                generator.writeRaw('\n');
+                detach(recipe);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Exported {} recipes in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    private void detach(Recipe recipe) {
+        recipe.getIngredients().forEach(entityManager::detach);
+        entityManager.detach(recipe);
+    }
+}
@@ -0,0 +1,227 @@
+package com.assignment.recipeapp.service;
+
+import com.assignment.recipeapp.dto.request.RecipeImportRecord;
+import com.assignment.recipeapp.dto.response.ImportReport;
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.event.ChangeType;
+import com.assignment.recipeapp.event.IngredientChangedEvent;
+import com.assignment.recipeapp.event.RecipeChangedEvent;
+import com.assignment.recipeapp.metrics.MetricsConfiguration;
+import com.assignment.recipeapp.repository.IngredientRepository;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.service.importer.ImportFormat;
+import com.assignment.recipeapp.service.importer.ParsedRecord;
+import com.assignment.recipeapp.service.importer.RecipeRecordReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.PersistenceException;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Imports recipes from NDJSON or CSV streams of any size.
+ * <p>
+ *     Records are pulled from the stream one chunk at a time and every chunk is written in its own transaction
+ *     before the next one is read, so a slow database slows the reading down instead of letting records pile up
+ *     in memory. Ingredients are referenced by name: the ingredients of a chunk are looked up with one query
+ *     and the missing ones are created. Progress and throughput are logged while the import runs.
+ * </p>
+ */
+@Slf4j
+@Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
+@RequiredArgsConstructor
+public class RecipeImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientRepository ingredientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper jsonMapper;
+    private final Validator validator;
+
+    @Value("${recipe-app.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${recipe-app.import.progress-interval:5s}")
+    private Duration progressInterval;
+
+    /**
+     * Imports the recipes of a stream. Rejected records are reported and skipped.
+     *
+     * @param input UTF-8 encoded records, closed when the import ends
+     * @param format format of the records
+     * @return the outcome of the import
+     */
+    public ImportReport importRecipes(InputStream input, ImportFormat format) {
+        Progress progress = new Progress();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<ParsedRecord> chunk = new ArrayList<>(chunkSize);
+        try (RecipeRecordReader reader = format.open(input, jsonMapper.reader())) {
+            ParsedRecord parsed;
+            while ((parsed = reader.next()) != null) {
+                progress.read++;
+                String error = parsed.error() != null ? parsed.error() : validate(parsed.record());
+                if (error != null) {
+                    progress.fail(parsed.line(), error);
+                } else {
+                    chunk.add(parsed);
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, transaction, progress);
+                    chunk.clear();
+                }
+                progress.logIfDue();
+            }
+            writeChunk(chunk, transaction, progress);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ImportReport report = progress.report();
+        log.info("Import finished: {} records read, {} recipes created, {} rejected, {} ingredients created in {} ms ({} records/s)",
+                report.read(), report.created(), report.failed(), report.ingredientsCreated(), report.elapsedMillis(),
+                Math.round(report.recordsPerSecond()));
+        return report;
+    }
+
+    private String validate(RecipeImportRecord record) {
+        if (record == null) {
+            return "Recipe cannot be null";
+        }
+        String errors = validator.validate(record).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        return errors.isEmpty() ? null : errors;
+    }
+
+    /**
+     * Writes a chunk in its own transaction. When the database rejects the chunk, its records are reported as failed.
+     * A chunk violating a unique constraint is retried once, as a concurrent writer may have created
+     * one of its ingredients after the chunk looked them up.
+     */
+    private void writeChunk(List<ParsedRecord> chunk, TransactionTemplate transaction, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            Integer ingredientsCreated;
+            try {
+                ingredientsCreated = transaction.execute(status -> insertChunk(chunk));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Retrying import chunk starting at line {}", chunk.get(0).line(), e);
+                ingredientsCreated = transaction.execute(status -> insertChunk(chunk));
+            }
+            progress.created += chunk.size();
+            progress.ingredientsCreated += ingredientsCreated;
+        } catch (DataAccessException | PersistenceException e) {
+            String reason = "Chunk rejected by the database: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Import chunk of {} records starting at line {} failed", chunk.size(), chunk.get(0).line(), e);
+            chunk.forEach(record -> progress.fail(record.line(), reason));
+        }
+    }
+
+    /**
+     * @return number of ingredients created
+     */
+    private int insertChunk(List<ParsedRecord> chunk) {
+        Map<String, String> names = new LinkedHashMap<>();
+        for (ParsedRecord parsed : chunk) {
+            for (String name : parsed.record().getIngredients()) {
+                names.putIfAbsent(normalize(name), name.trim());
+            }
+        }
+        Map<String, Ingredient> ingredients = new HashMap<>();
+        ingredientRepository.findAllByLowerCaseNameIn(names.keySet())
+                .forEach(ingredient -> ingredients.putIfAbsent(normalize(ingredient.getName()), ingredient));
+        List<Ingredient> created = names.entrySet().stream()
+                .filter(name -> !ingredients.containsKey(name.getKey()))
+                .map(name -> new Ingredient(null, name.getValue(), new HashSet<>()))
+                .toList();
+        ingredientRepository.saveAll(created);
+        for (Ingredient ingredient : created) {
+            ingredients.put(normalize(ingredient.getName()), ingredient);
+            eventPublisher.publishEvent(IngredientChangedEvent.of(ChangeType.CREATED, ingredient));
+        }
+
+        List<Recipe> recipes = chunk.stream()
+                .map(parsed -> toRecipe(parsed.record(), ingredients))
+                .toList();
+        recipeRepository.insertAllInBatches(recipes);
+        recipes.forEach(recipe -> eventPublisher.publishEvent(RecipeChangedEvent.of(ChangeType.CREATED, recipe)));
+        return created.size();
+    }
+
+    private static Recipe toRecipe(RecipeImportRecord record, Map<String, Ingredient> ingredients) {
+        Set<Ingredient> recipeIngredients = record.getIngredients().stream()
+                .map(name -> ingredients.get(normalize(name)))
+                .collect(Collectors.toCollection(HashSet::new));
+        return new Recipe(null, record.getName(), Boolean.TRUE.equals(record.getVegetarian()),
+                record.getServings() == null ? 1 : record.getServings(), recipeIngredients,
+                record.getInstructions(), record.getDescription());
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Counters of a running import.
+     */
+    private class Progress {
+
+        private final long start = System.nanoTime();
+        private long lastLog = start;
+        private long read;
+        private long created;
+        private long failed;
+        private long ingredientsCreated;
+        private final List<ImportReport.ImportError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.ImportError(line, message));
+            }
+        }
+
+        void logIfDue() {
+            long now = System.nanoTime();
+            if (now - lastLog >= progressInterval.toNanos()) {
+                lastLog = now;
+                log.info("Importing: {} records read, {} recipes created, {} rejected ({} records/s)",
+                        read, created, failed, Math.round(recordsPerSecond(now)));
+            }
+        }
+
+        ImportReport report() {
+            long now = System.nanoTime();
+            return new ImportReport(read, created, failed, ingredientsCreated, Duration.ofNanos(now - start).toMillis(),
+                    recordsPerSecond(now), List.copyOf(errors));
+        }
+
+        private double recordsPerSecond(long now) {
+            double seconds = (now - start) / 1e9;
+            return seconds == 0 ? 0 : read / seconds;
+        }
+    }
+}
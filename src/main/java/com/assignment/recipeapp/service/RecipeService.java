@@ -1,25 +1,58 @@
 package com.assignment.recipeapp.service;
 
 import com.assignment.recipeapp.dto.RecipeDto;
+import com.assignment.recipeapp.dto.response.RecipeBatchItemResult;
+import com.assignment.recipeapp.dto.response.RecipeBatchResponse;
 import com.assignment.recipeapp.dto.response.RecipeListingElementDto;
+import com.assignment.recipeapp.dto.response.SearchExplanation;
 import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
 import com.assignment.recipeapp.dto.request.RecipeUpdateRequest;
 import com.assignment.recipeapp.entity.Ingredient;
 import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.event.ChangeType;
+import com.assignment.recipeapp.event.RecipeChangedEvent;
+import com.assignment.recipeapp.exception.BatchTooLargeException;
 import com.assignment.recipeapp.exception.IngredientNotFoundException;
 import com.assignment.recipeapp.exception.RecipeNotFoundException;
 import com.assignment.recipeapp.mapper.ObjectMapper;
+import com.assignment.recipeapp.metrics.IndexAdvisor;
+import com.assignment.recipeapp.metrics.MetricsConfiguration;
 import com.assignment.recipeapp.repository.IngredientRepository;
 import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.repository.search.CandidateIds;
+import com.assignment.recipeapp.repository.search.CursorSlice;
+import com.assignment.recipeapp.repository.search.Keyset;
+import com.assignment.recipeapp.repository.search.RelevanceSort;
+import com.assignment.recipeapp.repository.search.index.RecipeIngredientIndex;
+import com.assignment.recipeapp.repository.search.index.RecipeTextIndex;
+import com.assignment.recipeapp.repository.search.index.TextIndex;
+import com.assignment.recipeapp.service.cache.RecipeSearchCache;
+import com.assignment.recipeapp.service.cache.RecipeSearchKey;
+import com.assignment.recipeapp.service.cache.SingleFlight;
+import com.assignment.recipeapp.service.cache.VersionedKey;
+import com.assignment.recipeapp.service.cache.WriteVersions;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.transaction.Transactional;
+import javax.validation.Validator;
 import java.util.*;
+import java.util.stream.Collectors;
 
+import static com.assignment.recipeapp.repository.search.RecipeSearchSpecification.rankingFilter;
 import static com.assignment.recipeapp.repository.search.RecipeSearchSpecification.searchByText;
+import static com.assignment.recipeapp.repository.search.SearchSpecification.parseSearchTerms;
 
 /**
  * Service for Recipe entities.
@@ -29,13 +62,32 @@ import static com.assignment.recipeapp.repository.search.RecipeSearchSpecificati
  * @since 1.0
  */
 @Service
+@Timed(MetricsConfiguration.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class RecipeService {
 
+    /**
+     * Properties a cursor listing of recipes may be sorted by.
+     */
+    private static final Set<String> CURSOR_SORT_PROPERTIES = Set.of("id", "name", "servings", "vegetarian");
+
     private final RecipeRepository recipeRepository;
     private final IngredientRepository ingredientRepository;
 
     private final ObjectMapper objectMapper;
+    private final RecipeIngredientIndex recipeIngredientIndex;
+    private final RecipeTextIndex recipeTextIndex;
+    private final RecipeSearchCache recipeSearchCache;
+    private final WriteVersions writeVersions;
+    private final SingleFlight<VersionedKey<Long>, ResourceValidators.Validated<RecipeDto>> recipeReads;
+    private final SingleFlight<VersionedKey<RecipeSearchKey>, Page<RecipeListingElementDto>> recipeSearches;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final IndexAdvisor indexAdvisor;
+
+    @Value("${recipe-app.batch.max-size:10000}")
+    private int maxBatchSize;
 
     /**
      * creates a recipe
@@ -49,12 +101,92 @@ public class RecipeService {
         Recipe recipe = objectMapper.toRecipe(recipeUpdateRequest);
         recipe.setIngredients(new HashSet<>(ingredients));
         recipe = recipeRepository.save(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.of(ChangeType.CREATED, recipe));
         return objectMapper.toRecipeListingElementDto(recipe);
     }
 
     /**
-     * updates a recipe
+     * creates recipes in bulk
+     * the ingredients of all recipes are resolved with a single query and the recipes are inserted in jdbc batches
+     * invalid recipes are reported and skipped, the valid ones are created
      *
+     * @param recipeUpdateRequests the recipes to create
+     * @return the outcome of every recipe, in request order
+     */
+    @Transactional
+    public RecipeBatchResponse createRecipes(List<RecipeUpdateRequest> recipeUpdateRequests) {
+        if (recipeUpdateRequests.size() > maxBatchSize) {
+            throw new BatchTooLargeException(recipeUpdateRequests.size(), maxBatchSize);
+        }
+        Set<Long> ingredientIds = recipeUpdateRequests.stream()
+                .filter(Objects::nonNull)
+                .map(RecipeUpdateRequest::getIngredients)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .filter(Objects::nonNull)
+                .map(RecipeUpdateRequest.IngredientRequest::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Ingredient> ingredients = new HashMap<>();
+        ingredientRepository.findAllById(ingredientIds).forEach(ingredient -> ingredients.put(ingredient.getId(), ingredient));
+
+        RecipeBatchItemResult[] results = new RecipeBatchItemResult[recipeUpdateRequests.size()];
+        List<Recipe> recipes = new ArrayList<>();
+        List<Integer> recipeIndexes = new ArrayList<>();
+        for (int i = 0; i < recipeUpdateRequests.size(); i++) {
+            RecipeUpdateRequest request = recipeUpdateRequests.get(i);
+            List<String> errors = validate(request, ingredients);
+            if (!errors.isEmpty()) {
+                results[i] = RecipeBatchItemResult.failed(i, errors);
+                continue;
+            }
+            Recipe recipe = objectMapper.toRecipe(request);
+            recipe.setIngredients(request.getIngredients().stream()
+                    .map(ingredient -> ingredients.get(ingredient.getId()))
+                    .collect(Collectors.toCollection(HashSet::new)));
+            recipes.add(recipe);
+            recipeIndexes.add(i);
+        }
+
+        recipeRepository.insertAllInBatches(recipes);
+        for (int i = 0; i < recipes.size(); i++) {
+            Recipe recipe = recipes.get(i);
+            results[recipeIndexes.get(i)] = RecipeBatchItemResult.created(recipeIndexes.get(i), recipe.getId());
+            eventPublisher.publishEvent(RecipeChangedEvent.of(ChangeType.CREATED, recipe));
+        }
+        return new RecipeBatchResponse(recipes.size(), results.length - recipes.size(), List.of(results));
+    }
+
+    /**
+     * @return the reasons a recipe of a batch cannot be created, empty when it is valid
+     */
+    private List<String> validate(RecipeUpdateRequest request, Map<Long, Ingredient> ingredients) {
+        if (request == null) {
+            return List.of("Recipe cannot be null");
+        }
+        List<String> errors = validator.validate(request).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (request.getIngredients() != null) {
+            if (request.getIngredients().stream().anyMatch(Objects::isNull)) {
+                errors.add("Ingredient cannot be null");
+            }
+            request.getIngredients().stream()
+                    .filter(Objects::nonNull)
+                    .map(RecipeUpdateRequest.IngredientRequest::getId)
+                    .filter(id -> id == null || !ingredients.containsKey(id))
+                    .distinct()
+                    .map(id -> id == null ? "Ingredient id cannot be null" : new IngredientNotFoundException(id).getReason())
+                    .forEach(errors::add);
+        }
+        return errors;
+    }
+
+    /**
+     * updates a recipe
+     * the requested ingredients are resolved with a single query and every missing one is reported at once
+     * the ingredients of the recipe are changed in place, so only the added and removed join rows are written
      *
      * @param id the id of the recipe to update
      * @param recipeDto the recipe to update
@@ -62,28 +194,41 @@ public class RecipeService {
      */
     @Transactional
     public RecipeDto updateRecipe(Long id, RecipeUpdateRequest recipeDto) {
-        Recipe recipe = recipeRepository.findById(id).orElseThrow(() -> new RecipeNotFoundException(id));
+        Recipe recipe = recipeRepository.findWithIngredientsById(id).orElseThrow(() -> new RecipeNotFoundException(id));
         recipe.setName(recipeDto.getName());
         recipe.setVegetarian(recipeDto.getVegetarian());
         recipe.setServings(recipeDto.getServings());
         recipe.setInstructions(recipeDto.getInstructions());
 
-        Set<Ingredient> ingredients = new HashSet<>();
         if (recipeDto.getIngredients() != null) {
-            for (RecipeUpdateRequest.IngredientRequest ingredientDto : recipeDto.getIngredients()) {
-                Optional<Ingredient> optionalIngredient = ingredientRepository.findById(ingredientDto.getId());
-                Ingredient ingredient = optionalIngredient.orElseThrow(() -> new IngredientNotFoundException(ingredientDto.getId()));
-                ingredients.add(ingredient);
-            }
-            recipe.setIngredients(ingredients);
+            Set<Ingredient> ingredients = findIngredients(recipeDto.getIngredients());
+            // replacing the collection would make Hibernate delete and re-insert every join row
+            recipe.getIngredients().retainAll(ingredients);
+            recipe.getIngredients().addAll(ingredients);
         }
 
-
         recipe = recipeRepository.save(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.of(ChangeType.UPDATED, recipe));
         return objectMapper.toRecipeDto(recipe);
 
     }
 
+    /**
+     * @return the requested ingredients
+     * @throws IngredientNotFoundException listing every requested id that does not exist
+     */
+    private Set<Ingredient> findIngredients(List<RecipeUpdateRequest.IngredientRequest> ingredientRequests) {
+        Set<Long> ids = ingredientRequests.stream()
+                .map(RecipeUpdateRequest.IngredientRequest::getId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Ingredient> ingredients = new HashSet<>(ingredientRepository.findAllById(ids));
+        if (ingredients.size() < ids.size()) {
+            Set<Long> found = ingredients.stream().map(Ingredient::getId).collect(Collectors.toSet());
+            throw new IngredientNotFoundException(ids.stream().filter(ingredientId -> !found.contains(ingredientId)).toList());
+        }
+        return ingredients;
+    }
+
     /**
      * deletes a recipe
      *
@@ -92,31 +237,204 @@ public class RecipeService {
     public void deleteRecipe(Long id) {
         Recipe recipe = recipeRepository.findById(id).orElseThrow(() -> new RecipeNotFoundException(id));
         recipeRepository.delete(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.deleted(id));
     }
 
     /**
      * gets a recipe
+     * concurrent calls for the same recipe share a single read
+     * the recipe and its ingredients come from the second-level cache when it holds them, otherwise from one statement
      *
      * @param id the id of the recipe to get
      * @return the recipe
      */
     public RecipeDto getRecipe(Long id) {
-        Recipe recipe = recipeRepository.findById(id).orElseThrow(() -> new RecipeNotFoundException(id));
-        return objectMapper.toRecipeDto(recipe);
+        return getValidatedRecipe(id).body();
+    }
+
+    /**
+     * gets a recipe with the validator of the recipe loaded, for the ETag and Last-Modified headers of its response
+     *
+     * @param id the id of the recipe to get
+     * @return the recipe and its validator
+     */
+    public ResourceValidators.Validated<RecipeDto> getValidatedRecipe(Long id) {
+        return recipeReads.get(VersionedKey.of(id, writeVersions), () -> readOnly().execute(status -> {
+            Recipe recipe = recipeRepository.findCachedWithIngredientsById(id).orElseThrow(() -> new RecipeNotFoundException(id));
+            return new ResourceValidators.Validated<>(objectMapper.toRecipeDto(recipe), ResourceValidators.of(recipe));
+        }));
     }
 
     /**
      * searches recipes
      * this method is used to search recipes by vegetarian, servings and ingredients
      * it uses the Specification pattern to build the query dynamically based on the search criteria
+     * the search text and ingredient filters are resolved by the in-memory indexes when they are loaded
+     * with sort=relevance the matches are ranked by the text index, best first
+     * a page costs a constant number of queries: the ids of the page, the count and the recipes with their ingredients
+     * pages are cached until a write changes them, and concurrent identical searches missing the cache share a single
+     * search, the transaction is only opened by the search actually run
      *
      * @param criteria the search criteria
      * @return the recipes
      */
-    @Transactional
     public Page<RecipeListingElementDto> searchRecipes(RecipeSearchRequest recipeSearchRequest, Pageable pageable) {
-        return recipeRepository.findAll(searchByText(recipeSearchRequest), pageable)
-                .map(objectMapper::toRecipeListingElementDto);
+        return recipeSearchCache.get(recipeSearchRequest, pageable, () -> recipeSearches.get(
+                VersionedKey.of(RecipeSearchKey.of(recipeSearchRequest, pageable), writeVersions),
+                () -> readOnly().execute(
+                        status -> searchRecipes(recipeSearchRequest, pageable, SearchTrace.none()))));
+    }
+
+    /**
+     * runs a recipe search and explains how it was run
+     * the search is the same as {@link #searchRecipes(RecipeSearchRequest, Pageable)}, bypassing the cache and recording the parsed terms,
+     * how the filters were resolved, the predicate of the queries, the candidate counts and the stage durations
+     *
+     * @param recipeSearchRequest the search criteria
+     * @param pageable the page and sort order
+     * @return the explanation of the search
+     */
+    @Transactional
+    public SearchExplanation explainSearch(RecipeSearchRequest recipeSearchRequest, Pageable pageable) {
+        SearchTrace<Recipe> trace = SearchTrace.recording();
+        Page<RecipeListingElementDto> page = searchRecipes(recipeSearchRequest, pageable, trace);
+        return trace.explain(parseSearchTerms(recipeSearchRequest.getSearchText()), recipeRepository::describe,
+                page.getTotalElements(), page.getNumberOfElements());
+    }
+
+    private Page<RecipeListingElementDto> searchRecipes(RecipeSearchRequest recipeSearchRequest, Pageable pageable,
+                                                        SearchTrace<Recipe> trace) {
+        Set<String> searchTerms = trace.stage("parse search terms", () -> parseSearchTerms(recipeSearchRequest.getSearchText()));
+        Optional<CandidateIds> textMatches = trace.stage("text index", () -> recipeTextIndex.match(searchTerms));
+        Optional<CandidateIds> ingredientMatches = trace.stage("ingredient index", () -> recipeIngredientIndex.match(
+                recipeSearchRequest.getIncludeIngredients(), recipeSearchRequest.getExcludeIngredients()));
+        if (!searchTerms.isEmpty()) {
+            trace.indexFilter("searchText", textMatches);
+        }
+        if (hasIngredientFilters(recipeSearchRequest)) {
+            trace.indexFilter("ingredients", ingredientMatches);
+        }
+        if (textMatches.isPresent() && ingredientMatches.isPresent()) {
+            trace.candidates("searchText and ingredients", () -> textMatches.get().and(ingredientMatches.get()).size());
+        }
+        if (textMatches.filter(CandidateIds::isEmpty).isPresent() || ingredientMatches.filter(CandidateIds::isEmpty).isPresent()) {
+            trace.path(SearchExplanation.ExecutionPath.EMPTY);
+            return Page.empty(pageable);
+        }
+        Specification<Recipe> specification = searchByText(recipeSearchRequest, textMatches.orElse(null), ingredientMatches.orElse(null));
+        if (RelevanceSort.isRequested(pageable) && textMatches.isPresent()) {
+            RoaringBitmap filter = null;
+            if (hasAttributeFilters(recipeSearchRequest)) {
+                // the ranking only keeps text matches, the query does not match the search text again
+                Specification<Recipe> filterSpecification = rankingFilter(recipeSearchRequest, textMatches.get(),
+                        ingredientMatches.orElse(null));
+                trace.specification(filterSpecification);
+                sample(recipeSearchRequest, Sort.unsorted(), trace);
+                filter = trace.stage("filter query", () -> CandidateIds.toBitmap(recipeRepository.findIds(filterSpecification)));
+                trace.candidates("filter query", filter::getCardinality);
+            } else if (ingredientMatches.isPresent()) {
+                filter = ingredientMatches.get().toBitmap();
+            }
+            RoaringBitmap rankingFilter = filter;
+            Optional<TextIndex.Ranking> ranking = trace.stage("ranking",
+                    () -> recipeTextIndex.rank(searchTerms, rankingFilter, RelevanceSort.limit(pageable)));
+            if (ranking.isPresent()) {
+                trace.path(SearchExplanation.ExecutionPath.RANKED);
+                trace.candidates("ranking", () -> ranking.get().totalMatches());
+                return trace.stage("load recipes", () -> toRankedPage(ranking.get(), pageable));
+            }
+        }
+        trace.path(SearchExplanation.ExecutionPath.SQL);
+        trace.specification(specification);
+        sample(recipeSearchRequest, RelevanceSort.without(pageable).getSort(), trace);
+        Page<Long> ids = trace.stage("id page query", () -> recipeRepository.findIdPage(specification, RelevanceSort.without(pageable)));
+        trace.candidates("id page query", ids::getTotalElements);
+        return trace.stage("load recipes", () -> new PageImpl<>(loadListing(ids.getContent()), pageable, ids.getTotalElements()));
+    }
+
+    /**
+     * Samples the columns of a search for the index advisor, leaving out explained searches, which support staff
+     * repeat while investigating and which would otherwise skew the advice towards them.
+     */
+    private void sample(RecipeSearchRequest recipeSearchRequest, Sort sort, SearchTrace<Recipe> trace) {
+        if (!trace.isRecording()) {
+            indexAdvisor.sample(recipeSearchRequest, sort);
+        }
+    }
+
+    /**
+     * lists recipes with a cursor instead of a page number
+     * each slice continues after the last recipe of the previous one, so deep slices cost the same as the first
+     * and no total count is computed
+     *
+     * @param recipeSearchRequest the search criteria
+     * @param after the cursor returned with the previous slice, null for the first slice
+     * @param pageable the slice size and the sort order, a single property among id, name, servings and vegetarian
+     * @return the recipes and the cursor of the next slice
+     */
+    @Transactional
+    public CursorSlice<RecipeListingElementDto> scrollRecipes(RecipeSearchRequest recipeSearchRequest, String after, Pageable pageable) {
+        Keyset keyset = Keyset.of(pageable.getSort(), CURSOR_SORT_PROPERTIES);
+        Optional<CandidateIds> textMatches = recipeTextIndex.match(parseSearchTerms(recipeSearchRequest.getSearchText()));
+        Optional<CandidateIds> ingredientMatches = recipeIngredientIndex.match(
+                recipeSearchRequest.getIncludeIngredients(), recipeSearchRequest.getExcludeIngredients());
+        if (textMatches.filter(CandidateIds::isEmpty).isPresent() || ingredientMatches.filter(CandidateIds::isEmpty).isPresent()) {
+            return CursorSlice.empty();
+        }
+        Specification<Recipe> specification = searchByText(recipeSearchRequest, textMatches.orElse(null), ingredientMatches.orElse(null));
+        indexAdvisor.sample(recipeSearchRequest, pageable.getSort());
+        return recipeRepository.findIdSlice(specification, keyset, after, pageable.getPageSize())
+                .map(this::loadListing);
+    }
+
+    /**
+     * Loads the recipes of the requested page of a ranking, keeping the ranking order.
+     */
+    private Page<RecipeListingElementDto> toRankedPage(TextIndex.Ranking ranking, Pageable pageable) {
+        List<Long> ids = ranking.top().stream()
+                .skip(pageable.isPaged() ? pageable.getOffset() : 0)
+                .map(scored -> (long) scored.document())
+                .toList();
+        return new PageImpl<>(loadListing(ids), pageable, ranking.totalMatches());
+    }
+
+    /**
+     * Loads recipes with their ingredients in a single query and maps them in the order of {@code ids}.
+     */
+    private List<RecipeListingElementDto> loadListing(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Recipe> recipes = new HashMap<>();
+        recipeRepository.findAllWithIngredientsByIdIn(ids).forEach(recipe -> recipes.put(recipe.getId(), recipe));
+        return ids.stream()
+                .map(recipes::get)
+                .filter(Objects::nonNull)
+                .map(objectMapper::toRecipeListingElementDto)
+                .toList();
+    }
+
+    /**
+     * @return a read-only transaction, opened by the coalesced reads that actually run
+     */
+    private TransactionTemplate readOnly() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction;
+    }
+
+    private static boolean hasIngredientFilters(RecipeSearchRequest recipeSearchRequest) {
+        return (recipeSearchRequest.getIncludeIngredients() != null && !recipeSearchRequest.getIncludeIngredients().isEmpty())
+                || (recipeSearchRequest.getExcludeIngredients() != null && !recipeSearchRequest.getExcludeIngredients().isEmpty());
+    }
+
+    /**
+     * @return true when the search filters on recipe columns, which only the database can evaluate
+     */
+    private static boolean hasAttributeFilters(RecipeSearchRequest recipeSearchRequest) {
+        return (recipeSearchRequest.getName() != null && !recipeSearchRequest.getName().isEmpty())
+                || recipeSearchRequest.getVegetarian() != null
+                || recipeSearchRequest.getServings() != null;
     }
 
 }
@@ -0,0 +1,131 @@
+package com.assignment.recipeapp.service;
+
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.repository.IngredientRepository;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.repository.RecipeVersion;
+import com.assignment.recipeapp.service.cache.WriteVersions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Validators of the representations of recipes and ingredients, for conditional requests.
+ * <p>
+ *     A recipe is identified by its version and the versions of its ingredients, whose names it shows, read by a
+ *     single aggregate query without loading the recipe. An ingredient is identified by its version. Hibernate
+ *     increments the versions with every update, so the ETags are strong.
+ * </p>
+ * <p>
+ *     Listings are identified by the {@link WriteVersions}, which change with every committed write through the
+ *     services, and by an epoch renewed on startup, as the write versions start again from zero. They cost no query.
+ * </p>
+ * <p>
+ *     The validators of conditional requests are read before the response is computed, so the response is at least as
+ *     recent as its validator. Unconditional requests take the validators of the recipe or ingredient they load,
+ *     which costs no query when it comes from the second-level cache.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class ResourceValidators {
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientRepository ingredientRepository;
+    private final WriteVersions writeVersions;
+
+    private volatile String epoch = newEpoch();
+
+    /**
+     * @param etag the strong entity tag, quoted
+     * @param lastModified the last modification, null when unknown
+     */
+    public record Validator(String etag, Instant lastModified) {
+    }
+
+    /**
+     * A representation and its validator.
+     *
+     * @param body the representation
+     * @param validator the validator of the entity the representation was mapped from
+     */
+    public record Validated<T>(T body, Validator validator) {
+    }
+
+    /**
+     * @param recipe a recipe with its ingredients
+     * @return the validator of the recipe, the same {@link #recipe(Long)} reads
+     */
+    public static Validator of(Recipe recipe) {
+        long ingredientVersions = 0;
+        Instant lastModified = recipe.getLastModified();
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            ingredientVersions += ingredient.getVersion();
+            if (ingredient.getLastModified().isAfter(lastModified)) {
+                lastModified = ingredient.getLastModified();
+            }
+        }
+        return new Validator(etag(recipe.getVersion() + "-" + ingredientVersions), lastModified);
+    }
+
+    /**
+     * @param ingredient an ingredient
+     * @return the validator of the ingredient, the same {@link #ingredient(Long)} reads
+     */
+    public static Validator of(Ingredient ingredient) {
+        return new Validator(etag(String.valueOf(ingredient.getVersion())), ingredient.getLastModified());
+    }
+
+    /**
+     * @param id the id of a recipe
+     * @return the validator of the recipe, empty when it does not exist
+     */
+    public Optional<Validator> recipe(Long id) {
+        return recipeRepository.findVersionById(id).map(version -> new Validator(
+                etag(version.getVersion() + "-" + version.getIngredientVersions()), lastModified(version)));
+    }
+
+    /**
+     * @param id the id of an ingredient
+     * @return the validator of the ingredient, empty when it does not exist
+     */
+    public Optional<Validator> ingredient(Long id) {
+        return ingredientRepository.findVersionById(id).map(version -> new Validator(
+                etag(String.valueOf(version.getVersion())), version.getLastModified()));
+    }
+
+    /**
+     * @return the validator of every recipe listing, whatever its criteria and page
+     */
+    public Validator recipeListing() {
+        WriteVersions.Snapshot versions = writeVersions.snapshot();
+        return new Validator(etag(epoch + "-" + versions.recipes() + "-" + versions.ingredients()), null);
+    }
+
+    /**
+     * Renews the epoch once the application is ready, as the data may have been loaded without change events until then.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void renewEpoch() {
+        epoch = newEpoch();
+    }
+
+    private static Instant lastModified(RecipeVersion version) {
+        Instant ingredients = version.getIngredientsLastModified();
+        return ingredients != null && ingredients.isAfter(version.getLastModified()) ? ingredients : version.getLastModified();
+    }
+
+    private static String etag(String value) {
+        return '"' + value + '"';
+    }
+
+    private static String newEpoch() {
+        return Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+    }
+}
@@ -0,0 +1,142 @@
+package com.assignment.recipeapp.service;
+
+import com.assignment.recipeapp.dto.response.SearchExplanation;
+import com.assignment.recipeapp.dto.response.SearchExplanation.Candidates;
+import com.assignment.recipeapp.dto.response.SearchExplanation.ExecutionPath;
+import com.assignment.recipeapp.dto.response.SearchExplanation.FilterResolution;
+import com.assignment.recipeapp.dto.response.SearchExplanation.Stage;
+import com.assignment.recipeapp.repository.search.CandidateIds;
+import com.assignment.recipeapp.repository.search.PredicateTree;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Records the stages, filters and candidate counts of a search as it runs, to explain it afterwards.
+ * <p>
+ *     Searches that are not explained run with {@link #none()}, which records nothing, so that explanations
+ *     always describe the code path of the real searches.
+ * </p>
+ *
+ * @param <T> the searched entity
+ */
+final class SearchTrace<T> {
+
+    private static final SearchTrace<?> NONE = new SearchTrace<>(false);
+
+    private final boolean recording;
+    private final Map<String, FilterResolution> filters = new LinkedHashMap<>();
+    private final List<Candidates> candidates = new ArrayList<>();
+    private final List<Stage> stages = new ArrayList<>();
+    private final long startedAt = System.nanoTime();
+    private ExecutionPath path;
+    private Specification<T> specification;
+
+    private SearchTrace(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * @return a trace recording nothing
+     */
+    @SuppressWarnings("unchecked")
+    static <T> SearchTrace<T> none() {
+        return (SearchTrace<T>) NONE;
+    }
+
+    /**
+     * @return a trace recording the search from now on
+     */
+    static <T> SearchTrace<T> recording() {
+        return new SearchTrace<>(true);
+    }
+
+    /**
+     * @return whether the search is explained rather than served
+     */
+    boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Runs a stage of the search, timing it when recording.
+     */
+    <R> R stage(String name, Supplier<R> stage) {
+        if (!recording) {
+            return stage.get();
+        }
+        long started = System.nanoTime();
+        try {
+            return stage.get();
+        } finally {
+            stages.add(new Stage(name, millis(System.nanoTime() - started)));
+        }
+    }
+
+    /**
+     * Records how an index resolved a requested filter.
+     *
+     * @param filter the filter
+     * @param matches the candidates of the index, empty when the index is not loaded
+     */
+    void indexFilter(String filter, Optional<CandidateIds> matches) {
+        if (!recording) {
+            return;
+        }
+        if (matches.isEmpty()) {
+            filters.put(filter, FilterResolution.SQL);
+            return;
+        }
+        if (candidates.isEmpty()) {
+            candidates.add(new Candidates("indexed", matches.get().universeSize()));
+        }
+        filters.put(filter, matches.get().fitsInList() ? FilterResolution.INDEX : FilterResolution.INDEX_TOO_MANY_IDS);
+        candidates.add(new Candidates(filter, matches.get().size()));
+    }
+
+    /**
+     * Records the number of recipes matching a filter, or a combination of filters.
+     */
+    void candidates(String filter, LongSupplier count) {
+        if (recording) {
+            candidates.add(new Candidates(filter, count.getAsLong()));
+        }
+    }
+
+    void path(ExecutionPath path) {
+        if (recording) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * Records the specification of the database queries.
+     */
+    void specification(Specification<T> specification) {
+        if (recording) {
+            this.specification = specification;
+        }
+    }
+
+    /**
+     * @param terms the terms parsed from the search text
+     * @param describe renders the specification of the database queries
+     * @param totalMatches number of matches of the search
+     * @param returned number of matches in the page
+     * @return the explanation of the search
+     */
+    SearchExplanation explain(Set<String> terms, Function<Specification<T>, PredicateTree> describe,
+                              long totalMatches, int returned) {
+        double elapsedMillis = millis(System.nanoTime() - startedAt);
+        return new SearchExplanation(new TreeSet<>(terms), path, filters,
+                specification == null ? null : describe.apply(specification),
+                candidates, stages, totalMatches, returned, elapsedMillis);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
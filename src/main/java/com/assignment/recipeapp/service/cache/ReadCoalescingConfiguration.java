@@ -0,0 +1,27 @@
+package com.assignment.recipeapp.service.cache;
+
+import com.assignment.recipeapp.dto.RecipeDto;
+import com.assignment.recipeapp.dto.response.RecipeListingElementDto;
+import com.assignment.recipeapp.service.ResourceValidators;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+
+/**
+ * Coalescing of the reads hit by bursts of identical requests, see {@link SingleFlight}.
+ * The number of executed and coalesced calls of each is exposed as recipeapp.coalescing.calls.
+ */
+@Configuration
+public class ReadCoalescingConfiguration {
+
+    @Bean
+    public SingleFlight<VersionedKey<Long>, ResourceValidators.Validated<RecipeDto>> recipeReads(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("recipe", meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<VersionedKey<RecipeSearchKey>, Page<RecipeListingElementDto>> recipeSearches(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("recipe-search", meterRegistry);
+    }
+}
@@ -0,0 +1,168 @@
+package com.assignment.recipeapp.service.cache;
+
+import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
+import com.assignment.recipeapp.dto.response.RecipeListingElementDto;
+import com.assignment.recipeapp.repository.search.index.RecipeIngredientIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cache of recipe search pages, keyed by the normalized search and page.
+ * <p>
+ *     A page is served from the cache only while the data it was computed from is unchanged: no recipe was written
+ *     since, and no ingredient was changed among those listed in the page, or among all ingredients when the search
+ *     filters by ingredient name or search text. The {@link WriteVersions} tell which. Entries also expire after a
+ *     fixed time to live, which bounds how long writes bypassing the services go unnoticed, and the least recently
+ *     used entries are evicted beyond the maximum size.
+ * </p>
+ * <p>
+ *     A page computed while a write was committed is not cached. Cached pages are shared and must not be modified.
+ * </p>
+ */
+@Component
+public class RecipeSearchCache {
+
+    static final String METRIC = "recipeapp.search.cache";
+
+    private final WriteVersions writeVersions;
+    private final RecipeIngredientIndex recipeIngredientIndex;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoClock;
+    private final Map<RecipeSearchKey, CachedPage> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * @param timeToLive how long a page is reused at most, zero disables the cache
+     * @param maxSize maximum number of cached pages
+     */
+    @Autowired
+    public RecipeSearchCache(WriteVersions writeVersions, RecipeIngredientIndex recipeIngredientIndex, MeterRegistry meterRegistry,
+                             @Value("${recipe-app.search.cache.time-to-live:60s}") Duration timeToLive,
+                             @Value("${recipe-app.search.cache.max-size:1000}") int maxSize) {
+        this(writeVersions, recipeIngredientIndex, meterRegistry, timeToLive, maxSize, System::nanoTime);
+    }
+
+    RecipeSearchCache(WriteVersions writeVersions, RecipeIngredientIndex recipeIngredientIndex, MeterRegistry meterRegistry,
+                      Duration timeToLive, int maxSize, LongSupplier nanoClock) {
+        this.writeVersions = writeVersions;
+        this.recipeIngredientIndex = recipeIngredientIndex;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoClock = nanoClock;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RecipeSearchKey, CachedPage> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = Counter.builder(METRIC).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(METRIC).tag("result", "miss").register(meterRegistry);
+        meterRegistry.gauge(METRIC + ".size", this, RecipeSearchCache::size);
+    }
+
+    /**
+     * Returns the cached page of a search, or runs the search and caches its page.
+     * Unpaged searches are never cached.
+     *
+     * @param request the search criteria
+     * @param pageable the page and sort order
+     * @param search runs the search
+     * @return the page
+     */
+    public Page<RecipeListingElementDto> get(RecipeSearchRequest request, Pageable pageable,
+                                             Supplier<Page<RecipeListingElementDto>> search) {
+        if (timeToLiveNanos <= 0 || pageable.isUnpaged()) {
+            return search.get();
+        }
+        RecipeSearchKey key = RecipeSearchKey.of(request, pageable);
+        WriteVersions.Snapshot versions = writeVersions.snapshot();
+        CachedPage cached = get(key, versions);
+        if (cached != null) {
+            hits.increment();
+            return cached.page();
+        }
+        misses.increment();
+        Page<RecipeListingElementDto> page = search.get();
+        Map<Long, Long> ingredientVersions = key.dependsOnIngredientNames() ? Map.of() : ingredientVersions(page);
+        if (ingredientVersions != null && versions.equals(writeVersions.snapshot())) {
+            put(key, new CachedPage(page, versions, ingredientVersions, nanoClock.getAsLong() + timeToLiveNanos));
+        }
+        return page;
+    }
+
+    /**
+     * Forgets all cached pages.
+     * Called once the application is ready, as the data may have been loaded without change events until then.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void invalidateAll() {
+        cache.clear();
+    }
+
+    synchronized int size() {
+        return cache.size();
+    }
+
+    private synchronized CachedPage get(RecipeSearchKey key, WriteVersions.Snapshot versions) {
+        CachedPage cached = cache.get(key);
+        if (cached != null && (nanoClock.getAsLong() - cached.expiresAt() >= 0 || isStale(key, cached, versions))) {
+            cache.remove(key);
+            return null;
+        }
+        return cached;
+    }
+
+    private synchronized void put(RecipeSearchKey key, CachedPage page) {
+        cache.put(key, page);
+    }
+
+    private boolean isStale(RecipeSearchKey key, CachedPage cached, WriteVersions.Snapshot versions) {
+        if (cached.versions().recipes() != versions.recipes()) {
+            return true;
+        }
+        if (cached.versions().ingredients() == versions.ingredients()) {
+            return false;
+        }
+        return key.dependsOnIngredientNames() || cached.ingredientVersions().entrySet().stream()
+                .anyMatch(ingredient -> writeVersions.ingredient(ingredient.getKey()) != ingredient.getValue());
+    }
+
+    /**
+     * @return the versions of the ingredients listed in the page, or null when they are not known yet
+     */
+    private Map<Long, Long> ingredientVersions(Page<RecipeListingElementDto> page) {
+        Optional<Set<Long>> ingredientIds = recipeIngredientIndex.ingredientIdsOf(
+                page.getContent().stream().map(RecipeListingElementDto::id).toList());
+        if (ingredientIds.isEmpty()) {
+            return null;
+        }
+        Map<Long, Long> versions = new HashMap<>();
+        ingredientIds.get().forEach(ingredientId -> versions.put(ingredientId, writeVersions.ingredient(ingredientId)));
+        return versions;
+    }
+
+    /**
+     * @param versions the write versions read before the search ran
+     * @param ingredientVersions the versions of the ingredients listed in the page, empty when the page depends on
+     *                           all ingredients
+     */
+    private record CachedPage(Page<RecipeListingElementDto> page, WriteVersions.Snapshot versions,
+                              Map<Long, Long> ingredientVersions, long expiresAt) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.assignment.recipeapp.service.cache;
+
+import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import static com.assignment.recipeapp.repository.search.SearchSpecification.parseSearchTerms;
+
+/**
+ * Normalized recipe search and page, so that searches returning the same page share a cache entry.
+ * <p>
+ *     The search text is reduced to its parsed terms, and the names and ingredient filters to sorted lists without
+ *     blanks or duplicates, as the search ignores their order and repetitions. Unpaged searches have a page and
+ *     size of -1.
+ * </p>
+ */
+public record RecipeSearchKey(
+        List<String> names,
+        Boolean vegetarian,
+        Integer servings,
+        List<String> includeIngredients,
+        List<String> excludeIngredients,
+        List<String> searchTerms,
+        int page,
+        int size,
+        Sort sort
+) {
+
+    public static RecipeSearchKey of(RecipeSearchRequest request, Pageable pageable) {
+        return new RecipeSearchKey(
+                normalize(request.getName()),
+                request.getVegetarian(),
+                request.getServings(),
+                normalize(request.getIncludeIngredients()),
+                normalize(request.getExcludeIngredients()),
+                normalize(parseSearchTerms(request.getSearchText())),
+                pageable.isPaged() ? pageable.getPageNumber() : -1,
+                pageable.isPaged() ? pageable.getPageSize() : -1,
+                pageable.getSort());
+    }
+
+    /**
+     * @return true when the results depend on the names of all ingredients, not only on those of the recipes shown
+     */
+    boolean dependsOnIngredientNames() {
+        return !includeIngredients.isEmpty() || !excludeIngredients.isEmpty() || !searchTerms.isEmpty();
+    }
+
+    private static List<String> normalize(Collection<String> values) {
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream()
+                .filter(Objects::nonNull)
+                .filter(value -> !value.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,95 @@
+package com.assignment.recipeapp.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads: while a read of a key is running, further reads of the same key wait for
+ * its result instead of running their own.
+ * <p>
+ *     Only calls overlapping in time share a result, nothing is kept once the running read completes. The first
+ *     call of a key registers its read with a single {@link ConcurrentHashMap#putIfAbsent}, the following ones find
+ *     it with a plain {@link ConcurrentHashMap#get}, so calls take no lock of their own. Failures are rethrown to
+ *     every waiting call.
+ * </p>
+ * <p>
+ *     Keys must identify the data read as well as the query, see {@link VersionedKey}, so that a call made after
+ *     a write never receives the result of a read started before it.
+ * </p>
+ *
+ * @param <K> the key of the reads
+ * @param <V> the result of the reads
+ */
+public class SingleFlight<K, V> {
+
+    static final String METRIC = "recipeapp.coalescing.calls";
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    /**
+     * @param name the name of the reads, tagging their metrics
+     */
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder(METRIC).tag("name", name).tag("result", "executed").register(meterRegistry);
+        this.coalesced = Counter.builder(METRIC).tag("name", name).tag("result", "coalesced").register(meterRegistry);
+    }
+
+    /**
+     * Runs a read, or waits for the identical read already running.
+     *
+     * @param key the key of the read
+     * @param read runs the read
+     * @return the result of the read
+     */
+    public V get(K key, Supplier<V> read) {
+        CompletableFuture<V> running = inFlight.get(key);
+        if (running == null) {
+            CompletableFuture<V> own = new CompletableFuture<>();
+            running = inFlight.putIfAbsent(key, own);
+            if (running == null) {
+                return run(key, own, read);
+            }
+        }
+        coalesced.increment();
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private V run(K key, CompletableFuture<V> own, Supplier<V> read) {
+        executed.increment();
+        try {
+            V result = read.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable failure) {
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        return failure instanceof RuntimeException runtimeException
+                ? runtimeException
+                : new IllegalStateException(failure);
+    }
+}
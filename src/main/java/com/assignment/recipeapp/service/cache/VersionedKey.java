@@ -0,0 +1,19 @@
+package com.assignment.recipeapp.service.cache;
+
+/**
+ * Key of a read together with the write versions it starts from.
+ * <p>
+ *     Two reads share the key only if no write was committed between their starts, so a read coalesced by a
+ *     {@link SingleFlight} always receives a result at least as recent as the writes committed before it started.
+ * </p>
+ *
+ * @param key the key of the read
+ * @param versions the write versions when the read started
+ * @param <K> the key of the read
+ */
+public record VersionedKey<K>(K key, WriteVersions.Snapshot versions) {
+
+    public static <K> VersionedKey<K> of(K key, WriteVersions writeVersions) {
+        return new VersionedKey<>(key, writeVersions.snapshot());
+    }
+}
@@ -0,0 +1,78 @@
+package com.assignment.recipeapp.service.cache;
+
+import com.assignment.recipeapp.event.ChangeType;
+import com.assignment.recipeapp.event.IngredientChangedEvent;
+import com.assignment.recipeapp.event.RecipeChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions of the data search results depend on, bumped after every committed write.
+ * <p>
+ *     The recipe version changes with every recipe created, updated or deleted. The ingredient version changes with
+ *     every ingredient updated or deleted, together with the version of that ingredient. Creating an ingredient
+ *     changes no search result, as no recipe uses it yet.
+ * </p>
+ * <p>
+ *     Versions are bumped by the change events of the services, after commit and after the search indexes have
+ *     applied them, so a result computed before a bump was read from data at most as recent as the write.
+ * </p>
+ */
+@Component
+public class WriteVersions {
+
+    /**
+     * Order of the listeners, after those of the search indexes and before the change feed.
+     */
+    static final int LISTENER_ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    private final AtomicLong recipes = new AtomicLong();
+    private final AtomicLong ingredients = new AtomicLong();
+    private final Map<Long, Long> ingredientVersions = new ConcurrentHashMap<>();
+
+    /**
+     * @return the current recipe and ingredient versions
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(recipes.get(), ingredients.get());
+    }
+
+    /**
+     * @param ingredientId an ingredient id
+     * @return the version of the ingredient
+     */
+    public long ingredient(Long ingredientId) {
+        return ingredientVersions.getOrDefault(ingredientId, 0L);
+    }
+
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        recipes.incrementAndGet();
+    }
+
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        if (event.changeType() == ChangeType.CREATED) {
+            return;
+        }
+        // the global version first: a search reading the new version of the ingredient then reads the new global
+        // version too, and its page is not cached
+        ingredients.incrementAndGet();
+        ingredientVersions.merge(event.ingredientId(), 1L, Long::sum);
+    }
+
+    /**
+     * @param recipes the recipe version
+     * @param ingredients the ingredient version
+     */
+    public record Snapshot(long recipes, long ingredients) {
+    }
+}
@@ -0,0 +1,257 @@
+package com.assignment.recipeapp.service.changes;
+
+import com.assignment.recipeapp.dto.response.ChangeEvent;
+import com.assignment.recipeapp.event.ChangeType;
+import com.assignment.recipeapp.event.IngredientChangedEvent;
+import com.assignment.recipeapp.event.RecipeChangedEvent;
+import com.assignment.recipeapp.exception.TooManySubscribersException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feed of the committed changes of recipes and ingredients, streamed to subscribers by GET /api/changes.
+ * <p>
+ *     Every change event of the services is numbered after commit, after the search caches were invalidated, so a
+ *     subscriber reading a changed recipe reads it at least as recent as the change. The last changes are retained, and
+ *     a subscriber resuming after a sequence is first sent those it missed. A subscriber resuming after a sequence the
+ *     feed does not retain, or does not know, is sent a resync instead.
+ * </p>
+ * <p>
+ *     Without a {@link ChangeJournal}, the last changes are retained in memory and sequences start over when the
+ *     application restarts. With one, every change is appended to the journal before it is sent, sequences continue
+ *     from the last change journaled, and subscribers resuming read the journal.
+ * </p>
+ * <p>
+ *     Publishing never waits for a subscriber: each has a bounded buffer, drained by a sender thread of its own while
+ *     it has messages. A subscriber whose buffer is full loses its buffered changes and is sent a resync, see
+ *     {@link ChangeSubscriber}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ChangeFeed {
+
+    static final String METRIC = "recipeapp.changes";
+
+    /**
+     * Order of the listeners, after those bumping the write versions.
+     */
+    static final int LISTENER_ORDER = Ordered.LOWEST_PRECEDENCE;
+
+    private final int historySize;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final ChangeJournal journal;
+    private final Executor senders;
+    private final ScheduledExecutorService heartbeats;
+    private final Counter overflows;
+    private final Counter expired;
+    private final Set<ChangeSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // guarded by this, as is the sequence
+    private final Deque<ChangeEvent> history = new ArrayDeque<>();
+    private long sequence;
+
+    /**
+     * @param historySize number of last changes retained for subscribers resuming
+     * @param bufferSize number of changes buffered per subscriber before it is resynced
+     * @param maxSubscribers maximum number of subscribers
+     * @param heartbeat interval of the heartbeats sent to subscribers, zero disables them
+     */
+    @Autowired
+    public ChangeFeed(MeterRegistry meterRegistry, Optional<ChangeJournal> journal,
+                      @Value("${recipe-app.changes.history:10000}") int historySize,
+                      @Value("${recipe-app.changes.buffer-size:1000}") int bufferSize,
+                      @Value("${recipe-app.changes.max-subscribers:100}") int maxSubscribers,
+                      @Value("${recipe-app.changes.heartbeat:15s}") Duration heartbeat) {
+        this(meterRegistry, journal.orElse(null), historySize, bufferSize, maxSubscribers, heartbeat,
+                Executors.newCachedThreadPool(daemonThreads("change-feed-")));
+    }
+
+    ChangeFeed(MeterRegistry meterRegistry, ChangeJournal journal, int historySize, int bufferSize, int maxSubscribers,
+               Duration heartbeat, Executor senders) {
+        this.journal = journal;
+        this.sequence = journal == null ? 0 : journal.lastSequence();
+        this.historySize = journal == null ? historySize : 0;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.senders = senders;
+        this.overflows = Counter.builder(METRIC + ".resyncs").tag("reason", "overflow").register(meterRegistry);
+        this.expired = Counter.builder(METRIC + ".resyncs").tag("reason", "expired").register(meterRegistry);
+        meterRegistry.gaugeCollectionSize(METRIC + ".subscribers", Tags.empty(), subscribers);
+        if (heartbeat.isZero()) {
+            this.heartbeats = null;
+        } else {
+            this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("change-feed-heartbeat-"));
+            this.heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Subscribes to the changes published from now on.
+     *
+     * @param after sequence of the last change the subscriber has seen, to be sent the retained changes since,
+     *              null to be sent only the next ones, starting with the current sequence
+     * @param sink receives the messages of the subscription
+     * @return the subscription, to be cancelled when the subscriber is gone
+     * @throws TooManySubscribersException when the maximum number of subscribers is reached
+     */
+    public Subscription subscribe(Long after, ChangeSink sink) {
+        ChangeSubscriber subscriber = new ChangeSubscriber(this, sink, bufferSize, overflows, expired);
+        synchronized (this) {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new TooManySubscribersException(maxSubscribers);
+            }
+            if (after == null) {
+                subscriber.ready(sequence);
+            } else if (after > sequence || (journal == null ? after < sequence - history.size() : !journal.retainsAfter(after))) {
+                expired.increment();
+                subscriber.resync(sequence);
+            } else if (journal != null) {
+                subscriber.catchUp(journal.read(after));
+            } else {
+                subscriber.replay(history.stream().skip(history.size() - (sequence - after)).toList());
+            }
+            subscribers.add(subscriber);
+        }
+        if (subscriber.startDraining()) {
+            send(subscriber);
+        }
+        return subscriber;
+    }
+
+    void unsubscribe(ChangeSubscriber subscriber) {
+        if (subscriber.markCancelled()) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        publish(ChangeEvent.Entity.RECIPE, event.changeType(), event.recipeId(), event.name());
+    }
+
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        publish(ChangeEvent.Entity.INGREDIENT, event.changeType(), event.ingredientId(), event.name());
+    }
+
+    synchronized void publish(ChangeEvent.Entity entity, ChangeType changeType, Long id, String name) {
+        ChangeEvent change = new ChangeEvent(++sequence, entity, changeType, id, name, Instant.now());
+        boolean journaled = journal(change);
+        if (historySize > 0) {
+            if (history.size() == historySize) {
+                history.removeFirst();
+            }
+            history.addLast(change);
+        }
+        for (ChangeSubscriber subscriber : subscribers) {
+            if (subscriber.offer(change, journaled)) {
+                send(subscriber);
+            }
+        }
+    }
+
+    /**
+     * @return whether the change was appended to the journal
+     */
+    private boolean journal(ChangeEvent change) {
+        if (journal == null) {
+            return false;
+        }
+        try {
+            journal.append(change);
+            return true;
+        } catch (RuntimeException e) {
+            // the write is committed, failing it now would only hide it
+            log.error("Could not journal change {}", change.sequence(), e);
+            return false;
+        }
+    }
+
+    /**
+     * @return the sequence of the last change published
+     */
+    public synchronized long sequence() {
+        return sequence;
+    }
+
+    private void heartbeat() {
+        for (ChangeSubscriber subscriber : subscribers) {
+            if (subscriber.heartbeat()) {
+                send(subscriber);
+            }
+        }
+    }
+
+    private void send(ChangeSubscriber subscriber) {
+        try {
+            senders.execute(() -> {
+                try {
+                    while (subscriber.sendNext()) {
+                        // until the subscriber has no message left
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Change subscriber gone, unsubscribing: {}", e.toString());
+                    unsubscribe(subscriber);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            unsubscribe(subscriber);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+        if (senders instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static CustomizableThreadFactory daemonThreads(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * A subscription to the feed.
+     */
+    public interface Subscription {
+
+        /**
+         * Stops sending messages to the subscriber, idempotent.
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,423 @@
+package com.assignment.recipeapp.service.changes;
+
+import com.assignment.recipeapp.dto.response.ChangeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable journal of the changes published by the {@link ChangeFeed}, in memory-mapped segment files.
+ * <p>
+ *     Changes are appended with increasing sequences to the active segment, named after its base sequence. A full
+ *     segment is sealed and a new one started. Appending copies the change into the mapping, the operating system
+ *     writes it to disk: it survives the application crashing as soon as it is appended, and the operating system
+ *     crashing once the segment is flushed, every flush interval and when it is sealed. When the journal is opened,
+ *     the records of the last segments are checked against their CRC, and a torn tail is erased.
+ * </p>
+ * <p>
+ *     Readers tail the journal with a {@link Cursor}, reading the records from the mappings without locking, while
+ *     changes are appended. Segments past the retention time, or beyond the maximum size of the journal, are deleted,
+ *     oldest first. Compaction rewrites sealed segments keeping only the last change of every recipe and ingredient:
+ *     a reader catching up from a compacted range still ends up knowing the latest change of every entity.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("recipe-app.changes.journal.directory")
+public class ChangeJournal {
+
+    static final String METRIC = "recipeapp.changes.journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration retention;
+    private final long maxSize;
+    private final boolean compaction;
+    private final Clock clock;
+    private final ScheduledExecutorService maintenance;
+    // sorted by base sequence, replaced under the lock, read by cursors without it
+    private final List<JournalSegment> segments = new CopyOnWriteArrayList<>();
+    private JournalSegment active;
+    private volatile long lastSequence;
+    // maintenance only: segments before this base sequence were compacted into full segments already
+    private long compactFrom;
+
+    /**
+     * @param directory where the segment files are kept
+     * @param segmentSize size of a segment file
+     * @param retention how long a segment is kept after its last change
+     * @param maxSize size of the segment files beyond which the oldest are deleted
+     * @param compaction whether sealed segments are compacted
+     * @param flushInterval interval of the flushes of the active segment and of the maintenance of the journal
+     */
+    @Autowired
+    public ChangeJournal(MeterRegistry meterRegistry,
+                         @Value("${recipe-app.changes.journal.directory}") Path directory,
+                         @Value("${recipe-app.changes.journal.segment-size:64MB}") DataSize segmentSize,
+                         @Value("${recipe-app.changes.journal.retention:7d}") Duration retention,
+                         @Value("${recipe-app.changes.journal.max-size:1GB}") DataSize maxSize,
+                         @Value("${recipe-app.changes.journal.compaction:true}") boolean compaction,
+                         @Value("${recipe-app.changes.journal.flush-interval:1s}") Duration flushInterval) {
+        this(directory, Math.toIntExact(segmentSize.toBytes()), retention, maxSize.toBytes(), compaction, Clock.systemUTC());
+        meterRegistry.gauge(METRIC + ".size", this, ChangeJournal::size);
+        meterRegistry.gauge(METRIC + ".segments", segments, List::size);
+        meterRegistry.gauge(METRIC + ".sequence", this, ChangeJournal::lastSequence);
+        maintenance.scheduleWithFixedDelay(this::maintain, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    ChangeJournal(Path directory, int segmentSize, Duration retention, long maxSize, boolean compaction, Clock clock) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.retention = retention;
+        this.maxSize = maxSize;
+        this.compaction = compaction;
+        this.clock = clock;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("change-journal-");
+        threadFactory.setDaemon(true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        open();
+    }
+
+    /**
+     * Appends a change, with a sequence above those already appended.
+     */
+    public synchronized void append(ChangeEvent change) {
+        if (change.sequence() <= lastSequence) {
+            throw new IllegalArgumentException("Change " + change.sequence() + " is not after " + lastSequence);
+        }
+        if (active == null || !active.append(change)) {
+            if (active != null) {
+                active.seal();
+            }
+            int size = Math.max(segmentSize, JournalSegment.HEADER + JournalSegment.sizeInSegment(change));
+            active = JournalSegment.create(segmentPath(change.sequence()), change.sequence(), size);
+            segments.add(active);
+            active.append(change);
+        }
+        lastSequence = change.sequence();
+    }
+
+    /**
+     * @return the sequence of the last change appended, 0 when the journal is empty
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @param after a sequence
+     * @return true when the journal has every change after this sequence, or the last change of every entity
+     *         changed after it once compacted
+     */
+    public boolean retainsAfter(long after) {
+        return after >= firstSequence() - 1 && after <= lastSequence;
+    }
+
+    /**
+     * @return a cursor reading the changes after a sequence, and those appended later
+     */
+    public Cursor read(long after) {
+        return new Cursor(after);
+    }
+
+    /**
+     * Flushes the active segment, then deletes the segments past the retention time or beyond the maximum size, and
+     * compacts the sealed segments. Run every flush interval.
+     */
+    void maintain() {
+        try {
+            JournalSegment flushed;
+            synchronized (this) {
+                flushed = active;
+            }
+            // outside the lock, appends go on while the pages are written
+            if (flushed != null) {
+                flushed.force();
+            }
+            enforceRetention();
+            if (compaction) {
+                compact();
+            }
+        } catch (RuntimeException e) {
+            log.error("Change journal maintenance failed", e);
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        maintenance.shutdownNow();
+        if (active != null) {
+            active.force();
+        }
+    }
+
+    private long firstSequence() {
+        return segments.isEmpty() ? lastSequence + 1 : segments.get(0).baseSequence();
+    }
+
+    private long size() {
+        return segments.stream().mapToLong(JournalSegment::capacity).sum();
+    }
+
+    private void enforceRetention() {
+        Instant expiry = clock.instant().minus(retention);
+        while (true) {
+            JournalSegment oldest;
+            synchronized (this) {
+                oldest = segments.isEmpty() ? null : segments.get(0);
+                if (oldest == null || oldest == active
+                        || (size() <= maxSize && oldest.lastCommittedAt() != null && oldest.lastCommittedAt().isAfter(expiry))) {
+                    return;
+                }
+                segments.remove(0);
+            }
+            log.info("Deleting change journal segment {}", oldest.path());
+            oldest.delete();
+        }
+    }
+
+    /**
+     * Rewrites consecutive sealed segments into one, keeping the last change of every entity, as long as the changes
+     * kept fit in a segment. The compacted segment keeps the base sequence of the first segment, and replaces its file
+     * before the other files are deleted: opening the journal after a crash in between deletes the segments left
+     * covered by the compacted one.
+     */
+    private void compact() {
+        List<JournalSegment> sealed;
+        synchronized (this) {
+            sealed = segments.stream()
+                    .filter(segment -> segment.isSealed() && segment.baseSequence() >= compactFrom)
+                    .toList();
+        }
+        int from = 0;
+        while (from < sealed.size()) {
+            Map<EntityKey, ChangeEvent> latest = new HashMap<>();
+            int records = 0;
+            int to = from;
+            while (to < sealed.size()) {
+                Map<EntityKey, ChangeEvent> merged = new HashMap<>(latest);
+                int mergedRecords = records;
+                Cursor cursor = new Cursor(sealed.get(to), sealed.get(to).baseSequence() - 1);
+                for (ChangeEvent change = cursor.nextInSegment(); change != null; change = cursor.nextInSegment()) {
+                    merged.put(new EntityKey(change.entity(), change.id()), change);
+                    mergedRecords++;
+                }
+                int size = JournalSegment.HEADER + merged.values().stream().mapToInt(JournalSegment::sizeInSegment).sum();
+                if (to > from && size > segmentSize) {
+                    break;
+                }
+                latest = merged;
+                records = mergedRecords;
+                to++;
+            }
+            if (latest.size() < records) {
+                replace(sealed.subList(from, to), latest.values().stream().sorted(Comparator.comparingLong(ChangeEvent::sequence)).toList());
+            }
+            // the last group may still grow with the next segments sealed
+            compactFrom = sealed.get(from).baseSequence();
+            from = to;
+        }
+    }
+
+    private void replace(List<JournalSegment> group, List<ChangeEvent> changes) {
+        JournalSegment first = group.get(0);
+        Path temporary = first.path().resolveSibling(first.path().getFileName() + ".compacting");
+        int size = JournalSegment.HEADER + changes.stream().mapToInt(JournalSegment::sizeInSegment).sum();
+        JournalSegment compacted = JournalSegment.create(temporary, first.baseSequence(), size);
+        changes.forEach(compacted::append);
+        compacted.seal();
+        try {
+            Files.move(temporary, first.path(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not replace change journal segment " + first.path(), e);
+        }
+        compacted = JournalSegment.open(first.path());
+        synchronized (this) {
+            int index = segments.indexOf(first);
+            if (index < 0 || !segments.subList(index, index + group.size()).equals(group)) {
+                // only maintenance removes sealed segments
+                throw new IllegalStateException("Change journal segments changed while compacting");
+            }
+            List<JournalSegment> replaced = new ArrayList<>(segments);
+            replaced.subList(index, index + group.size()).clear();
+            replaced.add(index, compacted);
+            segments.clear();
+            segments.addAll(replaced);
+        }
+        group.stream().skip(1).forEach(JournalSegment::delete);
+        log.info("Compacted {} change journal segments from {} into {} changes", group.size(), first.baseSequence(), changes.size());
+    }
+
+    private void open() {
+        List<JournalSegment> opened = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path path : files.sorted().toList()) {
+                    String fileName = path.getFileName().toString();
+                    if (fileName.endsWith(".compacting")) {
+                        Files.delete(path);
+                    } else if (fileName.endsWith(JournalSegment.SUFFIX)) {
+                        JournalSegment segment = JournalSegment.open(path);
+                        if (segment != null) {
+                            opened.add(segment);
+                        } else {
+                            // created by a crash before its header was written
+                            Files.delete(path);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the change journal in " + directory, e);
+        }
+        opened.sort(Comparator.comparingLong(JournalSegment::baseSequence));
+        long last = 0;
+        for (JournalSegment segment : opened) {
+            if (segment.baseSequence() <= last) {
+                log.info("Deleting change journal segment {}, already compacted", segment.path());
+                segment.delete();
+                continue;
+            }
+            if (!segments.isEmpty() && !segments.get(segments.size() - 1).isSealed()) {
+                // a crash while rolling over
+                segments.get(segments.size() - 1).seal();
+            }
+            segments.add(segment);
+            last = Math.max(last, segment.lastSequence());
+        }
+        lastSequence = last;
+        if (!segments.isEmpty() && !segments.get(segments.size() - 1).isSealed()) {
+            active = segments.get(segments.size() - 1);
+        }
+        log.info("Opened the change journal in {}: {} segments, last sequence {}", directory, segments.size(), lastSequence);
+    }
+
+    private Path segmentPath(long baseSequence) {
+        return directory.resolve(String.format("%020d%s", baseSequence, JournalSegment.SUFFIX));
+    }
+
+    private JournalSegment segmentFor(long sequence) {
+        JournalSegment found = null;
+        for (JournalSegment segment : segments) {
+            if (segment.baseSequence() > sequence) {
+                break;
+            }
+            found = segment;
+        }
+        return found != null || segments.isEmpty() ? found : segments.get(0);
+    }
+
+    private record EntityKey(ChangeEvent.Entity entity, Long id) {
+    }
+
+    /**
+     * Reads the changes of the journal in sequence order, following the segments as they are sealed, compacted or
+     * deleted. Not thread-safe.
+     */
+    public final class Cursor {
+
+        private JournalSegment segment;
+        private int position = JournalSegment.HEADER;
+        private long after;
+        private boolean atEnd;
+        private boolean expired;
+
+        private Cursor(long after) {
+            this(segmentFor(after + 1), after);
+        }
+
+        private Cursor(JournalSegment segment, long after) {
+            this.segment = segment;
+            this.after = after;
+        }
+
+        /**
+         * @return the next change, null when the reader caught up with the journal or the cursor expired
+         */
+        public ChangeEvent next() {
+            while (!expired) {
+                ChangeEvent change = nextInSegment();
+                if (change != null) {
+                    return change;
+                }
+                if (segment != null && !atEnd) {
+                    return null;
+                }
+                // sealed, compacted or deleted: continue in the segment now holding the next change
+                JournalSegment next = segmentFor(after + 1);
+                if (next == null || next == segment) {
+                    return null;
+                }
+                if (next.baseSequence() > after + 1 && next == segments.get(0)) {
+                    // deleted by retention before being read
+                    expired = true;
+                    return null;
+                }
+                segment = next;
+                position = JournalSegment.HEADER;
+                atEnd = false;
+            }
+            return null;
+        }
+
+        /**
+         * @return true when changes the cursor had not read yet were deleted, it then returns no more changes
+         */
+        public boolean isExpired() {
+            return expired;
+        }
+
+        /**
+         * @return the sequence of the last change returned, or the sequence the cursor was opened after
+         */
+        public long position() {
+            return after;
+        }
+
+        private ChangeEvent nextInSegment() {
+            while (segment != null) {
+                int length = segment.lengthAt(position);
+                if (length == 0) {
+                    return null;
+                }
+                if (length == JournalSegment.END) {
+                    atEnd = true;
+                    return null;
+                }
+                ChangeEvent change = segment.read(position, length);
+                position += JournalSegment.recordSize(length);
+                if (change.sequence() > after) {
+                    after = change.sequence();
+                    return change;
+                }
+            }
+            return null;
+        }
+    }
+}
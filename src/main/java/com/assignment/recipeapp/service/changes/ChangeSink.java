@@ -0,0 +1,35 @@
+package com.assignment.recipeapp.service.changes;
+
+import com.assignment.recipeapp.dto.response.ChangeEvent;
+
+import java.io.IOException;
+
+/**
+ * Receives the messages of a subscription to the {@link ChangeFeed}, one at a time, from a sender thread of the feed.
+ * A method failing ends the subscription.
+ */
+public interface ChangeSink {
+
+    /**
+     * Sent first to a subscriber not resuming: the changes that follow come after this sequence.
+     *
+     * @param sequence the sequence of the last change published
+     */
+    void ready(long sequence) throws IOException;
+
+    void change(ChangeEvent change) throws IOException;
+
+    /**
+     * Sent instead of changes the subscriber missed, either dropped because it fell too far behind, or no longer
+     * retained when it resumed. The subscriber must read again the recipes and ingredients it follows: they are at
+     * least as recent as this sequence, and the changes that follow come after it.
+     *
+     * @param sequence the sequence of the last change missed
+     */
+    void resync(long sequence) throws IOException;
+
+    /**
+     * Sent periodically, so that idle connections are kept open and closed connections detected.
+     */
+    void heartbeat() throws IOException;
+}
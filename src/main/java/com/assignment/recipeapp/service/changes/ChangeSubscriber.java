@@ -0,0 +1,204 @@
+package com.assignment.recipeapp.service.changes;
+
+import com.assignment.recipeapp.dto.response.ChangeEvent;
+import io.micrometer.core.instrument.Counter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+
+/**
+ * A subscription to the {@link ChangeFeed}: the messages waiting to be sent to its sink.
+ * <p>
+ *     Published changes are buffered up to a fixed capacity. A change published to a full buffer drops all buffered
+ *     changes, and the subscriber is sent a single resync up to the last change dropped instead, so publishing never
+ *     waits for a subscriber and a subscriber never gets a change past a gap silently.
+ * </p>
+ * <p>
+ *     A subscriber catching up from the {@link ChangeJournal} reads the journal instead, up to its end, published
+ *     changes are only buffered once it caught up. A change both read from the journal and buffered is sent once.
+ * </p>
+ * <p>
+ *     At most one sender drains a subscription at a time, so its messages are sent in order.
+ * </p>
+ */
+final class ChangeSubscriber implements ChangeFeed.Subscription {
+
+    private final ChangeFeed feed;
+    private final ChangeSink sink;
+    private final int capacity;
+    private final Counter overflows;
+    private final Counter expired;
+    private final Deque<ChangeEvent> replay = new ArrayDeque<>();
+    private final Deque<ChangeEvent> buffer = new ArrayDeque<>();
+    private ChangeJournal.Cursor catchUp;
+    private long lastSent;
+    private long lastOffered;
+    private Long ready;
+    private Long resync;
+    private boolean heartbeat;
+    private boolean draining;
+    private boolean cancelled;
+
+    ChangeSubscriber(ChangeFeed feed, ChangeSink sink, int capacity, Counter overflows, Counter expired) {
+        this.feed = feed;
+        this.sink = sink;
+        this.capacity = capacity;
+        this.overflows = overflows;
+        this.expired = expired;
+    }
+
+    synchronized void ready(long sequence) {
+        ready = sequence;
+    }
+
+    /**
+     * @param changes retained changes the subscriber resumes from, sent before any change published later
+     */
+    synchronized void replay(Collection<ChangeEvent> changes) {
+        replay.addAll(changes);
+    }
+
+    /**
+     * @param cursor reads the journal from the change after the last the subscriber has seen
+     */
+    synchronized void catchUp(ChangeJournal.Cursor cursor) {
+        catchUp = cursor;
+    }
+
+    synchronized void resync(long sequence) {
+        catchUp = null;
+        replay.clear();
+        buffer.clear();
+        resync = sequence;
+    }
+
+    /**
+     * @param journaled whether the change was appended to the journal
+     * @return true when a sender must be started
+     */
+    synchronized boolean offer(ChangeEvent change, boolean journaled) {
+        lastOffered = change.sequence();
+        if (catchUp != null) {
+            if (!journaled) {
+                // the cursor will never read it
+                resync(change.sequence());
+            }
+        } else if (resync != null) {
+            // the subscriber will read everything again anyway
+            resync = change.sequence();
+        } else if (buffer.size() >= capacity) {
+            overflows.increment();
+            resync(change.sequence());
+        } else {
+            buffer.add(change);
+        }
+        return startDraining();
+    }
+
+    /**
+     * @return true when a sender must be started
+     */
+    synchronized boolean heartbeat() {
+        heartbeat = true;
+        return startDraining();
+    }
+
+    /**
+     * @return true when a sender must be started
+     */
+    synchronized boolean startDraining() {
+        if (draining || cancelled) {
+            return false;
+        }
+        draining = true;
+        return true;
+    }
+
+    /**
+     * Sends the next message, outside the lock so that publishers never wait for the sink.
+     *
+     * @return false when there was none, and the sender must stop
+     */
+    boolean sendNext() throws IOException {
+        Message message;
+        synchronized (this) {
+            message = cancelled ? null : poll();
+            if (message == null) {
+                draining = false;
+                return false;
+            }
+        }
+        message.sendTo(sink);
+        return true;
+    }
+
+    private Message poll() {
+        if (ready != null) {
+            long sequence = ready;
+            ready = null;
+            return sink -> sink.ready(sequence);
+        }
+        if (resync != null) {
+            long sequence = resync;
+            resync = null;
+            return sink -> sink.resync(sequence);
+        }
+        if (catchUp != null) {
+            ChangeEvent change = catchUp.next();
+            if (catchUp.isExpired()) {
+                // the journal deleted changes not read yet, those published since were not buffered
+                expired.increment();
+                long sequence = Math.max(lastOffered, catchUp.position());
+                catchUp = null;
+                return sink -> sink.resync(sequence);
+            }
+            if (change != null) {
+                return send(change);
+            }
+            catchUp = null;
+        }
+        ChangeEvent change = replay.isEmpty() ? buffer.poll() : replay.poll();
+        while (change != null && change.sequence() <= lastSent) {
+            // read from the journal while it was published
+            change = buffer.poll();
+        }
+        if (change != null) {
+            return send(change);
+        }
+        if (heartbeat) {
+            heartbeat = false;
+            return ChangeSink::heartbeat;
+        }
+        return null;
+    }
+
+    private Message send(ChangeEvent change) {
+        lastSent = change.sequence();
+        return sink -> sink.change(change);
+    }
+
+    /**
+     * @return true unless the subscription was already cancelled
+     */
+    synchronized boolean markCancelled() {
+        if (cancelled) {
+            return false;
+        }
+        cancelled = true;
+        catchUp = null;
+        replay.clear();
+        buffer.clear();
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        feed.unsubscribe(this);
+    }
+
+    private interface Message {
+        void sendTo(ChangeSink sink) throws IOException;
+    }
+}
@@ -0,0 +1,290 @@
+package com.assignment.recipeapp.service.changes;
+
+import com.assignment.recipeapp.dto.response.ChangeEvent;
+import com.assignment.recipeapp.event.ChangeType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * A file of the {@link ChangeJournal}, memory-mapped as a whole.
+ * <p>
+ *     The file starts with a header: a magic number, the format version and the base sequence, the first sequence the
+ *     segment covers. Records follow, each aligned on 8 bytes: the length of its body, the CRC32C of its body, and the
+ *     body itself, the sequence, the entity, the change type, the id, the commit time and the name of a change. The
+ *     rest of the file is zeros, the end of the records, unless the segment is sealed by a length of -1.
+ * </p>
+ * <p>
+ *     The length of a record is written last, with release semantics, and read with acquire semantics, so that
+ *     readers tailing the segment while it is written never see a record before its body. Records are decoded from the
+ *     mapping itself.
+ * </p>
+ */
+@Slf4j
+final class JournalSegment {
+
+    static final String SUFFIX = ".journal";
+    static final int HEADER = 16;
+    /**
+     * Length of the sealing marker.
+     */
+    static final int END = -1;
+
+    private static final int MAGIC = 0x52434A4C;
+    private static final int VERSION = 1;
+    private static final int RECORD_HEADER = 8;
+    private static final int ALIGNMENT = 8;
+    // sequence, entity, change type, id, epoch second, nano, name length
+    private static final int FIXED_BODY = 8 + 1 + 1 + 8 + 8 + 4 + 4;
+    private static final int NO_NAME = -1;
+    private static final VarHandle LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final ChangeEvent.Entity[] ENTITIES = ChangeEvent.Entity.values();
+    private static final ChangeType[] CHANGE_TYPES = ChangeType.values();
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long baseSequence;
+    // written under the lock of the journal
+    private int writePosition;
+    private long lastSequence;
+    private Instant lastCommittedAt;
+    private boolean sealed;
+
+    private JournalSegment(Path path, MappedByteBuffer buffer, long baseSequence) {
+        this.path = path;
+        this.buffer = buffer;
+        this.baseSequence = baseSequence;
+        this.writePosition = HEADER;
+        this.lastSequence = baseSequence - 1;
+    }
+
+    /**
+     * Creates a segment file of the given size, replacing any file at its path.
+     */
+    static JournalSegment create(Path path, long baseSequence, int size) {
+        JournalSegment segment = new JournalSegment(path, map(path, size, true), baseSequence);
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(4, VERSION);
+        segment.buffer.putLong(8, baseSequence);
+        return segment;
+    }
+
+    /**
+     * Opens an existing segment file, checking the CRC of every record. Records from the first invalid one on, left
+     * by a crash while they were written, are erased.
+     *
+     * @return the segment, null when the file has no header
+     */
+    static JournalSegment open(Path path) {
+        MappedByteBuffer buffer = map(path, 0, false);
+        if (buffer.capacity() < HEADER || buffer.getInt(0) == 0) {
+            return null;
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a change journal segment: " + path);
+        }
+        JournalSegment segment = new JournalSegment(path, buffer, buffer.getLong(8));
+        segment.recover();
+        return segment;
+    }
+
+    static int recordSize(int length) {
+        return (RECORD_HEADER + length + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * @return the size of the record of a change in a segment, end marker included
+     */
+    static int sizeInSegment(ChangeEvent change) {
+        return recordSize(FIXED_BODY + nameBytes(change).length) + RECORD_HEADER;
+    }
+
+    /**
+     * Appends a change, unless the segment is too full to take it and still be sealed.
+     *
+     * @return false when the segment is full
+     */
+    boolean append(ChangeEvent change) {
+        byte[] name = nameBytes(change);
+        int length = FIXED_BODY + name.length;
+        if (sealed || writePosition + recordSize(length) + RECORD_HEADER > buffer.capacity()) {
+            return false;
+        }
+        int body = writePosition + RECORD_HEADER;
+        buffer.putLong(body, change.sequence());
+        buffer.put(body + 8, (byte) change.entity().ordinal());
+        buffer.put(body + 9, (byte) change.changeType().ordinal());
+        buffer.putLong(body + 10, change.id());
+        buffer.putLong(body + 18, change.committedAt().getEpochSecond());
+        buffer.putInt(body + 26, change.committedAt().getNano());
+        buffer.putInt(body + 30, change.name() == null ? NO_NAME : name.length);
+        buffer.put(body + FIXED_BODY, name);
+        buffer.putInt(writePosition + 4, crc(body, length));
+        LENGTH.setRelease(buffer, writePosition, length);
+        writePosition += recordSize(length);
+        lastSequence = change.sequence();
+        lastCommittedAt = change.committedAt();
+        return true;
+    }
+
+    /**
+     * Marks the end of the records, readers then move on to the next segment.
+     */
+    void seal() {
+        if (!sealed) {
+            LENGTH.setRelease(buffer, writePosition, END);
+            sealed = true;
+            force();
+        }
+    }
+
+    /**
+     * @return the length of the record at a position, 0 when none was written there yet, or {@link #END}
+     */
+    int lengthAt(int position) {
+        return (int) LENGTH.getAcquire(buffer, position);
+    }
+
+    /**
+     * @param position position of a record whose length was read
+     * @param length its length
+     */
+    ChangeEvent read(int position, int length) {
+        int body = position + RECORD_HEADER;
+        if (length < FIXED_BODY || body + length > buffer.capacity() || buffer.getInt(position + 4) != crc(body, length)) {
+            throw new IllegalStateException("Corrupt change journal record at " + position + " of " + path);
+        }
+        int nameLength = buffer.getInt(body + 30);
+        String name = null;
+        if (nameLength != NO_NAME) {
+            byte[] bytes = new byte[nameLength];
+            buffer.get(body + FIXED_BODY, bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new ChangeEvent(
+                buffer.getLong(body),
+                ENTITIES[buffer.get(body + 8)],
+                CHANGE_TYPES[buffer.get(body + 9)],
+                buffer.getLong(body + 10),
+                name,
+                Instant.ofEpochSecond(buffer.getLong(body + 18), buffer.getInt(body + 26)));
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void delete() {
+        try {
+            // the mapping stays valid for the readers still holding it
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete change journal segment {}", path, e);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    /**
+     * @return the sequence of the last record, the base sequence minus one when there is none
+     */
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return the commit time of the last record, null when there is none
+     */
+    Instant lastCommittedAt() {
+        return lastCommittedAt;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    boolean isEmpty() {
+        return writePosition == HEADER;
+    }
+
+    /**
+     * @return the bytes used by the records, end marker included
+     */
+    int usedBytes() {
+        return writePosition + RECORD_HEADER;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    private void recover() {
+        int position = HEADER;
+        while (position + RECORD_HEADER <= buffer.capacity()) {
+            int length = lengthAt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length == END) {
+                sealed = true;
+                break;
+            }
+            ChangeEvent change;
+            try {
+                change = read(position, length);
+            } catch (RuntimeException e) {
+                log.warn("Erasing the change journal from record {} of {}: {}", position, path, e.getMessage());
+                byte[] zeros = new byte[8192];
+                for (int erased = position; erased < buffer.capacity(); erased += zeros.length) {
+                    buffer.put(erased, zeros, 0, Math.min(zeros.length, buffer.capacity() - erased));
+                }
+                force();
+                break;
+            }
+            position += recordSize(length);
+            lastSequence = change.sequence();
+            lastCommittedAt = change.committedAt();
+        }
+        writePosition = position;
+    }
+
+    private int crc(int body, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(body, length));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] nameBytes(ChangeEvent change) {
+        return change.name() == null ? new byte[0] : change.name().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static MappedByteBuffer map(Path path, int size, boolean create) {
+        try (FileChannel channel = create
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // mapping past the end grows the file with zeros
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, create ? size : channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map change journal segment " + path, e);
+        }
+    }
+}
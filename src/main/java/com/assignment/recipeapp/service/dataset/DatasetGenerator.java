@@ -0,0 +1,205 @@
+package com.assignment.recipeapp.service.dataset;
+
+import com.github.javafaker.Faker;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Generates a reproducible catalog of ingredients and recipes with realistic names and distributions.
+ * <p>
+ *     The vocabulary (ingredients, dishes, nationalities, measurements) is drawn from javafaker once, with the seed.
+ *     Every recipe is then generated from its own random generator derived from the seed and its index, so a recipe
+ *     is the same whatever the chunks and threads used to generate the catalog.
+ * </p>
+ * <p>
+ *     Ingredients follow a Zipf popularity: the first ingredients are used by many recipes, most by few.
+ *     The number of ingredients of a recipe is log-normal with a median of 8.
+ * </p>
+ */
+public class DatasetGenerator {
+
+    static final int MIN_INGREDIENTS = 2;
+    static final int MAX_INGREDIENTS = 30;
+    static final int MAX_NAME_LENGTH = 50;
+    static final int MAX_DESCRIPTION_LENGTH = 500;
+
+    private static final double MEDIAN_INGREDIENTS = 8;
+    private static final double INGREDIENT_COUNT_SIGMA = 0.4;
+    private static final double POPULARITY_EXPONENT = 0.9;
+    private static final double VEGETARIAN_SHARE = 0.3;
+    private static final int[] SERVINGS = {1, 2, 2, 2, 3, 4, 4, 4, 4, 6, 6, 8};
+    private static final String[] STYLES = {"Classic", "Spicy", "Quick", "Creamy", "Rustic", "Homemade", "Grilled",
+            "Baked", "Slow-cooked", "Crispy", "Light", "Hearty"};
+    private static final String[] QUALIFIERS = {"Fresh", "Dried", "Smoked", "Roasted", "Ground", "Organic", "Pickled",
+            "Frozen", "Toasted", "Wild", "Baby", "Sweet", "Red", "Green", "Black", "White", "Whole", "Sliced", "Aged", "Raw"};
+    private static final String[] STEPS = {"Chop the {ingredient}.", "Wash and dry the {ingredient}.",
+            "Add {measurement} of {ingredient}.", "Fry the {ingredient} until golden.",
+            "Simmer with the {ingredient} for {minutes} minutes.", "Season with the {ingredient}.", "Bake for {minutes} minutes.",
+            "Stir in the {ingredient}.", "Let rest for {minutes} minutes.", "Serve with the {ingredient}."};
+    private static final int VOCABULARY_DRAWS = 2000;
+    private static final long RECIPE_SEED_STRIDE = 0xBF58476D1CE4E5B9L;
+
+    private final long seed;
+    private final List<String> ingredientNames;
+    private final double[] cumulativePopularity;
+    private final List<String> dishes;
+    private final List<String> nationalities;
+    private final List<String> measurements;
+
+    /**
+     * @param seed seed of the catalog, the same seed always yields the same catalog
+     * @param ingredients number of ingredients of the catalog
+     */
+    public DatasetGenerator(long seed, int ingredients) {
+        if (ingredients < MAX_INGREDIENTS) {
+            throw new IllegalArgumentException("A catalog needs at least " + MAX_INGREDIENTS + " ingredients");
+        }
+        this.seed = seed;
+        Random random = new Random(seed);
+        Faker faker = new Faker(Locale.ENGLISH, random);
+        this.dishes = vocabulary(random, () -> faker.food().dish());
+        this.nationalities = vocabulary(random, () -> faker.nation().nationality());
+        this.measurements = vocabulary(random, () -> faker.food().measurement());
+        this.ingredientNames = ingredientNames(ingredients, vocabulary(random, () -> switch (random.nextInt(4)) {
+            case 0 -> faker.food().ingredient();
+            case 1 -> faker.food().spice();
+            case 2 -> faker.food().vegetable();
+            default -> faker.food().fruit();
+        }));
+        this.cumulativePopularity = new double[ingredients];
+        double total = 0;
+        for (int rank = 0; rank < ingredients; rank++) {
+            total += 1 / Math.pow(rank + 1, POPULARITY_EXPONENT);
+            cumulativePopularity[rank] = total;
+        }
+        for (int rank = 0; rank < ingredients; rank++) {
+            cumulativePopularity[rank] /= total;
+        }
+    }
+
+    /**
+     * @return the distinct ingredient names, most popular first
+     */
+    public List<String> ingredientNames() {
+        return ingredientNames;
+    }
+
+    /**
+     * @return the dishes recipes are named after
+     */
+    public List<String> dishes() {
+        return dishes;
+    }
+
+    /**
+     * Generates a range of recipes. Generating a range in one call or in several yields the same recipes.
+     *
+     * @param first index of the first recipe
+     * @param count number of recipes
+     * @return the recipes, in index order
+     */
+    public List<GeneratedRecipe> recipes(long first, int count) {
+        List<GeneratedRecipe> recipes = new ArrayList<>(count);
+        for (long index = first; index < first + count; index++) {
+            recipes.add(recipe(new SplittableRandom(seed + index * RECIPE_SEED_STRIDE)));
+        }
+        return recipes;
+    }
+
+    private GeneratedRecipe recipe(SplittableRandom random) {
+        int[] ingredients = pickIngredients(random, ingredientCount(random));
+        String main = ingredientNames.get(ingredients[0]);
+        String dish = pick(random, dishes);
+        String style = STYLES[random.nextInt(STYLES.length)];
+        int servings = SERVINGS[random.nextInt(SERVINGS.length)];
+
+        int template = random.nextInt(100);
+        String name = template < 40 ? dish
+                : template < 65 ? style + " " + dish
+                : template < 85 ? dish + " with " + main
+                : pick(random, nationalities) + " " + dish;
+        String description = "A " + style.toLowerCase(Locale.ROOT) + " " + dish + " for " + servings + ", made with "
+                + describe(ingredients) + ".";
+
+        StringBuilder instructions = new StringBuilder();
+        for (int step = 1, steps = 3 + random.nextInt(6); step <= steps; step++) {
+            String text = STEPS[random.nextInt(STEPS.length)]
+                    .replace("{ingredient}", ingredientNames.get(ingredients[random.nextInt(ingredients.length)]).toLowerCase(Locale.ROOT))
+                    .replace("{measurement}", pick(random, measurements))
+                    .replace("{minutes}", Integer.toString(5 + random.nextInt(56)));
+            instructions.append(step).append(". ").append(text).append('\n');
+        }
+        return new GeneratedRecipe(truncate(name, MAX_NAME_LENGTH), truncate(description, MAX_DESCRIPTION_LENGTH),
+                instructions.toString().trim(), servings, random.nextDouble() < VEGETARIAN_SHARE, ingredients);
+    }
+
+    private int ingredientCount(SplittableRandom random) {
+        long count = Math.round(Math.exp(Math.log(MEDIAN_INGREDIENTS) + INGREDIENT_COUNT_SIGMA * random.nextGaussian()));
+        return (int) Math.max(MIN_INGREDIENTS, Math.min(MAX_INGREDIENTS, count));
+    }
+
+    /**
+     * @return distinct ingredient indexes drawn by popularity
+     */
+    private int[] pickIngredients(SplittableRandom random, int count) {
+        Set<Integer> picked = new LinkedHashSet<>();
+        while (picked.size() < count) {
+            int rank = Arrays.binarySearch(cumulativePopularity, random.nextDouble());
+            picked.add(Math.min(rank < 0 ? -rank - 1 : rank, cumulativePopularity.length - 1));
+        }
+        return picked.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private String describe(int[] ingredients) {
+        int shown = Math.min(3, ingredients.length);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) {
+                text.append(i == shown - 1 ? " and " : ", ");
+            }
+            text.append(ingredientNames.get(ingredients[i]).toLowerCase(Locale.ROOT));
+        }
+        return text.toString();
+    }
+
+    private static <T> T pick(SplittableRandom random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String truncate(String text, int maxLength) {
+        return text.length() <= maxLength ? text : text.substring(0, maxLength).trim();
+    }
+
+    /**
+     * @return the distinct values of a faker source, in a seeded order
+     */
+    private static List<String> vocabulary(Random random, Supplier<String> source) {
+        SortedSet<String> values = new TreeSet<>();
+        for (int i = 0; i < VOCABULARY_DRAWS; i++) {
+            values.add(source.get().trim());
+        }
+        List<String> vocabulary = new ArrayList<>(values);
+        Collections.shuffle(vocabulary, random);
+        return List.copyOf(vocabulary);
+    }
+
+    /**
+     * Extends the base names with qualifiers, then with numbers, until there are enough distinct names.
+     */
+    private static List<String> ingredientNames(int count, List<String> baseNames) {
+        Set<String> seen = new HashSet<>();
+        List<String> names = new ArrayList<>(count);
+        for (int round = 0; names.size() < count; round++) {
+            for (String base : baseNames) {
+                String name = round == 0 ? base
+                        : round <= QUALIFIERS.length ? QUALIFIERS[round - 1] + " " + base
+                        : base + " " + (round - QUALIFIERS.length + 1);
+                if (names.size() < count && seen.add(name.toLowerCase(Locale.ROOT))) {
+                    names.add(name);
+                }
+            }
+        }
+        return List.copyOf(names);
+    }
+}
@@ -0,0 +1,168 @@
+package com.assignment.recipeapp.service.dataset;
+
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.entity.Recipe;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes a generated catalog to the database.
+ * <p>
+ *     Recipes are generated and written in chunks by several threads, every chunk in its own transaction with
+ *     JDBC batch inserts, bypassing the persistence context. At most two chunks per thread are in flight.
+ *     Ids come from the id generators of the entities, in chunk order, so the recipes of a catalog get the same ids
+ *     on every empty database and the entities created afterwards through JPA never collide with them.
+ *     Change events are not published: the catalog is meant to be loaded on startup, before the indexes are built.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DatasetLoader {
+
+    private static final String INSERT_INGREDIENT =
+            "insert into ingredients (id, name, version, last_modified) values (?, ?, 0, current_timestamp)";
+    private static final String INSERT_RECIPE = "insert into recipes (id, name, description, instructions, servings, vegetarian, "
+            + "version, last_modified) values (?, ?, ?, ?, ?, ?, 0, current_timestamp)";
+    private static final String INSERT_RECIPE_INGREDIENT = "insert into recipes_ingredients (recipe_id, ingredient_id) values (?, ?)";
+    private static final int INGREDIENT_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Outcome of a load.
+     *
+     * @param ingredients number of ingredients created
+     * @param recipes number of recipes created
+     * @param recipeIngredients number of recipe/ingredient associations created
+     * @param elapsedMillis duration of the load
+     */
+    public record Report(int ingredients, long recipes, long recipeIngredients, long elapsedMillis) {
+    }
+
+    /**
+     * Writes all ingredients of a catalog and its first recipes.
+     *
+     * @param generator the catalog
+     * @param recipes number of recipes to write
+     * @param chunkSize number of recipes generated and written per transaction
+     * @param threads number of threads generating and writing recipes
+     * @return the outcome of the load
+     */
+    public Report load(DatasetGenerator generator, long recipes, int chunkSize, int threads) {
+        long start = System.nanoTime();
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        AtomicLong writtenRecipes = new AtomicLong();
+        AtomicLong writtenLinks = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long chunkCount = (recipes + chunkSize - 1) / chunkSize;
+        long logEvery = Math.max(1, chunkCount / 10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (Session session = sessionFactory.openSession()) {
+            SharedSessionContractImplementor ids = (SharedSessionContractImplementor) session;
+            long[] ingredientIds = nextIds(sessionFactory.getIdentifierGenerator(Ingredient.class.getName()), ids,
+                    generator.ingredientNames().size());
+            transaction.executeWithoutResult(status -> insertIngredients(generator.ingredientNames(), ingredientIds));
+
+            IdentifierGenerator recipeIdGenerator = sessionFactory.getIdentifierGenerator(Recipe.class.getName());
+            Semaphore inFlight = new Semaphore(threads * 2);
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long first = 0; first < recipes && failure.get() == null; first += chunkSize) {
+                long chunkFirst = first;
+                int count = (int) Math.min(chunkSize, recipes - first);
+                long[] recipeIds = nextIds(recipeIdGenerator, ids, count);
+                inFlight.acquire();
+                chunks.add(executor.submit(() -> {
+                    try {
+                        List<GeneratedRecipe> chunk = generator.recipes(chunkFirst, count);
+                        writtenLinks.addAndGet(transaction.execute(status -> insertRecipes(chunk, recipeIds, ingredientIds)));
+                        long written = writtenRecipes.addAndGet(count);
+                        if ((chunkFirst / chunkSize + 1) % logEvery == 0) {
+                            log.info("Generating dataset: {} of {} recipes written", written, recipes);
+                        }
+                    } catch (RuntimeException | Error e) {
+                        failure.compareAndSet(null, e);
+                        throw e;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Dataset generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Dataset generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Report report = new Report(generator.ingredientNames().size(), writtenRecipes.get(), writtenLinks.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Generated dataset: {} ingredients, {} recipes, {} recipe ingredients in {} ms ({} rows/s)",
+                report.ingredients(), report.recipes(), report.recipeIngredients(), report.elapsedMillis(),
+                Math.round((report.ingredients() + report.recipes() + report.recipeIngredients()) * 1000.0
+                        / Math.max(1, report.elapsedMillis())));
+        return report;
+    }
+
+    private void insertIngredients(List<String> names, long[] ids) {
+        List<Object[]> rows = new ArrayList<>(INGREDIENT_BATCH_SIZE);
+        for (int i = 0; i < names.size(); i++) {
+            rows.add(new Object[]{ids[i], names.get(i)});
+            if (rows.size() == INGREDIENT_BATCH_SIZE || i == names.size() - 1) {
+                jdbcTemplate.batchUpdate(INSERT_INGREDIENT, rows);
+                rows.clear();
+            }
+        }
+    }
+
+    /**
+     * @return number of recipe/ingredient associations written
+     */
+    private long insertRecipes(List<GeneratedRecipe> recipes, long[] recipeIds, long[] ingredientIds) {
+        List<Object[]> recipeRows = new ArrayList<>(recipes.size());
+        List<Object[]> linkRows = new ArrayList<>();
+        for (int i = 0; i < recipes.size(); i++) {
+            GeneratedRecipe recipe = recipes.get(i);
+            recipeRows.add(new Object[]{recipeIds[i], recipe.name(), recipe.description(), recipe.instructions(),
+                    recipe.servings(), recipe.vegetarian()});
+            for (int ingredient : recipe.ingredients()) {
+                linkRows.add(new Object[]{recipeIds[i], ingredientIds[ingredient]});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_RECIPE, recipeRows);
+        jdbcTemplate.batchUpdate(INSERT_RECIPE_INGREDIENT, linkRows);
+        return linkRows.size();
+    }
+
+    private static long[] nextIds(IdentifierGenerator generator, SharedSessionContractImplementor session, int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = ((Number) generator.generate(session, null)).longValue();
+        }
+        return ids;
+    }
+}
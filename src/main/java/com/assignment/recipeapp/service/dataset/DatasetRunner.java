@@ -0,0 +1,45 @@
+package com.assignment.recipeapp.service.dataset;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates a catalog on startup when the dataset profile is active, before the indexes are loaded:
+ * {@code --spring.profiles.active=dataset --recipe-app.dataset.recipes=1000000}.
+ * The same seed and sizes always yield the same catalog.
+ */
+@Slf4j
+@Component
+@Profile("dataset")
+@RequiredArgsConstructor
+public class DatasetRunner implements ApplicationRunner {
+
+    private final DatasetLoader datasetLoader;
+
+    @Value("${recipe-app.dataset.seed:42}")
+    private long seed;
+
+    @Value("${recipe-app.dataset.ingredients:2000}")
+    private int ingredients;
+
+    @Value("${recipe-app.dataset.recipes:100000}")
+    private long recipes;
+
+    @Value("${recipe-app.dataset.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${recipe-app.dataset.threads:0}")
+    private int threads;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        log.info("Generating dataset {} with {} ingredients and {} recipes on {} threads", seed, ingredients, recipes, workers);
+        datasetLoader.load(new DatasetGenerator(seed, ingredients), recipes, chunkSize, workers);
+    }
+}
@@ -0,0 +1,15 @@
+package com.assignment.recipeapp.service.dataset;
+
+/**
+ * A recipe of a generated catalog.
+ *
+ * @param name name of the recipe
+ * @param description description of the recipe
+ * @param instructions numbered steps, one per line
+ * @param servings number of servings
+ * @param vegetarian whether the recipe is vegetarian
+ * @param ingredients distinct indexes of the ingredients in {@link DatasetGenerator#ingredientNames()}
+ */
+public record GeneratedRecipe(String name, String description, String instructions, int servings, boolean vegetarian,
+                              int[] ingredients) {
+}
@@ -0,0 +1,137 @@
+package com.assignment.recipeapp.service.importer;
+
+import com.assignment.recipeapp.dto.request.RecipeImportRecord;
+import com.assignment.recipeapp.exception.InvalidImportException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Reads RFC 4180 CSV with a header row.
+ * <p>
+ *     Columns are matched by header name: name, description, instructions, servings, vegetarian and ingredients,
+ *     the ingredient names being separated by {@code |}. Quoted fields may contain commas, quotes written twice
+ *     and line breaks. Unknown columns are ignored.
+ * </p>
+ */
+public class CsvRecipeRecordReader implements RecipeRecordReader {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "description", "instructions", "ingredients");
+    private static final String INGREDIENT_SEPARATOR = "\\|";
+
+    private final BufferedReader reader;
+    private Map<String, Integer> columns;
+    private long line = 1;
+
+    public CsvRecipeRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ParsedRecord next() throws IOException {
+        if (columns == null) {
+            readHeader();
+        }
+        List<String> fields;
+        long recordLine;
+        do {
+            recordLine = line;
+            fields = readRow();
+        } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+        if (fields == null) {
+            return null;
+        }
+        try {
+            return ParsedRecord.parsed(recordLine, toRecord(fields));
+        } catch (NumberFormatException e) {
+            return ParsedRecord.malformed(recordLine, "servings: not a number");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = readRow();
+        if (header == null) {
+            throw new InvalidImportException("CSV import requires a header row");
+        }
+        columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidImportException("CSV header is missing the columns " + missing);
+        }
+    }
+
+    private RecipeImportRecord toRecord(List<String> fields) {
+        RecipeImportRecord record = new RecipeImportRecord();
+        record.setName(field(fields, "name"));
+        record.setDescription(field(fields, "description"));
+        record.setInstructions(field(fields, "instructions"));
+        String servings = field(fields, "servings");
+        record.setServings(servings == null || servings.isBlank() ? null : Integer.valueOf(servings.trim()));
+        String vegetarian = field(fields, "vegetarian");
+        record.setVegetarian(vegetarian == null || vegetarian.isBlank() ? null : Boolean.valueOf(vegetarian.trim()));
+        String ingredients = field(fields, "ingredients");
+        record.setIngredients(ingredients == null || ingredients.isBlank()
+                ? List.of()
+                : Arrays.stream(ingredients.split(INGREDIENT_SEPARATOR)).map(String::trim).toList());
+        return record;
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    /**
+     * @return the fields of the next row, or null at the end of the file
+     */
+    private List<String> readRow() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int following = reader.read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
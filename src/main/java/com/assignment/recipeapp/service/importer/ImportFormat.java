@@ -0,0 +1,62 @@
+package com.assignment.recipeapp.service.importer;
+
+import com.assignment.recipeapp.exception.InvalidImportException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Formats accepted by the recipe import.
+ */
+public enum ImportFormat {
+
+    NDJSON,
+    CSV;
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+
+    /**
+     * @param contentType content type of an import request
+     * @return the format of the request body
+     */
+    public static ImportFormat of(MediaType contentType) {
+        if (contentType.isCompatibleWith(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))) {
+            return NDJSON;
+        }
+        if (contentType.isCompatibleWith(MediaType.parseMediaType(CSV_MEDIA_TYPE))) {
+            return CSV;
+        }
+        throw new InvalidImportException("Unsupported import content type " + contentType);
+    }
+
+    /**
+     * @param fileName name of an import file, ending with .ndjson, .jsonl or .csv
+     * @return the format of the file
+     */
+    public static ImportFormat ofFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        throw new InvalidImportException("Cannot tell the import format of " + fileName);
+    }
+
+    /**
+     * @param input UTF-8 encoded import data
+     * @param objectReader reader of JSON records
+     * @return a reader of the records of the input
+     */
+    public RecipeRecordReader open(InputStream input, ObjectReader objectReader) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return this == NDJSON ? new NdjsonRecipeRecordReader(reader, objectReader) : new CsvRecipeRecordReader(reader);
+    }
+}
@@ -0,0 +1,45 @@
+package com.assignment.recipeapp.service.importer;
+
+import com.assignment.recipeapp.dto.request.RecipeImportRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads newline-delimited JSON, one recipe object per line. Blank lines are skipped.
+ */
+public class NdjsonRecipeRecordReader implements RecipeRecordReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private long line;
+
+    public NdjsonRecipeRecordReader(BufferedReader reader, ObjectReader objectReader) {
+        this.reader = reader;
+        this.objectReader = objectReader.forType(RecipeImportRecord.class);
+    }
+
+    @Override
+    public ParsedRecord next() throws IOException {
+        String json;
+        do {
+            json = reader.readLine();
+            line++;
+        } while (json != null && json.isBlank());
+        if (json == null) {
+            return null;
+        }
+        try {
+            return ParsedRecord.parsed(line, objectReader.readValue(json));
+        } catch (JsonProcessingException e) {
+            return ParsedRecord.malformed(line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
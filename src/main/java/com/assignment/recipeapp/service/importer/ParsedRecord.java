@@ -0,0 +1,21 @@
+package com.assignment.recipeapp.service.importer;
+
+import com.assignment.recipeapp.dto.request.RecipeImportRecord;
+
+/**
+ * A record read from an import file, or the reason it could not be parsed.
+ *
+ * @param line line of the record in the file
+ * @param record the parsed record, null when it could not be parsed
+ * @param error why the record could not be parsed, null when it was parsed
+ */
+public record ParsedRecord(long line, RecipeImportRecord record, String error) {
+
+    static ParsedRecord parsed(long line, RecipeImportRecord record) {
+        return new ParsedRecord(line, record, null);
+    }
+
+    static ParsedRecord malformed(long line, String error) {
+        return new ParsedRecord(line, null, error);
+    }
+}
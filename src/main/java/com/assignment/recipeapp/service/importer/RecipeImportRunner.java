@@ -0,0 +1,36 @@
+package com.assignment.recipeapp.service.importer;
+
+import com.assignment.recipeapp.service.RecipeImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports a local file on startup, to seed a new environment from a dump:
+ * {@code --recipe-app.import.file=/data/recipes.ndjson}. The format is taken from the file extension.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty("recipe-app.import.file")
+public class RecipeImportRunner implements ApplicationRunner {
+
+    private final RecipeImportService recipeImportService;
+
+    @Value("${recipe-app.import.file}")
+    private Path file;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        log.info("Importing recipes from {}", file);
+        recipeImportService.importRecipes(Files.newInputStream(file), ImportFormat.ofFileName(file.getFileName().toString()));
+    }
+}
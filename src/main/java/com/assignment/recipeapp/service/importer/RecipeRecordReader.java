@@ -0,0 +1,16 @@
+package com.assignment.recipeapp.service.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the records of an import file one at a time, so that only the records being imported are held in memory.
+ */
+public interface RecipeRecordReader extends Closeable {
+
+    /**
+     * @return the next record, or null at the end of the file
+     * @throws IOException when the file cannot be read
+     */
+    ParsedRecord next() throws IOException;
+}
@@ -0,0 +1,42 @@
+package com.assignment.recipeapp.service.snapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+
+/**
+ * Loads the catalog snapshot on startup into an empty database: {@code --recipe-app.snapshot.file=/data/catalog.snapshot}.
+ * Runs before the other runners and before the indexes are loaded. The readiness probe only reports the application
+ * ready once all runners are done, so a node takes no traffic before its catalog is loaded.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@ConditionalOnProperty("recipe-app.snapshot.file")
+public class CatalogSnapshotRunner implements ApplicationRunner {
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    @Value("${recipe-app.snapshot.threads:0}")
+    private int threads;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!Files.exists(catalogSnapshotService.file())) {
+            log.info("No catalog snapshot at {} to load", catalogSnapshotService.file());
+        } else if (!catalogSnapshotService.isDatabaseEmpty()) {
+            log.info("Not loading the catalog snapshot {}: the database is not empty", catalogSnapshotService.file());
+        } else {
+            catalogSnapshotService.load(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.assignment.recipeapp.service.snapshot;
+
+import com.assignment.recipeapp.dto.response.SnapshotReport;
+import com.assignment.recipeapp.service.snapshot.SnapshotFormat.IngredientRow;
+import com.assignment.recipeapp.service.snapshot.SnapshotFormat.RecipeRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes the catalog to a binary snapshot file, and loads it back into an empty database.
+ * <p>
+ *     A snapshot is written from a single read-only transaction, so it is consistent while the catalog is being
+ *     changed, to a temporary file moved over the previous snapshot once complete: a node loading the snapshot never
+ *     reads a partial file.
+ * </p>
+ * <p>
+ *     Loading writes the rows with JDBC batch inserts like the {@link com.assignment.recipeapp.service.dataset.DatasetLoader},
+ *     the recipes in chunks by several threads while the file is decoded, keeping their ids, versions and modification
+ *     times. The id sequences are then moved past the loaded ids. Change events are not published: the snapshot is
+ *     meant to be loaded on startup, before the indexes are built.
+ * </p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty("recipe-app.snapshot.file")
+public class CatalogSnapshotService {
+
+    private static final String SELECT_INGREDIENTS = "select id, version, last_modified, name from ingredients order by id";
+    private static final String SELECT_RECIPES = "select r.id, r.version, r.last_modified, r.name, r.vegetarian, r.servings, "
+            + "r.description, r.instructions, (select array_agg(ri.ingredient_id order by ri.ingredient_id) "
+            + "from recipes_ingredients ri where ri.recipe_id = r.id) ingredient_ids from recipes r order by r.id";
+    private static final String INSERT_INGREDIENT =
+            "insert into ingredients (id, version, last_modified, name) values (?, ?, ?, ?)";
+    private static final String INSERT_RECIPE = "insert into recipes (id, version, last_modified, name, vegetarian, "
+            + "servings, description, instructions) values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_RECIPE_INGREDIENT = "insert into recipes_ingredients (recipe_id, ingredient_id) values (?, ?)";
+    private static final int INGREDIENT_BATCH_SIZE = 1000;
+    // allocation size of the id sequences: the pooled optimizer hands out the 50 ids up to the value it reads
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final Path file;
+    private final int chunkSize;
+
+    public CatalogSnapshotService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${recipe-app.snapshot.file}") Path file,
+                                  @Value("${recipe-app.snapshot.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.file = file;
+        this.chunkSize = chunkSize;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * @return whether the database holds no recipe and no ingredient
+     */
+    public boolean isDatabaseEmpty() {
+        return !jdbcTemplate.queryForObject("select exists (select 1 from recipes) or exists (select 1 from ingredients)",
+                Boolean.class);
+    }
+
+    /**
+     * Writes a snapshot of the catalog, replacing the previous one.
+     *
+     * @return the outcome of the write
+     */
+    public SnapshotReport write() {
+        long start = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        // a snapshot of the whole catalog as of the start of the transaction
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        AtomicLong ingredients = new AtomicLong();
+        AtomicLong recipes = new AtomicLong();
+        AtomicLong links = new AtomicLong();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                transaction.executeWithoutResult(status -> {
+                    try (SnapshotFormat.Writer writer = new SnapshotFormat.Writer(output, Instant.now())) {
+                        jdbcTemplate.query(SELECT_INGREDIENTS, rs -> {
+                            write(writer, ingredient(rs));
+                            ingredients.incrementAndGet();
+                        });
+                        jdbcTemplate.query(SELECT_RECIPES, rs -> {
+                            RecipeRow recipe = recipe(rs);
+                            write(writer, recipe);
+                            recipes.incrementAndGet();
+                            links.addAndGet(recipe.ingredientIds().length);
+                        });
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalStateException("Could not write the catalog snapshot " + file, e);
+        } finally {
+            // left behind by a failed write only
+            deleteQuietly(temporary);
+        }
+        SnapshotReport report = report(ingredients.get(), recipes.get(), links.get(), start);
+        log.info("Wrote catalog snapshot {}: {} ingredients, {} recipes, {} recipe ingredients, {} bytes in {} ms",
+                file, report.ingredients(), report.recipes(), report.recipeIngredients(), report.bytes(), report.elapsedMillis());
+        return report;
+    }
+
+    /**
+     * Loads the snapshot into an empty database.
+     *
+     * @param threads number of threads writing recipes
+     * @return the outcome of the load
+     */
+    public SnapshotReport load(int threads) {
+        long start = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        AtomicLong writtenRecipes = new AtomicLong();
+        AtomicLong writtenLinks = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long ingredients;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (InputStream input = Files.newInputStream(file);
+             SnapshotFormat.Reader reader = new SnapshotFormat.Reader(input)) {
+            log.info("Loading catalog snapshot {} taken at {}", file, reader.takenAt());
+            ingredients = transaction.execute(status -> insertIngredients(reader));
+
+            Semaphore inFlight = new Semaphore(threads * 2);
+            List<Future<?>> chunks = new ArrayList<>();
+            List<RecipeRow> chunk = new ArrayList<>(chunkSize);
+            for (RecipeRow recipe = reader.nextRecipe(); failure.get() == null; recipe = reader.nextRecipe()) {
+                if (recipe != null) {
+                    chunk.add(recipe);
+                }
+                if (chunk.size() == chunkSize || (recipe == null && !chunk.isEmpty())) {
+                    List<RecipeRow> rows = chunk;
+                    chunk = new ArrayList<>(chunkSize);
+                    inFlight.acquire();
+                    chunks.add(executor.submit(() -> {
+                        try {
+                            writtenLinks.addAndGet(transaction.execute(status -> insertRecipes(rows)));
+                            writtenRecipes.addAndGet(rows.size());
+                        } catch (RuntimeException | Error e) {
+                            failure.compareAndSet(null, e);
+                            throw e;
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                }
+                if (recipe == null) {
+                    break;
+                }
+            }
+            for (Future<?> future : chunks) {
+                future.get();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the catalog snapshot " + file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Catalog snapshot load interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Catalog snapshot load failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        restartSequence("ingredients_seq", "ingredients");
+        restartSequence("recipes_seq", "recipes");
+
+        SnapshotReport report = report(ingredients, writtenRecipes.get(), writtenLinks.get(), start);
+        log.info("Loaded catalog snapshot {}: {} ingredients, {} recipes, {} recipe ingredients in {} ms ({} rows/s)",
+                file, report.ingredients(), report.recipes(), report.recipeIngredients(), report.elapsedMillis(),
+                Math.round((report.ingredients() + report.recipes() + report.recipeIngredients()) * 1000.0
+                        / Math.max(1, report.elapsedMillis())));
+        return report;
+    }
+
+    private long insertIngredients(SnapshotFormat.Reader reader) {
+        long count = 0;
+        List<Object[]> rows = new ArrayList<>(INGREDIENT_BATCH_SIZE);
+        try {
+            for (IngredientRow ingredient = reader.nextIngredient(); ingredient != null; ingredient = reader.nextIngredient()) {
+                rows.add(new Object[]{ingredient.id(), ingredient.version(), Timestamp.from(ingredient.lastModified()),
+                        ingredient.name()});
+                if (rows.size() == INGREDIENT_BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(INSERT_INGREDIENT, rows);
+                    count += rows.size();
+                    rows.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        jdbcTemplate.batchUpdate(INSERT_INGREDIENT, rows);
+        return count + rows.size();
+    }
+
+    /**
+     * @return number of recipe/ingredient associations written
+     */
+    private long insertRecipes(List<RecipeRow> recipes) {
+        List<Object[]> recipeRows = new ArrayList<>(recipes.size());
+        List<Object[]> linkRows = new ArrayList<>();
+        for (RecipeRow recipe : recipes) {
+            recipeRows.add(new Object[]{recipe.id(), recipe.version(), Timestamp.from(recipe.lastModified()), recipe.name(),
+                    recipe.vegetarian(), recipe.servings(), recipe.description(), recipe.instructions()});
+            for (long ingredientId : recipe.ingredientIds()) {
+                linkRows.add(new Object[]{recipe.id(), ingredientId});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_RECIPE, recipeRows);
+        jdbcTemplate.batchUpdate(INSERT_RECIPE_INGREDIENT, linkRows);
+        return linkRows.size();
+    }
+
+    private void restartSequence(String sequence, String table) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        if (maxId != null) {
+            jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maxId + ID_ALLOCATION_SIZE));
+        }
+    }
+
+    private SnapshotReport report(long ingredients, long recipes, long links, long start) {
+        long bytes;
+        try {
+            bytes = Files.size(file);
+        } catch (IOException e) {
+            bytes = -1;
+        }
+        return new SnapshotReport(file.toString(), ingredients, recipes, links, bytes,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static IngredientRow ingredient(ResultSet rs) throws SQLException {
+        return new IngredientRow(rs.getLong("id"), rs.getLong("version"), rs.getTimestamp("last_modified").toInstant(),
+                rs.getString("name"));
+    }
+
+    private static RecipeRow recipe(ResultSet rs) throws SQLException {
+        Array ingredients = rs.getArray("ingredient_ids");
+        long[] ingredientIds = new long[0];
+        if (ingredients != null) {
+            Object[] ids = (Object[]) ingredients.getArray();
+            ingredientIds = new long[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                ingredientIds[i] = ((Number) ids[i]).longValue();
+            }
+        }
+        return new RecipeRow(rs.getLong("id"), rs.getLong("version"), rs.getTimestamp("last_modified").toInstant(),
+                rs.getString("name"), rs.getBoolean("vegetarian"), rs.getInt("servings"), rs.getString("description"),
+                rs.getString("instructions"), ingredientIds);
+    }
+
+    private static void write(SnapshotFormat.Writer writer, IngredientRow ingredient) {
+        try {
+            writer.ingredient(ingredient);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(SnapshotFormat.Writer writer, RecipeRow recipe) {
+        try {
+            writer.recipe(recipe);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.assignment.recipeapp.service.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary format of the catalog snapshots.
+ * <p>
+ *     A snapshot is a gzip stream, whose trailer checks its integrity: a header with a magic number, the format version
+ *     and the time the snapshot was taken, then the ingredients and the recipes, both by ascending id. Numbers are
+ *     unsigned variable-length integers, 7 bits per byte, ids the difference with the previous id, so that a
+ *     recipe listing ten ingredients out of a few thousand takes a few bytes per ingredient. Strings are their UTF-8
+ *     length and bytes. Each list ends with an id difference of 0.
+ * </p>
+ */
+final class SnapshotFormat {
+
+    private static final int MAGIC = 0x52435053;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private SnapshotFormat() {
+    }
+
+    record IngredientRow(long id, long version, Instant lastModified, String name) {
+    }
+
+    /**
+     * @param ingredientIds the ids of the ingredients, ascending
+     */
+    record RecipeRow(long id, long version, Instant lastModified, String name, boolean vegetarian, int servings,
+                     String description, String instructions, long[] ingredientIds) {
+    }
+
+    /**
+     * Writes the ingredients, then the recipes.
+     */
+    static final class Writer implements Closeable {
+
+        private final DataOutputStream output;
+        private long lastId;
+        private boolean recipes;
+
+        Writer(OutputStream output, Instant takenAt) throws IOException {
+            this.output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(output, BUFFER_SIZE), BUFFER_SIZE));
+            this.output.writeInt(MAGIC);
+            this.output.writeInt(VERSION);
+            writeInstant(takenAt);
+        }
+
+        void ingredient(IngredientRow ingredient) throws IOException {
+            if (recipes) {
+                throw new IllegalStateException("Ingredients are written before the recipes");
+            }
+            writeId(ingredient.id());
+            writeNumber(ingredient.version());
+            writeInstant(ingredient.lastModified());
+            writeString(ingredient.name());
+        }
+
+        void recipe(RecipeRow recipe) throws IOException {
+            if (!recipes) {
+                endList();
+                recipes = true;
+            }
+            writeId(recipe.id());
+            writeNumber(recipe.version());
+            writeInstant(recipe.lastModified());
+            writeString(recipe.name());
+            output.writeBoolean(recipe.vegetarian());
+            writeNumber(recipe.servings());
+            writeString(recipe.description());
+            writeString(recipe.instructions());
+            writeNumber(recipe.ingredientIds().length);
+            long previous = 0;
+            for (long ingredientId : recipe.ingredientIds()) {
+                writeNumber(ingredientId - previous);
+                previous = ingredientId;
+            }
+        }
+
+        /**
+         * Ends the lists and the gzip stream, closing the output.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!recipes) {
+                endList();
+            }
+            endList();
+            output.close();
+        }
+
+        private void endList() throws IOException {
+            writeNumber(0);
+            lastId = 0;
+        }
+
+        private void writeId(long id) throws IOException {
+            if (id <= lastId) {
+                throw new IllegalArgumentException("Id " + id + " is not above " + lastId);
+            }
+            writeNumber(id - lastId);
+            lastId = id;
+        }
+
+        private void writeInstant(Instant instant) throws IOException {
+            writeNumber(instant.getEpochSecond());
+            writeNumber(instant.getNano());
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeNumber(bytes.length);
+            output.write(bytes);
+        }
+
+        private void writeNumber(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                output.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            output.write((int) value);
+        }
+    }
+
+    /**
+     * Reads the ingredients, then the recipes.
+     */
+    static final class Reader implements Closeable {
+
+        private final DataInputStream input;
+        private final Instant takenAt;
+        private long lastId;
+        private boolean ingredientsRead;
+
+        Reader(InputStream input) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(input, BUFFER_SIZE), BUFFER_SIZE));
+            if (this.input.readInt() != MAGIC) {
+                throw new IOException("Not a catalog snapshot");
+            }
+            int version = this.input.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported catalog snapshot version " + version);
+            }
+            this.takenAt = readInstant();
+        }
+
+        Instant takenAt() {
+            return takenAt;
+        }
+
+        /**
+         * @return the next ingredient, null after the last one
+         */
+        IngredientRow nextIngredient() throws IOException {
+            if (ingredientsRead) {
+                return null;
+            }
+            long id = readId();
+            if (id == 0) {
+                ingredientsRead = true;
+                return null;
+            }
+            return new IngredientRow(id, readNumber(), readInstant(), readString());
+        }
+
+        /**
+         * @return the next recipe, null after the last one
+         */
+        RecipeRow nextRecipe() throws IOException {
+            while (nextIngredient() != null) {
+                // skipped
+            }
+            long id = readId();
+            if (id == 0) {
+                return null;
+            }
+            long version = readNumber();
+            Instant lastModified = readInstant();
+            String name = readString();
+            boolean vegetarian = input.readBoolean();
+            int servings = Math.toIntExact(readNumber());
+            String description = readString();
+            String instructions = readString();
+            long[] ingredientIds = new long[Math.toIntExact(readNumber())];
+            long previous = 0;
+            for (int i = 0; i < ingredientIds.length; i++) {
+                previous += readNumber();
+                ingredientIds[i] = previous;
+            }
+            return new RecipeRow(id, version, lastModified, name, vegetarian, servings, description, instructions, ingredientIds);
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+
+        /**
+         * @return the id, 0 at the end of a list
+         */
+        private long readId() throws IOException {
+            long difference = readNumber();
+            if (difference == 0) {
+                lastId = 0;
+                return 0;
+            }
+            lastId += difference;
+            return lastId;
+        }
+
+        private Instant readInstant() throws IOException {
+            return Instant.ofEpochSecond(readNumber(), readNumber());
+        }
+
+        private String readString() throws IOException {
+            byte[] bytes = new byte[Math.toIntExact(readNumber())];
+            input.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private long readNumber() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = input.read();
+                if (b < 0) {
+                    throw new EOFException("Truncated catalog snapshot");
+                }
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt catalog snapshot");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+-- The schema Hibernate creates from the entities, with the constraint names it generates
+
+create sequence ingredients_seq start with 1 increment by 50;
+create sequence recipes_seq start with 1 increment by 50;
+
+create table ingredients (
+    id bigint not null,
+    last_modified timestamp not null,
+    name varchar(255) not null,
+    version bigint not null,
+    primary key (id)
+);
+
+create table recipes (
+    id bigint not null,
+    description TEXT not null,
+    instructions TEXT not null,
+    last_modified timestamp not null,
+    name varchar(255) not null,
+    servings integer not null,
+    vegetarian boolean not null,
+    version bigint not null,
+    primary key (id)
+);
+
+create table recipes_ingredients (
+    recipe_id bigint not null,
+    ingredient_id bigint not null,
+    primary key (recipe_id, ingredient_id)
+);
+
+alter table ingredients add constraint UK_j6tsl15xx76y4kv41yxr4uxab unique (name);
+alter table recipes_ingredients add constraint FKn58cf1b23kbp00ecui7xtqeiu foreign key (ingredient_id) references ingredients;
+alter table recipes_ingredients add constraint FKk6ck14h7wqd90hbryml2g6fqk foreign key (recipe_id) references recipes;
@@ -0,0 +1,10 @@
+-- The recipes of an ingredient: deleting an ingredient, searching by included or excluded ingredients.
+-- The primary key only serves lookups by recipe.
+create index recipes_ingredients_ingredient_idx on recipes_ingredients (ingredient_id, recipe_id);
+
+-- Filters of GET /api/recipes, the most selective first
+create index recipes_servings_idx on recipes (servings, vegetarian);
+create index recipes_vegetarian_idx on recipes (vegetarian);
+
+-- Lookups and sorting by name
+create index recipes_name_idx on recipes (name);
@@ -0,0 +1,4 @@
+-- Ingredient names are unique whatever their case, case-insensitive lookups use this key instead of lower(name).
+-- Fails on a catalog holding two names differing only by case, which must be merged first.
+alter table ingredients add column name_key varchar(255) generated always as (lower(name));
+alter table ingredients add constraint ingredients_name_key_uk unique (name_key);
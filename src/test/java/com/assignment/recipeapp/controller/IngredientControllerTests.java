@@ -6,6 +6,7 @@ import com.assignment.recipeapp.dto.request.IngredientUpdateRequest;
 import com.assignment.recipeapp.dto.response.IngredientListingElementDto;
 import com.assignment.recipeapp.dto.response.RecipeListingElementDto;
 import com.assignment.recipeapp.service.IngredientService;
+import com.assignment.recipeapp.service.ResourceValidators;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -78,7 +79,8 @@ public class IngredientControllerTests {
         Long id = 1L;
         IngredientDto ingredientDto = new IngredientDto(id, "Salt");
 
-        when(ingredientService.getIngredientById(Mockito.anyLong())).thenReturn(ingredientDto);
+        when(ingredientService.getValidatedIngredient(Mockito.anyLong()))
+                .thenReturn(new ResourceValidators.Validated<>(ingredientDto, new ResourceValidators.Validator("\"0\"", null)));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/ingredients/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON))
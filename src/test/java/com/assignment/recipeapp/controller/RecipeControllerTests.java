@@ -6,6 +6,7 @@ import com.assignment.recipeapp.dto.request.RecipeUpdateRequest;
 import com.assignment.recipeapp.dto.response.IngredientResponse;
 import com.assignment.recipeapp.dto.response.RecipeListingElementDto;
 import com.assignment.recipeapp.service.RecipeService;
+import com.assignment.recipeapp.service.ResourceValidators;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -58,7 +59,8 @@ public class RecipeControllerTests {
         recipeDto.setId(RECIPE_ID);
         recipeDto.setName(RECIPE_NAME);
 
-        Mockito.when(recipeService.getRecipe(RECIPE_ID)).thenReturn(recipeDto);
+        Mockito.when(recipeService.getValidatedRecipe(RECIPE_ID))
+                .thenReturn(new ResourceValidators.Validated<>(recipeDto, new ResourceValidators.Validator("\"1-0\"", null)));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/recipes/1"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -0,0 +1,80 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.dto.IngredientDto;
+import com.assignment.recipeapp.dto.request.IngredientUpdateRequest;
+import com.assignment.recipeapp.dto.request.RecipeUpdateRequest;
+import com.assignment.recipeapp.service.IngredientService;
+import com.assignment.recipeapp.service.RecipeService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates recipes and ingredients through the services, for tests that are not transactional because they observe
+ * the effects of committed writes, and deletes them again after the test.
+ */
+class CatalogFixture {
+
+    private final RecipeService recipeService;
+    private final IngredientService ingredientService;
+    private final int servings;
+
+    private final List<Long> recipeIds = new ArrayList<>();
+    private final List<Long> ingredientIds = new ArrayList<>();
+
+    /**
+     * @param servings servings of the recipes created, unique to the test class so that its searches only match them
+     */
+    CatalogFixture(RecipeService recipeService, IngredientService ingredientService, int servings) {
+        this.recipeService = recipeService;
+        this.ingredientService = ingredientService;
+        this.servings = servings;
+    }
+
+    IngredientDto createIngredient(String name) {
+        IngredientUpdateRequest request = new IngredientUpdateRequest();
+        request.setName(name);
+        IngredientDto ingredient = ingredientService.createIngredient(request);
+        ingredientIds.add(ingredient.getId());
+        return ingredient;
+    }
+
+    Long createRecipe(String name, IngredientDto... ingredients) {
+        Long id = recipeService.createRecipe(recipeRequest(name, ingredients)).id();
+        recipeIds.add(id);
+        return id;
+    }
+
+    RecipeUpdateRequest recipeRequest(String name, IngredientDto... ingredients) {
+        RecipeUpdateRequest request = new RecipeUpdateRequest();
+        request.setName(name);
+        request.setVegetarian(true);
+        request.setServings(servings);
+        request.setDescription("description");
+        request.setInstructions("instructions");
+        request.setIngredients(Arrays.stream(ingredients).map(ingredient -> {
+            RecipeUpdateRequest.IngredientRequest ingredientRequest = new RecipeUpdateRequest.IngredientRequest();
+            ingredientRequest.setId(ingredient.getId());
+            return ingredientRequest;
+        }).toList());
+        return request;
+    }
+
+    /**
+     * Stops tracking a recipe the test deleted itself.
+     */
+    void forgetRecipe(Long id) {
+        recipeIds.remove(id);
+    }
+
+    /**
+     * Deletes the recipes created, then the ingredients they used.
+     */
+    void deleteAll() {
+        recipeIds.forEach(recipeService::deleteRecipe);
+        ingredientIds.forEach(ingredientService::deleteIngredientById);
+        recipeIds.clear();
+        ingredientIds.clear();
+    }
+}
@@ -0,0 +1,88 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.dto.IngredientDto;
+import com.assignment.recipeapp.dto.request.IngredientUpdateRequest;
+import com.assignment.recipeapp.service.IngredientService;
+import com.assignment.recipeapp.service.changes.ChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Checks that the committed writes of the services are streamed by GET /api/changes, and that subscribers resume after
+ * the last event they received. Not transactional: changes are published when the writes commit.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ChangeFeedIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private IngredientService ingredientService;
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Test
+    public void committedWritesAreStreamed() throws Exception {
+        long start = changeFeed.sequence();
+        MvcResult live = subscribe("/api/changes");
+
+        IngredientUpdateRequest request = new IngredientUpdateRequest();
+        request.setName("Change Feed Saffron");
+        IngredientDto saffron = ingredientService.createIngredient(request);
+        ingredientService.updateIngredient(saffron.getId(), new IngredientDto(saffron.getId(), "Change Feed Turmeric"));
+        ingredientService.deleteIngredientById(saffron.getId());
+
+        String events = awaitEvents(live, 4);
+        assertTrue(events.startsWith("event:ready\nid:" + start + "\n"), events);
+        assertTrue(events.contains("event:change\nid:" + (start + 1) + "\ndata:{\"sequence\":" + (start + 1)
+                + ",\"entity\":\"INGREDIENT\",\"changeType\":\"CREATED\",\"id\":" + saffron.getId()
+                + ",\"name\":\"Change Feed Saffron\""), events);
+        assertTrue(events.contains("\"changeType\":\"UPDATED\",\"id\":" + saffron.getId() + ",\"name\":\"Change Feed Turmeric\""), events);
+        assertTrue(events.contains("\"changeType\":\"DELETED\",\"id\":" + saffron.getId() + ",\"committedAt\""), events);
+        complete(live);
+
+        // an EventSource reconnecting sends the id of the last event it received
+        MvcResult resumed = subscribe("/api/changes?after=" + (start + 1), "Last-Event-ID", Long.toString(start + 2));
+        String replayed = awaitEvents(resumed, 1);
+        assertTrue(replayed.startsWith("event:change\nid:" + (start + 3) + "\n"), replayed);
+        complete(resumed);
+    }
+
+    private MvcResult subscribe(String uri, String... header) throws Exception {
+        return mockMvc.perform(header.length == 0 ? get(uri) : get(uri).header(header[0], header[1]))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static String awaitEvents(MvcResult result, int events) throws Exception {
+        MockHttpServletResponse response = result.getResponse();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (countEvents(response.getContentAsString()) < events && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(200, response.getStatus());
+        return response.getContentAsString();
+    }
+
+    private static int countEvents(String content) {
+        // every event ends with a blank line
+        return content.split("\n\n", -1).length - 1;
+    }
+
+    private static void complete(MvcResult result) {
+        result.getRequest().getAsyncContext().complete();
+    }
+}
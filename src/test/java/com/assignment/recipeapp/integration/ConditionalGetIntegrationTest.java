@@ -0,0 +1,141 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.dto.IngredientDto;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.service.IngredientService;
+import com.assignment.recipeapp.service.RecipeService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that conditional GETs are answered with 304 while the resources are unchanged, without loading them.
+ * Not transactional: the versions change when the writes commit.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ConditionalGetIntegrationTest {
+
+    private static final int SERVINGS = 94;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private RecipeService recipeService;
+    @Autowired
+    private IngredientService ingredientService;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private CatalogFixture catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new CatalogFixture(recipeService, ingredientService, SERVINGS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.deleteAll();
+    }
+
+    @Test
+    public void recipeIsRevalidatedWithoutLoadingIt() throws Exception {
+        IngredientDto basil = catalog.createIngredient("Conditional Basil");
+        IngredientDto mint = catalog.createIngredient("Conditional Mint");
+        Long recipeId = catalog.createRecipe("Conditional Pesto", basil);
+        String uri = "/api/recipes/" + recipeId;
+
+        MockHttpServletResponse response = get(uri, null, 200);
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals("no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        // an unconditional request reads no validator, the headers come from the recipe in the second-level cache
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(etag, get(uri, null, 200).getHeader(HttpHeaders.ETAG));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        assertEquals("", get(uri, etag, 304).getContentAsString());
+        assertEquals(0, statistics.getEntityLoadCount() + statistics.getSecondLevelCacheHitCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        MockHttpServletResponse ifModifiedSince = mockMvc.perform(MockMvcRequestBuilders.get(uri)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, response.getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andReturn().getResponse();
+        assertEquals(304, ifModifiedSince.getStatus());
+
+        // renaming an ingredient changes the recipe, which shows its name
+        ingredientService.updateIngredient(basil.getId(), new IngredientDto(basil.getId(), "Conditional Thai Basil"));
+        MockHttpServletResponse modified = get(uri, etag, 200);
+        String renamed = modified.getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, renamed);
+        assertEquals(List.of(renamed), modified.getHeaders(HttpHeaders.ETAG));
+
+        // changing the ingredient list only changes the version and modification time of the recipe too
+        Instant lastModified = recipeRepository.findVersionById(recipeId).orElseThrow().getLastModified();
+        recipeService.updateRecipe(recipeId, catalog.recipeRequest("Conditional Pesto", basil, mint));
+        String extended = get(uri, renamed, 200).getHeader(HttpHeaders.ETAG);
+        assertNotEquals(renamed, extended);
+        assertTrue(recipeRepository.findVersionById(recipeId).orElseThrow().getLastModified().isAfter(lastModified));
+        get(uri, extended, 304);
+    }
+
+    @Test
+    public void ingredientIsRevalidated() throws Exception {
+        IngredientDto thyme = catalog.createIngredient("Conditional Thyme");
+        String uri = "/api/ingredients/" + thyme.getId();
+
+        String etag = get(uri, null, 200).getHeader(HttpHeaders.ETAG);
+        get(uri, etag, 304);
+
+        ingredientService.updateIngredient(thyme.getId(), new IngredientDto(thyme.getId(), "Conditional Lemon Thyme"));
+        get(uri, etag, 200);
+        get("/api/ingredients/0", "\"0\"", 404);
+    }
+
+    @Test
+    public void listingIsRevalidatedUntilAWrite() throws Exception {
+        String uri = "/api/recipes?servings=" + SERVINGS;
+        String etag = get(uri, null, 200).getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        get(uri, etag, 304);
+        get("/api/recipes/scroll?servings=" + SERVINGS, etag, 304);
+
+        catalog.createRecipe("Conditional Salad");
+
+        String changed = get(uri, etag, 200).getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+        get(uri, changed, 304);
+    }
+
+    private MockHttpServletResponse get(String uri, String ifNoneMatch, int status) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(ifNoneMatch == null
+                ? MockMvcRequestBuilders.get(uri)
+                : MockMvcRequestBuilders.get(uri).header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch)).andReturn().getResponse();
+        assertEquals(status, response.getStatus(), uri);
+        return response;
+    }
+}
@@ -0,0 +1,46 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.service.dataset.DatasetGenerator;
+import com.assignment.recipeapp.service.dataset.DatasetLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:dataset-test;DATABASE_TO_UPPER=false")
+@DirtiesContext
+public class DatasetLoaderIntegrationTest {
+
+    @Autowired
+    private DatasetLoader datasetLoader;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void loadsCatalogInParallelChunks() {
+        DatasetGenerator generator = new DatasetGenerator(3, 100);
+
+        DatasetLoader.Report report = datasetLoader.load(generator, 1050, 100, 4);
+
+        long expectedLinks = generator.recipes(0, 1050).stream().mapToLong(recipe -> recipe.ingredients().length).sum();
+        assertEquals(100, report.ingredients());
+        assertEquals(1050, report.recipes());
+        assertEquals(expectedLinks, report.recipeIngredients());
+        assertEquals(100, count("select count(*) from ingredients"));
+        assertEquals(1050, count("select count(*) from recipes"));
+        assertEquals(1050, count("select count(distinct id) from recipes"));
+        assertEquals(expectedLinks, count("select count(*) from recipes_ingredients"));
+
+        List<String> names = jdbcTemplate.queryForList("select name from recipes order by id", String.class);
+        assertEquals(generator.recipes(0, 1050).stream().map(recipe -> recipe.name()).toList(), names);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
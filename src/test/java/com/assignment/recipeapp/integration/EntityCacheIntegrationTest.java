@@ -0,0 +1,103 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.dto.IngredientDto;
+import com.assignment.recipeapp.dto.RecipeDto;
+import com.assignment.recipeapp.exception.RecipeNotFoundException;
+import com.assignment.recipeapp.repository.cache.EntityCacheConfiguration;
+import com.assignment.recipeapp.service.IngredientService;
+import com.assignment.recipeapp.service.RecipeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that recipes and ingredients are read from the second-level cache, and that writes through the services
+ * replace or evict the cached entries. Not transactional: the cache only changes when the writes commit.
+ */
+@SpringBootTest
+public class EntityCacheIntegrationTest {
+
+    private static final int SERVINGS = 95;
+
+    @Autowired
+    private RecipeService recipeService;
+    @Autowired
+    private IngredientService ingredientService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private CatalogFixture catalog;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new CatalogFixture(recipeService, ingredientService, SERVINGS);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.deleteAll();
+    }
+
+    @Test
+    public void readsByIdAreServedFromTheCache() {
+        IngredientDto salt = catalog.createIngredient("Entity Cache Salt");
+        Long recipeId = catalog.createRecipe("Entity Cache Soup", salt);
+        recipeService.getRecipe(recipeId);
+        ingredientService.getIngredientById(salt.getId());
+        statistics.clear();
+
+        RecipeDto recipe = recipeService.getRecipe(recipeId);
+        IngredientDto ingredient = ingredientService.getIngredientById(salt.getId());
+
+        assertEquals("Entity Cache Soup", recipe.getName());
+        assertEquals(List.of("Entity Cache Salt"), recipe.getIngredients().stream().map(IngredientDto::getName).toList());
+        assertEquals("Entity Cache Salt", ingredient.getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 3);
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", EntityCacheConfiguration.RECIPES).tag("result", "hit").functionCounter());
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", EntityCacheConfiguration.INGREDIENTS).functionCounter());
+    }
+
+    @Test
+    public void writesReplaceCachedEntries() {
+        IngredientDto salt = catalog.createIngredient("Entity Cache Sea Salt");
+        IngredientDto pepper = catalog.createIngredient("Entity Cache Pepper");
+        Long recipeId = catalog.createRecipe("Entity Cache Stew", salt);
+        recipeService.getRecipe(recipeId);
+
+        ingredientService.updateIngredient(salt.getId(), new IngredientDto(salt.getId(), "Entity Cache Rock Salt"));
+        assertEquals(List.of("Entity Cache Rock Salt"), ingredientNames(recipeService.getRecipe(recipeId)));
+        assertEquals("Entity Cache Rock Salt", ingredientService.getIngredientById(salt.getId()).getName());
+
+        recipeService.updateRecipe(recipeId, catalog.recipeRequest("Entity Cache Pepper Stew", pepper));
+        RecipeDto updated = recipeService.getRecipe(recipeId);
+        assertEquals("Entity Cache Pepper Stew", updated.getName());
+        assertEquals(List.of("Entity Cache Pepper"), ingredientNames(updated));
+
+        recipeService.deleteRecipe(recipeId);
+        catalog.forgetRecipe(recipeId);
+        assertThrows(RecipeNotFoundException.class, () -> recipeService.getRecipe(recipeId));
+    }
+
+    private static List<String> ingredientNames(RecipeDto recipe) {
+        return recipe.getIngredients().stream().map(IngredientDto::getName).sorted().toList();
+    }
+}
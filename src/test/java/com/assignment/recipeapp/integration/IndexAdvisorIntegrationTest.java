@@ -0,0 +1,84 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.metrics.IndexAdvisor;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "recipe-app.index-advisor.sample-rate=1")
+@AutoConfigureMockMvc
+public class IndexAdvisorIntegrationTest {
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString("user:password".getBytes());
+    private static final int SERVINGS = 93;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private IndexAdvisor indexAdvisor;
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Test
+    public void reportsColumnCombinationsOfSampledSearches() throws Exception {
+        Recipe recipe = recipeRepository.save(new Recipe(null, "Index Advisor Dal", true, SERVINGS, new HashSet<>(),
+                "instructions", "description"));
+        indexAdvisor.clear();
+
+        search("/api/recipes?servings=" + SERVINGS + "&vegetarian=true&sort=name");
+        search("/api/recipes?servings=" + SERVINGS + "&vegetarian=true&sort=name&page=1");
+        search("/api/recipes?servings=" + SERVINGS + "&vegetarian=false");
+        // a single column, no composite index to advise
+        search("/api/recipes?servings=" + SERVINGS);
+        // explained searches are not sampled
+        search("/api/recipes/search/explain?servings=" + SERVINGS + "&vegetarian=true&sort=name");
+        search("/api/recipes/search/explain?servings=" + SERVINGS + "&name=Index Advisor Dal");
+
+        Map<String, JsonNode> advice = new HashMap<>();
+        objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get("/api/admin/index-advice")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString())
+                .forEach(entry -> advice.put(entry.get("columns").toString(), entry));
+        assertEquals(2, advice.size(), advice.toString());
+
+        JsonNode sorted = advice.get("[\"servings\",\"vegetarian\",\"name\"]");
+        assertEquals(2, sorted.get("searches").asLong());
+        assertEquals(0.5, sorted.get("share").asDouble());
+        assertTrue(sorted.get("coveringIndex").isNull());
+        assertEquals("create index recipes_servings_vegetarian_name_idx on recipes (servings, vegetarian, name)",
+                sorted.get("statement").asText());
+        assertTrue(sorted.get("rowsRead").asLong() >= sorted.get("matchingRows").asLong());
+
+        JsonNode filtered = advice.get("[\"servings\",\"vegetarian\"]");
+        assertTrue("recipes_servings_idx".equalsIgnoreCase(filtered.get("coveringIndex").asText()), filtered.toString());
+        assertTrue(filtered.get("statement").isNull());
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/admin/index-advice").header("Authorization", AUTHORIZATION))
+                .andExpect(status().isNoContent());
+        assertTrue(indexAdvisor.advise().isEmpty());
+        recipeRepository.deleteById(recipe.getId());
+    }
+
+    private void search(String uri) throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(uri)).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,93 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.repository.IngredientRepository;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.repository.search.RecipeSearchSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.transaction.Transactional;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the ingredient filters of the recipe searches evaluated in SQL: a recipe has to contain every included
+ * ingredient, possibly through different ingredients, and none of the excluded ones.
+ */
+@SpringBootTest
+@Transactional
+public class IngredientFilterIntegrationTest {
+
+    private static final int SERVINGS = 89;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    private final Map<Long, String> recipeNames = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        Ingredient tomato = ingredient("Anti Join Tomato");
+        Ingredient basil = ingredient("Anti Join Basil");
+        Ingredient beef = ingredient("Anti Join Beef");
+        Ingredient pineNut = ingredient("Anti Join Pine Nut");
+        recipe("Caprese", tomato, basil);
+        recipe("Bolognese", tomato, beef, basil);
+        recipe("Pesto", basil, pineNut);
+    }
+
+    @Test
+    public void includedIngredientsAllHaveToMatch() {
+        assertEquals(List.of("Bolognese", "Caprese"), search(List.of("tomato", "BASIL"), List.of()).getContent());
+        assertEquals(List.of(), search(List.of("tomato", "pine"), List.of()).getContent());
+    }
+
+    @Test
+    public void recipesUsingAnExcludedIngredientDoNotMatch() {
+        assertEquals(List.of("Caprese", "Pesto"), search(List.of(), List.of("beef")).getContent());
+
+        Page<String> page = search(List.of("basil"), List.of("Beef", "pine"));
+        assertEquals(List.of("Caprese"), page.getContent());
+        assertEquals(1, page.getTotalElements());
+    }
+
+    @Test
+    public void likeWildcardsAreMatchedLiterally() {
+        assertEquals(List.of(), search(List.of("anti_join"), List.of()).getContent());
+        assertEquals(List.of("Bolognese", "Caprese", "Pesto"), search(List.of(), List.of("%")).getContent());
+    }
+
+    private Page<String> search(List<String> includeIngredients, List<String> excludeIngredients) {
+        RecipeSearchRequest request = new RecipeSearchRequest();
+        request.setServings(SERVINGS);
+        request.setIncludeIngredients(includeIngredients);
+        request.setExcludeIngredients(excludeIngredients);
+        return recipeRepository.findIdPage(RecipeSearchSpecification.searchByText(request), PageRequest.of(0, 10, Sort.by("name")))
+                .map(recipeNames::get);
+    }
+
+    private Ingredient ingredient(String name) {
+        return ingredientRepository.save(new Ingredient(null, name, new HashSet<>()));
+    }
+
+    private void recipe(String name, Ingredient... ingredients) {
+        Recipe recipe = recipeRepository.save(new Recipe(null, name, true, SERVINGS, new HashSet<>(Set.of(ingredients)),
+                "instructions", "description"));
+        recipeNames.put(recipe.getId(), name);
+    }
+}
@@ -0,0 +1,70 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.repository.IngredientRepository;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.service.RecipeService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Test
+    public void recordsServiceTimersAndSqlStatementsPerRequest() throws Exception {
+        Ingredient thyme = ingredientRepository.save(new Ingredient(null, "Metrics Thyme", new HashSet<>()));
+        Recipe recipe = recipeRepository.save(new Recipe(null, "Metrics Soup", true, 2, new HashSet<>(Set.of(thyme)),
+                "instructions", "description"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/recipes/{id}", recipe.getId()))
+                .andExpect(status().isOk());
+
+        Timer service = meterRegistry.find("recipeapp.service").tags("class", RecipeService.class.getName(), "method", "getValidatedRecipe").timer();
+        assertNotNull(service);
+        assertTrue(service.count() >= 1);
+        DistributionSummary statements = meterRegistry.find("http.server.requests.sql.statements")
+                .tags("method", "GET", "uri", "/api/recipes/{id}").summary();
+        assertNotNull(statements);
+        assertTrue(statements.totalAmount() >= 1);
+        Timer sqlTime = meterRegistry.find("http.server.requests.sql.time").tags("uri", "/api/recipes/{id}").timer();
+        assertNotNull(sqlTime);
+        assertTrue(sqlTime.totalTime(TimeUnit.NANOSECONDS) > 0);
+        assertNotNull(meterRegistry.find("hibernate.entities.loads").functionCounter());
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").timer());
+    }
+
+    @Test
+    public void metricsEndpointRequiresAuthentication() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/sql.statements"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/sql.statements")
+                        .header("Authorization", "Basic " + Base64.getEncoder().encodeToString("user:password".getBytes())))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,114 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.RecipeAppApplication;
+import com.assignment.recipeapp.dto.IngredientDto;
+import com.assignment.recipeapp.dto.request.IngredientUpdateRequest;
+import com.assignment.recipeapp.dto.response.SnapshotReport;
+import com.assignment.recipeapp.service.IngredientService;
+import com.assignment.recipeapp.service.dataset.DatasetGenerator;
+import com.assignment.recipeapp.service.dataset.DatasetLoader;
+import com.assignment.recipeapp.service.snapshot.CatalogSnapshotService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the persistent profile migrates the schema of its file database with Flyway, and that a snapshot of the
+ * catalog is loaded by a new node before it reports ready.
+ */
+@SpringBootTest
+@ActiveProfiles("persistent")
+@DirtiesContext
+public class PersistentStorageIntegrationTest {
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DatasetLoader datasetLoader;
+    @Autowired
+    private IngredientService ingredientService;
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("recipe-app.storage.directory", () -> directory.resolve("db").toString());
+        registry.add("recipe-app.snapshot.file", () -> directory.resolve("catalog.snapshot").toString());
+    }
+
+    @Test
+    public void schemaIsMigratedAndSnapshotIsLoadedBeforeReadiness() {
+        assertEquals(List.of("1", "2", "3"), jdbcTemplate.queryForList(
+                "select \"version\" from \"flyway_schema_history\" where \"version\" is not null order by \"installed_rank\"", String.class));
+        assertTrue(jdbcTemplate.queryForList("select INDEX_NAME from INFORMATION_SCHEMA.INDEXES where TABLE_NAME = 'recipes_ingredients'",
+                String.class).contains("recipes_ingredients_ingredient_idx"));
+
+        datasetLoader.load(new DatasetGenerator(5, 50), 230, 100, 2);
+        long ingredientId = jdbcTemplate.queryForObject("select min(id) from ingredients", Long.class);
+        ingredientService.updateIngredient(ingredientId, new IngredientDto(ingredientId, "Snapshot Sumac"));
+        List<Map<String, Object>> recipes = jdbcTemplate.queryForList("select * from recipes order by id");
+        List<Map<String, Object>> links = jdbcTemplate.queryForList("select * from recipes_ingredients order by recipe_id, ingredient_id");
+
+        SnapshotReport written = catalogSnapshotService.write();
+        assertEquals(50, written.ingredients());
+        assertEquals(230, written.recipes());
+        assertEquals(links.size(), written.recipeIngredients());
+        assertTrue(Files.exists(directory.resolve("catalog.snapshot")));
+
+        AtomicLong recipesWhenReady = new AtomicLong(-1);
+        ApplicationListener<AvailabilityChangeEvent<?>> readiness = event -> {
+            if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                recipesWhenReady.set(((ApplicationContext) event.getSource()).getBean(JdbcTemplate.class)
+                        .queryForObject("select count(*) from recipes", Long.class));
+            }
+        };
+        try (ConfigurableApplicationContext node = new SpringApplicationBuilder(RecipeAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .listeners(readiness)
+                .run("--spring.datasource.url=jdbc:h2:mem:snapshot-load;DATABASE_TO_UPPER=false",
+                        "--recipe-app.snapshot.file=" + directory.resolve("catalog.snapshot"))) {
+            JdbcTemplate loaded = node.getBean(JdbcTemplate.class);
+            assertEquals(230, recipesWhenReady.get());
+            assertEquals(recipes, loaded.queryForList("select * from recipes order by id"));
+            assertEquals(links, loaded.queryForList("select * from recipes_ingredients order by recipe_id, ingredient_id"));
+            assertEquals(List.of(Map.of("name", "Snapshot Sumac", "version", 1L)),
+                    loaded.queryForList("select name, version from ingredients where id = ?", ingredientId));
+
+            // new entities get ids above the loaded ones
+            IngredientDto created = node.getBean(IngredientService.class).createIngredient(ingredient("Snapshot Nigella"));
+            assertTrue(created.getId() > loaded.queryForObject("select max(id) from ingredients where id <> ?", Long.class,
+                    created.getId()));
+        }
+    }
+
+    private static IngredientUpdateRequest ingredient(String name) {
+        IngredientUpdateRequest request = new IngredientUpdateRequest();
+        request.setName(name);
+        return request;
+    }
+}
@@ -0,0 +1,64 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.repository.search.index.RecipeTextIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the filter query of searches ranked by relevance when the text matches are too many to be pushed into SQL.
+ */
+@SpringBootTest(properties = "recipe-app.search.index.max-in-list-size=1")
+@AutoConfigureMockMvc
+public class RankedSearchIntegrationTest {
+
+    private static final int SERVINGS = 97;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private RecipeTextIndex recipeTextIndex;
+
+    @Test
+    public void filterQueryDoesNotMatchTheSearchTextAgain() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            recipeRepository.save(new Recipe(null, "Rankedpaella " + i, i != 1, SERVINGS, new HashSet<>(),
+                    "instructions", "description"));
+        }
+        for (int i = 0; i < 2; i++) {
+            recipeRepository.save(new Recipe(null, "Other ranked dish " + i, true, SERVINGS, new HashSet<>(),
+                    "instructions", "description"));
+        }
+        recipeTextIndex.rebuild();
+
+        JsonNode explanation = objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get("/api/recipes/search/explain")
+                        .param("searchText", "rankedpaella")
+                        .param("servings", String.valueOf(SERVINGS))
+                        .param("vegetarian", "true")
+                        .param("sort", "relevance"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        assertEquals("RANKED", explanation.get("path").asText());
+        assertEquals(2, explanation.get("totalMatches").asLong());
+        String predicate = explanation.get("predicate").toString();
+        assertFalse(predicate.toLowerCase().contains("like"), predicate);
+    }
+}
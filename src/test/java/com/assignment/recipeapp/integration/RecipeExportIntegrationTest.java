@@ -0,0 +1,74 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.repository.IngredientRepository;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.service.RecipeExportService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+public class RecipeExportIntegrationTest {
+
+    @Autowired
+    private RecipeExportService recipeExportService;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private IngredientRepository ingredientRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ObjectMapper jsonMapper;
+
+    @Test
+    public void exportsEveryRecipeWithItsIngredientsOnePerLine() throws Exception {
+        Ingredient salt = ingredientRepository.save(new Ingredient(null, "Export Salt", new HashSet<>()));
+        Ingredient rice = ingredientRepository.save(new Ingredient(null, "Export Rice", new HashSet<>()));
+        List<Recipe> saved = new ArrayList<>(List.of(
+                recipeRepository.save(new Recipe(null, "Export Risotto", true, 2, Set.of(salt, rice), "Stir", "Creamy")),
+                recipeRepository.save(new Recipe(null, "Export Broth", false, 4, Set.of(salt), "Simmer", "Clear")),
+                recipeRepository.save(new Recipe(null, "Export Water", true, 1, Set.of(), "Pour", "Plain"))));
+        saved.sort(Comparator.comparing(Recipe::getId));
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long count = recipeExportService.exportRecipes(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(count, lines.length);
+        List<String> names = new ArrayList<>();
+        List<Integer> ingredientCounts = new ArrayList<>();
+        for (String line : lines) {
+            assertTrue(line.startsWith("{"));
+            JsonNode recipe = jsonMapper.readTree(line);
+            if (recipe.get("name").asText().startsWith("Export ")) {
+                names.add(recipe.get("name").asText());
+                ingredientCounts.add(recipe.get("ingredients").size());
+            }
+        }
+        assertEquals(saved.stream().map(Recipe::getName).toList(), names);
+        assertEquals(saved.stream().map(recipe -> recipe.getIngredients().size()).toList(), ingredientCounts);
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount(), "exported entities are detached");
+    }
+}
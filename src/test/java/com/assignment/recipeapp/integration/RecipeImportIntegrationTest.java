@@ -0,0 +1,64 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.dto.response.ImportReport;
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.repository.IngredientRepository;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.service.RecipeImportService;
+import com.assignment.recipeapp.service.importer.ImportFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.transaction.Transactional;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "recipe-app.import.chunk-size=2")
+@Transactional
+public class RecipeImportIntegrationTest {
+
+    @Autowired
+    private RecipeImportService recipeImportService;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Test
+    public void importsNdjsonInChunksAndUpsertsIngredientsByName() {
+        ingredientRepository.save(new Ingredient(null, "Import Tomato", new HashSet<>()));
+        String ndjson = """
+                {"name":"Import Soup","description":"d","instructions":"i","servings":2,"ingredients":["import tomato","Import Basil"]}
+
+                {"name":"Import Salad","description":"d","instructions":"i","ingredients":["IMPORT TOMATO"]}
+                {"name":"","description":"d","instructions":"i","ingredients":["Import Basil"]}
+                not json
+                {"name":"Import Sauce","description":"d","instructions":"i","ingredients":["Import Basil","Import Garlic"]}
+                """;
+
+        ImportReport report = recipeImportService.importRecipes(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+
+        assertEquals(5, report.read());
+        assertEquals(3, report.created());
+        assertEquals(2, report.failed());
+        assertEquals(2, report.ingredientsCreated());
+        assertEquals(List.of(4L, 5L), report.errors().stream().map(ImportReport.ImportError::line).toList());
+        Recipe sauce = recipeRepository.findByName("Import Sauce").orElseThrow();
+        Recipe salad = recipeRepository.findByName("Import Salad").orElseThrow();
+        assertEquals(Set.of("Import Basil", "Import Garlic"), names(sauce));
+        assertEquals(Set.of("Import Tomato"), names(salad));
+    }
+
+    private static Set<String> names(Recipe recipe) {
+        return recipe.getIngredients().stream().map(Ingredient::getName).collect(Collectors.toSet());
+    }
+}
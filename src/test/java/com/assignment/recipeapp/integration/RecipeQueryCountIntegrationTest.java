@@ -0,0 +1,131 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.dto.RecipeDto;
+import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
+import com.assignment.recipeapp.dto.request.RecipeUpdateRequest;
+import com.assignment.recipeapp.dto.response.RecipeListingElementDto;
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.repository.IngredientRepository;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.service.RecipeService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that recipe reads and updates cost a constant number of SQL statements, whatever the number of recipes and ingredients.
+ */
+@SpringBootTest
+@Transactional
+public class RecipeQueryCountIntegrationTest {
+
+    @Autowired
+    private RecipeService recipeService;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private IngredientRepository ingredientRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private static final int SERVINGS = 97;
+
+    private Statistics statistics;
+    private Long recipeId;
+
+    @BeforeEach
+    void setUp() {
+        Ingredient salt = ingredientRepository.save(new Ingredient(null, "Query Count Salt", new HashSet<>()));
+        Ingredient pepper = ingredientRepository.save(new Ingredient(null, "Query Count Pepper", new HashSet<>()));
+        for (int i = 0; i < 30; i++) {
+            Recipe recipe = new Recipe(null, "Query Count Recipe " + i, true, SERVINGS, new HashSet<>(Set.of(salt, pepper)),
+                    "instructions", "description");
+            recipeId = recipeRepository.save(recipe).getId();
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    public void listingPageCostsConstantStatements() {
+        RecipeSearchRequest criteria = new RecipeSearchRequest();
+        criteria.setServings(SERVINGS);
+        Page<RecipeListingElementDto> small = recipeService.searchRecipes(criteria, PageRequest.of(0, 5, Sort.by("name")));
+        long smallPageStatements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        statistics.clear();
+
+        Page<RecipeListingElementDto> large = recipeService.searchRecipes(criteria, PageRequest.of(0, 25, Sort.by("name")));
+
+        assertEquals(5, small.getNumberOfElements());
+        assertEquals(25, large.getNumberOfElements());
+        assertEquals(2, large.getContent().get(0).ingredients().size());
+        assertEquals(smallPageStatements, statistics.getPrepareStatementCount());
+        // ids of the page, count and recipes with their ingredients
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void detailCostsOneStatement() {
+        RecipeDto recipe = recipeService.getRecipe(recipeId);
+
+        assertEquals(2, recipe.getIngredients().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void updateWritesOnlyChangedIngredientRows() {
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            ingredients.add(ingredientRepository.save(new Ingredient(null, "Query Count Spice " + i, new HashSet<>())));
+        }
+        Recipe recipe = recipeRepository.save(new Recipe(null, "Query Count Curry", true, SERVINGS,
+                new HashSet<>(ingredients.subList(0, 30)), "instructions", "description"));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        RecipeUpdateRequest request = new RecipeUpdateRequest();
+        request.setName("Query Count Curry");
+        request.setVegetarian(true);
+        request.setServings(SERVINGS);
+        request.setInstructions("instructions");
+        request.setIngredients(ingredients.subList(2, 32).stream().map(ingredient -> {
+            RecipeUpdateRequest.IngredientRequest ingredientRequest = new RecipeUpdateRequest.IngredientRequest();
+            ingredientRequest.setId(ingredient.getId());
+            return ingredientRequest;
+        }).toList());
+        recipeService.updateRecipe(recipe.getId(), request);
+        entityManager.flush();
+
+        assertEquals(0, statistics.getCollectionRecreateCount());
+        assertEquals(1, statistics.getCollectionUpdateCount());
+        // recipe with its ingredients, requested ingredients, version of the recipe, removed join rows and added join rows
+        assertEquals(5, statistics.getPrepareStatementCount());
+        entityManager.clear();
+        assertEquals(30, recipeService.getRecipe(recipe.getId()).getIngredients().size());
+    }
+}
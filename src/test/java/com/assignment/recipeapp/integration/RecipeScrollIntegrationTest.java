@@ -0,0 +1,81 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
+import com.assignment.recipeapp.dto.response.RecipeListingElementDto;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.exception.InvalidCursorException;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.repository.search.CursorSlice;
+import com.assignment.recipeapp.service.RecipeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+public class RecipeScrollIntegrationTest {
+
+    private static final int SERVINGS = 98;
+
+    @Autowired
+    private RecipeService recipeService;
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    private RecipeSearchRequest criteria;
+
+    @BeforeEach
+    void setUp() {
+        // names repeat so that the id has to break ties between slices
+        for (int i = 0; i < 11; i++) {
+            recipeRepository.save(new Recipe(null, "Scroll Recipe " + (i % 4), false, SERVINGS, new HashSet<>(),
+                    "instructions", "description"));
+        }
+        criteria = new RecipeSearchRequest();
+        criteria.setServings(SERVINGS);
+    }
+
+    @Test
+    public void scrollsThroughEveryRecipeOnce() {
+        List<RecipeListingElementDto> seen = new ArrayList<>();
+        String after = null;
+        int slices = 0;
+        do {
+            CursorSlice<RecipeListingElementDto> slice = recipeService.scrollRecipes(criteria, after,
+                    PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "name")));
+            seen.addAll(slice.content());
+            after = slice.nextCursor();
+            assertEquals(after != null, slice.hasNext());
+            slices++;
+        } while (after != null);
+
+        assertEquals(4, slices);
+        assertEquals(11, seen.size());
+        assertEquals(11, seen.stream().map(RecipeListingElementDto::id).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i - 1).name().compareTo(seen.get(i).name()) >= 0);
+        }
+    }
+
+    @Test
+    public void rejectsCursorOfAnotherSortOrder() {
+        String after = recipeService.scrollRecipes(criteria, null, PageRequest.of(0, 3, Sort.by("name"))).nextCursor();
+
+        assertThrows(InvalidCursorException.class,
+                () -> recipeService.scrollRecipes(criteria, after, PageRequest.of(0, 3, Sort.by("servings"))));
+        assertThrows(InvalidCursorException.class,
+                () -> recipeService.scrollRecipes(criteria, "not a cursor", PageRequest.of(0, 3, Sort.by("name"))));
+        assertThrows(InvalidCursorException.class,
+                () -> recipeService.scrollRecipes(criteria, null, PageRequest.of(0, 3, Sort.by("instructions"))));
+    }
+}
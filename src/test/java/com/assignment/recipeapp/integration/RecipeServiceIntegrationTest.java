@@ -6,6 +6,7 @@ import com.assignment.recipeapp.dto.request.IngredientUpdateRequest;
 import com.assignment.recipeapp.dto.request.RecipeUpdateRequest;
 import com.assignment.recipeapp.dto.response.IngredientListingElementDto;
 import com.assignment.recipeapp.dto.response.IngredientResponse;
+import com.assignment.recipeapp.dto.response.RecipeBatchResponse;
 import com.assignment.recipeapp.dto.response.RecipeListingElementDto;
 import com.assignment.recipeapp.entity.Ingredient;
 import com.assignment.recipeapp.mapper.ObjectMapper;
@@ -25,6 +26,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import javax.transaction.Transactional;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -129,5 +131,37 @@ public class RecipeServiceIntegrationTest {
         assertEquals(recipeListingElementDto.name(), foundRecipes.stream().findFirst().get().name());
     }
 
-}
+    @Test
+    public void testCreateRecipesInBatch() {
+        RecipeUpdateRequest missingIngredient = new RecipeUpdateRequest();
+        missingIngredient.setName("Batch Recipe Missing Ingredient");
+        missingIngredient.setInstructions("Test instructions");
+        missingIngredient.setDescription("Test description");
+        missingIngredient.setServings(2);
+        RecipeUpdateRequest.IngredientRequest unknown = new RecipeUpdateRequest.IngredientRequest();
+        unknown.setId(Long.MAX_VALUE);
+        missingIngredient.setIngredients(List.of(unknown));
+        RecipeUpdateRequest blank = new RecipeUpdateRequest();
+        RecipeUpdateRequest nullIngredient = new RecipeUpdateRequest();
+        nullIngredient.setName("Batch Recipe Null Ingredient");
+        nullIngredient.setInstructions("Test instructions");
+        nullIngredient.setDescription("Test description");
+        nullIngredient.setServings(2);
+        nullIngredient.setIngredients(Collections.singletonList(null));
+
+        RecipeBatchResponse response = recipeService.createRecipes(List.of(recipeUpdateRequest, missingIngredient, blank,
+                recipeUpdateRequest, nullIngredient));
+
+        assertEquals(2, response.created());
+        assertEquals(3, response.failed());
+        assertNotNull(response.items().get(0).id());
+        assertNotNull(response.items().get(3).id());
+        assertEquals(List.of("Ingredient with id " + Long.MAX_VALUE + " not found."), response.items().get(1).errors());
+        assertEquals(2, response.items().get(2).index());
+        assertEquals(List.of("description: Description cannot be blank", "ingredients: Ingredients cannot be empty",
+                "instructions: Instructions cannot be blank", "name: must not be blank"), response.items().get(2).errors());
+        assertEquals(List.of("Ingredient cannot be null"), response.items().get(4).errors());
+        assertEquals(1, recipeService.getRecipe(response.items().get(3).id()).getIngredients().size());
+    }
 
+}
@@ -0,0 +1,90 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class SearchExplainIntegrationTest {
+
+    private static final int SERVINGS = 96;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Test
+    public void explainsDatabaseSearch() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            recipeRepository.save(new Recipe(null, "Explained Recipe " + i, true, SERVINGS, new HashSet<>(),
+                    "instructions", "description"));
+        }
+
+        JsonNode explanation = explain("servings=" + SERVINGS + "&vegetarian=true&size=2");
+
+        assertEquals("SQL", explanation.get("path").asText());
+        assertEquals(3, explanation.get("totalMatches").asLong());
+        assertEquals(2, explanation.get("returned").asInt());
+        JsonNode predicate = explanation.get("predicate");
+        assertEquals("AND", predicate.get("operator").asText());
+        List<String> conditions = new ArrayList<>();
+        predicate.get("operands").forEach(operand -> conditions.add(operand.get("condition").asText()));
+        assertTrue(conditions.contains("recipe.servings=" + SERVINGS), conditions.toString());
+        assertTrue(conditions.contains("recipe.vegetarian=true"), conditions.toString());
+        JsonNode candidates = explanation.get("candidates");
+        assertEquals("id page query", candidates.get(candidates.size() - 1).get("filter").asText());
+        assertEquals(3, candidates.get(candidates.size() - 1).get("count").asLong());
+        assertEquals(List.of("parse search terms", "text index", "ingredient index", "id page query", "load recipes"),
+                names(explanation.get("stages")));
+    }
+
+    @Test
+    public void explainsSearchEndedByAnIndex() throws Exception {
+        JsonNode explanation = explain("searchText=Unknownexplainterm unknown!&servings=" + SERVINGS);
+
+        assertEquals("EMPTY", explanation.get("path").asText());
+        assertEquals(List.of("unknown", "unknownexplainterm"), texts(explanation.get("terms")));
+        assertEquals("INDEX", explanation.get("filters").get("searchText").asText());
+        assertTrue(explanation.get("predicate").isNull());
+        assertEquals("indexed", explanation.get("candidates").get(0).get("filter").asText());
+        assertEquals("searchText", explanation.get("candidates").get(1).get("filter").asText());
+        assertEquals(0, explanation.get("candidates").get(1).get("count").asLong());
+        assertEquals(0, explanation.get("totalMatches").asLong());
+    }
+
+    private JsonNode explain(String query) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get("/api/recipes/search/explain?" + query))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static List<String> names(JsonNode stages) {
+        List<String> names = new ArrayList<>();
+        stages.forEach(stage -> names.add(stage.get("name").asText()));
+        return names;
+    }
+
+    private static List<String> texts(JsonNode array) {
+        List<String> texts = new ArrayList<>();
+        array.forEach(text -> texts.add(text.asText()));
+        return texts;
+    }
+}
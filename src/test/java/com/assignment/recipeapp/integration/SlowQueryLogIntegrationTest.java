@@ -0,0 +1,96 @@
+package com.assignment.recipeapp.integration;
+
+import com.assignment.recipeapp.entity.Ingredient;
+import com.assignment.recipeapp.entity.Recipe;
+import com.assignment.recipeapp.metrics.SlowQuery;
+import com.assignment.recipeapp.metrics.SlowQueryLog;
+import com.assignment.recipeapp.repository.IngredientRepository;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"recipe-app.slow-query.threshold=0ms", "recipe-app.slow-query.capacity=5"})
+@AutoConfigureMockMvc
+public class SlowQueryLogIntegrationTest {
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString("user:password".getBytes());
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+    @Autowired
+    private RecipeRepository recipeRepository;
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Test
+    public void recordsSearchQueriesWithBindValuesAndPlans() throws Exception {
+        Ingredient saffron = ingredientRepository.save(new Ingredient(null, "Slow Query Saffron", new HashSet<>()));
+        recipeRepository.save(new Recipe(null, "Slow Query Paella", false, 6, new HashSet<>(Set.of(saffron)),
+                "instructions", "description"));
+        slowQueryLog.clear();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/recipes?servings=6&vegetarian=false"))
+                .andExpect(status().isOk());
+
+        SlowQuery search = slowQueryLog.entries().stream()
+                .filter(query -> query.getSearch() != null && query.getSql().contains(".servings=6"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(search.getSearch().startsWith("RecipeService.searchRecipes(RecipeSearchRequest("), search.getSearch());
+        assertTrue(search.getRequest().startsWith("GET /api/recipes?servings=6"), search.getRequest());
+        assertTrue(search.getParameters().contains("false"), search.getParameters().toString());
+        assertTrue(search.getRows() >= 1);
+        assertTrue(slowQueryLog.entries().size() <= 5);
+
+        String plan = awaitPlan(search.getId());
+        assertTrue(plan.contains("recipes"), plan);
+        assertFalse(plan.startsWith("Not explained"), plan);
+
+        JsonNode entries = objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get("/api/admin/slow-queries")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertTrue(entries.size() >= 1 && entries.size() <= 5);
+        assertTrue(entries.get(0).has("sql"));
+    }
+
+    @Test
+    public void adminEndpointRequiresAuthentication() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/admin/slow-queries"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/admin/slow-queries").header("Authorization", AUTHORIZATION))
+                .andExpect(status().isNoContent());
+    }
+
+    private String awaitPlan(long id) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            Optional<String> plan = slowQueryLog.entries().stream()
+                    .filter(query -> query.getId() == id && query.getPlan() != null)
+                    .map(SlowQuery::getPlan)
+                    .findFirst();
+            if (plan.isPresent()) {
+                return plan.get();
+            }
+            Thread.sleep(50);
+        }
+        return fail("The plan of query " + id + " was not captured");
+    }
+}
@@ -0,0 +1,106 @@
+package com.assignment.recipeapp.repository.search.index;
+
+import com.assignment.recipeapp.event.ChangeType;
+import com.assignment.recipeapp.event.IngredientChangedEvent;
+import com.assignment.recipeapp.event.RecipeChangedEvent;
+import com.assignment.recipeapp.repository.IngredientRepository;
+import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.repository.search.CandidateIds;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RecipeIngredientIndexTest {
+
+    private RecipeIngredientIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        IngredientRepository ingredientRepository = mock(IngredientRepository.class);
+        when(ingredientRepository.findAll()).thenReturn(List.of());
+        when(recipeRepository.streamAllIds()).thenReturn(Stream.empty());
+        when(recipeRepository.streamAllIngredientLinks()).thenReturn(Stream.empty());
+
+        index = new RecipeIngredientIndex(recipeRepository, ingredientRepository);
+        ReflectionTestUtils.setField(index, "maxInListSize", 1000);
+        index.rebuild();
+
+        ingredient(1L, "Pasta");
+        ingredient(2L, "Tomato");
+        ingredient(3L, "Minced Beef");
+        recipe(10L, 1L, 2L);
+        recipe(11L, 1L, 2L, 3L);
+        recipe(12L, 2L);
+    }
+
+    @Test
+    public void includeRequiresEveryTerm() {
+        CandidateIds matches = index.match(List.of("pasta", "TOMATO"), List.of()).orElseThrow();
+
+        assertEquals(2, matches.size());
+        assertTrue(matches.contains(10L));
+        assertTrue(matches.contains(11L));
+    }
+
+    @Test
+    public void excludeRemovesRecipesUsingAnyMatchingIngredient() {
+        CandidateIds matches = index.match(List.of("tomato"), List.of("beef")).orElseThrow();
+
+        assertEquals(2, matches.size());
+        assertFalse(matches.contains(11L));
+    }
+
+    @Test
+    public void termsMatchAnywhereInTheIngredientName() {
+        CandidateIds matches = index.match(List.of("nced be"), List.of()).orElseThrow();
+
+        assertEquals(1, matches.size());
+        assertTrue(matches.contains(11L));
+        assertEquals(2, index.match(List.of(), List.of("ced b")).orElseThrow().size());
+        assertEquals(3, index.match(List.of(), List.of("-")).orElseThrow().size());
+    }
+
+    @Test
+    public void deletedIngredientsNoLongerMatch() {
+        index.onIngredientChanged(new IngredientChangedEvent(ChangeType.DELETED, 3L, null));
+
+        assertEquals(0, index.match(List.of("beef"), List.of()).orElseThrow().size());
+    }
+
+    @Test
+    public void updatesAndDeletesAreApplied() {
+        recipe(12L, 3L);
+        index.onRecipeChanged(RecipeChangedEvent.deleted(11L));
+        index.onIngredientChanged(new IngredientChangedEvent(ChangeType.UPDATED, 3L, "Ground Beef"));
+
+        CandidateIds matches = index.match(List.of("ground"), List.of()).orElseThrow();
+
+        assertEquals(1, matches.size());
+        assertTrue(matches.contains(12L));
+    }
+
+    @Test
+    public void noFilterIsNotResolved() {
+        Optional<CandidateIds> matches = index.match(List.of(""), null);
+
+        assertTrue(matches.isEmpty());
+    }
+
+    private void ingredient(Long id, String name) {
+        index.onIngredientChanged(new IngredientChangedEvent(ChangeType.CREATED, id, name));
+    }
+
+    private void recipe(Long id, Long... ingredientIds) {
+        index.onRecipeChanged(new RecipeChangedEvent(ChangeType.CREATED, id, "Recipe " + id, "", "", Set.of(ingredientIds)));
+    }
+}
@@ -0,0 +1,72 @@
+package com.assignment.recipeapp.repository.search.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TextIndexTest {
+
+    private TextIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new TextIndex(2);
+        index.put(1, "Spaghetti Bolognese", "Brown the beef, add tomatoes.");
+        index.put(2, "Tomato Soup", "Blend roasted tomatoes");
+        index.put(3, "Pancakes", null);
+    }
+
+    @Test
+    public void matchesSubstringsOfTokensInAnyField() {
+        assertEquals(RoaringBitmap.bitmapOf(1, 2), index.match(Set.of("tomat")));
+        assertEquals(RoaringBitmap.bitmapOf(1), index.match(Set.of("olog")));
+        assertEquals(RoaringBitmap.bitmapOf(3), index.match(Set.of("a", "k")));
+    }
+
+    @Test
+    public void requiresEveryTerm() {
+        assertEquals(RoaringBitmap.bitmapOf(2), index.match(Set.of("soup", "roast")));
+        assertTrue(index.match(Set.of("soup", "beef")).isEmpty());
+    }
+
+    @Test
+    public void replacesAndRemovesDocuments() {
+        index.putField(2, 0, "Gazpacho");
+        index.remove(1);
+
+        assertTrue(index.match(Set.of("soup")).isEmpty());
+        assertEquals(RoaringBitmap.bitmapOf(2), index.match(Set.of("tomatoes")));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void ranksBoostedFieldsAndRepeatedTermsFirst() {
+        index.put(4, "Tomato Salad", "Slice the tomatoes, season the tomatoes.");
+        float[] boosts = {3f, 1f};
+
+        TextIndex.Ranking ranking = index.rank(Set.of("tomato"), null, 10, boosts);
+
+        assertEquals(3, ranking.totalMatches());
+        assertEquals(List.of(4, 2, 1), ranking.top().stream().map(TextIndex.ScoredDocument::document).toList());
+    }
+
+    @Test
+    public void rankKeepsOnlyTheBestFilteredDocuments() {
+        TextIndex.Ranking ranking = index.rank(Set.of("tomat"), RoaringBitmap.bitmapOf(1, 3), 1, new float[]{1f, 1f});
+
+        assertEquals(1, ranking.totalMatches());
+        assertEquals(1, ranking.top().get(0).document());
+        assertTrue(index.rank(Set.of("tomat"), null, 0, new float[]{1f, 1f}).top().isEmpty());
+    }
+
+    @Test
+    public void tokenizesLikeSearchTerms() {
+        assertEquals(List.of("2", "eggs", "a", "pinch", "of", "salt"), TextIndex.tokenize("2 Eggs, a pinch-of salt!"));
+    }
+}
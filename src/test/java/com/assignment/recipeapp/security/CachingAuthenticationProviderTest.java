@@ -0,0 +1,85 @@
+package com.assignment.recipeapp.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachingAuthenticationProviderTest {
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private long now;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    public void setUp() {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(
+                User.withUsername("user").password("{noop}password").roles("USER").build(),
+                User.withUsername("chef").password("{noop}secret").roles("USER").build());
+        UserDetailsService countingUsers = username -> {
+            lookups.incrementAndGet();
+            return users.loadUserByUsername(username);
+        };
+        DaoAuthenticationProvider delegate = new DaoAuthenticationProvider();
+        delegate.setUserDetailsService(countingUsers);
+        delegate.setPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        provider = new CachingAuthenticationProvider(delegate, Duration.ofMinutes(5), 1, () -> now);
+    }
+
+    @Test
+    public void reusesSuccessfulAuthentications() {
+        provider.authenticate(token("user", "password"));
+        Authentication cached = provider.authenticate(token("user", "password"));
+
+        assertEquals(1, lookups.get());
+        assertTrue(cached.isAuthenticated());
+        assertEquals("user", cached.getName());
+        assertNull(cached.getCredentials());
+        assertEquals("ROLE_USER", cached.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    public void neverCachesFailures() {
+        provider.authenticate(token("user", "password"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("user", "wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("user", "wrong")));
+        assertEquals(3, lookups.get());
+        assertEquals(1, provider.size());
+    }
+
+    @Test
+    public void expiresAndEvictsEntries() {
+        provider.authenticate(token("user", "password"));
+        now += Duration.ofMinutes(5).toNanos();
+        provider.authenticate(token("user", "password"));
+        assertEquals(2, lookups.get());
+
+        provider.authenticate(token("chef", "secret"));
+        provider.authenticate(token("user", "password"));
+        assertEquals(4, lookups.get());
+        assertEquals(1, provider.size());
+
+        provider.invalidateAll();
+        provider.authenticate(token("user", "password"));
+        assertEquals(5, lookups.get());
+    }
+
+    private static Authentication token(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
@@ -9,6 +9,7 @@ import com.assignment.recipeapp.exception.IngredientNotFoundException;
 import com.assignment.recipeapp.mapper.ObjectMapper;
 import com.assignment.recipeapp.repository.IngredientRepository;
 import com.assignment.recipeapp.repository.search.IngredientSearchSpecification;
+import com.assignment.recipeapp.repository.search.index.IngredientTextIndex;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -49,6 +50,9 @@ public class IngredientServiceTest {
     @MockBean
     private ObjectMapper objectMapper;
 
+    @MockBean
+    private IngredientTextIndex ingredientTextIndex;
+
     @Autowired
     private IngredientService ingredientService;
 
@@ -9,8 +9,16 @@ import com.assignment.recipeapp.entity.Ingredient;
 import com.assignment.recipeapp.entity.Recipe;
 import com.assignment.recipeapp.exception.IngredientNotFoundException;
 import com.assignment.recipeapp.mapper.ObjectMapper;
+import com.assignment.recipeapp.metrics.IndexAdvisor;
 import com.assignment.recipeapp.repository.IngredientRepository;
 import com.assignment.recipeapp.repository.RecipeRepository;
+import com.assignment.recipeapp.repository.search.index.RecipeIngredientIndex;
+import com.assignment.recipeapp.repository.search.index.RecipeTextIndex;
+import com.assignment.recipeapp.service.cache.RecipeSearchCache;
+import com.assignment.recipeapp.service.cache.RecipeSearchKey;
+import com.assignment.recipeapp.service.cache.SingleFlight;
+import com.assignment.recipeapp.service.cache.VersionedKey;
+import com.assignment.recipeapp.service.cache.WriteVersions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -18,12 +26,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.validation.Validator;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -47,6 +60,33 @@ public class RecipeServiceTest {
     @MockBean
     private ObjectMapper objectMapper;
 
+    @MockBean
+    private RecipeTextIndex recipeTextIndex;
+
+    @MockBean
+    private RecipeIngredientIndex recipeIngredientIndex;
+
+    @MockBean
+    private RecipeSearchCache recipeSearchCache;
+
+    @MockBean
+    private WriteVersions writeVersions;
+
+    @MockBean
+    private SingleFlight<VersionedKey<Long>, ResourceValidators.Validated<RecipeDto>> recipeReads;
+
+    @MockBean
+    private SingleFlight<VersionedKey<RecipeSearchKey>, Page<RecipeListingElementDto>> recipeSearches;
+
+    @MockBean
+    private IndexAdvisor indexAdvisor;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private Validator validator;
+
     @BeforeAll
     public void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -119,14 +159,14 @@ public class RecipeServiceTest {
 
         Ingredient ingredient = new Ingredient();
         ingredient.setId(1L);
-        when(ingredientRepository.findById(any())).thenReturn(Optional.of(ingredient));
+        when(ingredientRepository.findAllById(any())).thenReturn(List.of(ingredient));
         Recipe recipe = new Recipe();
         recipe.setId(id);
         recipe.setName("test recipe");
         recipe.setVegetarian(false);
         recipe.setServings(4);
         recipe.setInstructions("test instructions");
-        when(recipeRepository.findById(id)).thenReturn(Optional.of(recipe));
+        when(recipeRepository.findWithIngredientsById(id)).thenReturn(Optional.of(recipe));
         when(recipeRepository.save(any())).thenReturn(recipe);
         // When
         RecipeDto result = recipeService.updateRecipe(id, recipeUpdateRequest);
@@ -162,9 +202,13 @@ public class RecipeServiceTest {
         recipeUpdateRequest.setInstructions("Updated instructions");
         recipeUpdateRequest.setVegetarian(true);
         recipeUpdateRequest.setServings(4);
-        RecipeUpdateRequest.IngredientRequest ingredientRequest = new RecipeUpdateRequest.IngredientRequest();
-        ingredientRequest.setId(2L);
-        recipeUpdateRequest.setIngredients(Collections.singletonList(ingredientRequest));
+        List<RecipeUpdateRequest.IngredientRequest> ingredientRequests = new ArrayList<>();
+        for (long ingredientId = 1; ingredientId <= 3; ingredientId++) {
+            RecipeUpdateRequest.IngredientRequest ingredientRequest = new RecipeUpdateRequest.IngredientRequest();
+            ingredientRequest.setId(ingredientId);
+            ingredientRequests.add(ingredientRequest);
+        }
+        recipeUpdateRequest.setIngredients(ingredientRequests);
 
         Recipe recipe = new Recipe();
         recipe.setId(recipeId);
@@ -172,15 +216,19 @@ public class RecipeServiceTest {
         recipe.setInstructions("Instructions");
         recipe.setVegetarian(false);
         recipe.setServings(2);
+        Ingredient ingredient = new Ingredient();
+        ingredient.setId(1L);
 
-        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(ingredientRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(recipeRepository.findWithIngredientsById(recipeId)).thenReturn(Optional.of(recipe));
+        when(ingredientRepository.findAllById(any())).thenReturn(List.of(ingredient));
 
         // Act & Assert
-        assertThrows(IngredientNotFoundException.class, () -> recipeService.updateRecipe(recipeId, recipeUpdateRequest));
+        IngredientNotFoundException exception = assertThrows(IngredientNotFoundException.class,
+                () -> recipeService.updateRecipe(recipeId, recipeUpdateRequest));
+        assertEquals("Ingredients with ids [2, 3] not found.", exception.getReason());
 
-        verify(recipeRepository).findById(recipeId);
-        verify(ingredientRepository).findById(2L);
+        verify(recipeRepository).findWithIngredientsById(recipeId);
+        verify(ingredientRepository).findAllById(Set.of(1L, 2L, 3L));
         verifyNoMoreInteractions(recipeRepository, ingredientRepository);
     }
 
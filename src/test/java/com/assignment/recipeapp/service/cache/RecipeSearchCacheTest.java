@@ -0,0 +1,143 @@
+package com.assignment.recipeapp.service.cache;
+
+import com.assignment.recipeapp.dto.request.RecipeSearchRequest;
+import com.assignment.recipeapp.dto.response.RecipeListingElementDto;
+import com.assignment.recipeapp.event.ChangeType;
+import com.assignment.recipeapp.event.IngredientChangedEvent;
+import com.assignment.recipeapp.event.RecipeChangedEvent;
+import com.assignment.recipeapp.repository.search.index.RecipeIngredientIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RecipeSearchCacheTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    private final AtomicInteger searches = new AtomicInteger();
+    private final WriteVersions writeVersions = new WriteVersions();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private long now;
+    private RecipeSearchCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        RecipeIngredientIndex recipeIngredientIndex = mock(RecipeIngredientIndex.class);
+        // the recipe of every page uses ingredients 1 and 2
+        when(recipeIngredientIndex.ingredientIdsOf(anyCollection())).thenReturn(Optional.of(Set.of(1L, 2L)));
+        cache = new RecipeSearchCache(writeVersions, recipeIngredientIndex, meterRegistry, Duration.ofMinutes(1), 2, () -> now);
+    }
+
+    @Test
+    public void reusesPagesOfEquivalentSearches() {
+        RecipeSearchRequest request = request("Salt", "Pepper");
+        request.setSearchText("Pasta  tomato!");
+        RecipeSearchRequest equivalent = request("Pepper", "Salt", "Salt", "");
+        equivalent.setSearchText("tomato pasta");
+
+        Page<RecipeListingElementDto> page = search(request, FIRST_PAGE);
+
+        assertSame(page, search(equivalent, FIRST_PAGE));
+        assertEquals(1, searches.get());
+        search(equivalent, PageRequest.of(1, 20));
+        assertEquals(2, searches.get());
+        assertEquals(1, meterRegistry.counter(RecipeSearchCache.METRIC, "result", "hit").count());
+        assertEquals(2, meterRegistry.counter(RecipeSearchCache.METRIC, "result", "miss").count());
+    }
+
+    @Test
+    public void recipeWritesInvalidateAllPages() {
+        search(request(), FIRST_PAGE);
+        writeVersions.onRecipeChanged(RecipeChangedEvent.deleted(42L));
+        search(request(), FIRST_PAGE);
+
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    public void ingredientWritesInvalidatePagesListingThemOrFilteringByName() {
+        RecipeSearchRequest byName = request("salt");
+        search(request(), FIRST_PAGE);
+        search(byName, FIRST_PAGE);
+
+        // created ingredients are not used by any recipe yet
+        writeVersions.onIngredientChanged(new IngredientChangedEvent(ChangeType.CREATED, 3L, "Pepper"));
+        search(request(), FIRST_PAGE);
+        search(byName, FIRST_PAGE);
+        assertEquals(2, searches.get());
+
+        writeVersions.onIngredientChanged(new IngredientChangedEvent(ChangeType.UPDATED, 3L, "Black pepper"));
+        search(request(), FIRST_PAGE);
+        search(byName, FIRST_PAGE);
+        assertEquals(3, searches.get());
+
+        writeVersions.onIngredientChanged(IngredientChangedEvent.deleted(2L));
+        search(request(), FIRST_PAGE);
+        assertEquals(4, searches.get());
+    }
+
+    @Test
+    public void neverCachesPagesComputedDuringWrites() {
+        cache.get(request(), FIRST_PAGE, () -> {
+            writeVersions.onRecipeChanged(RecipeChangedEvent.deleted(42L));
+            return page();
+        });
+        search(request(), FIRST_PAGE);
+        search(request(), FIRST_PAGE);
+
+        assertEquals(1, searches.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void expiresAndEvictsPages() {
+        search(request(), FIRST_PAGE);
+        now += Duration.ofMinutes(1).toNanos();
+        search(request(), FIRST_PAGE);
+        assertEquals(2, searches.get());
+
+        search(request("salt"), FIRST_PAGE);
+        search(request("pepper"), FIRST_PAGE);
+        search(request(), FIRST_PAGE);
+        assertEquals(5, searches.get());
+        assertEquals(2, cache.size());
+
+        cache.invalidateAll();
+        search(request("pepper"), FIRST_PAGE);
+        assertEquals(6, searches.get());
+    }
+
+    private Page<RecipeListingElementDto> search(RecipeSearchRequest request, Pageable pageable) {
+        return cache.get(request, pageable, () -> {
+            searches.incrementAndGet();
+            return page();
+        });
+    }
+
+    private static Page<RecipeListingElementDto> page() {
+        return new PageImpl<>(List.of(new RecipeListingElementDto(1L, "Recipe", null, List.of(), null, 4, true)));
+    }
+
+    private static RecipeSearchRequest request(String... includeIngredients) {
+        RecipeSearchRequest request = new RecipeSearchRequest();
+        request.setVegetarian(true);
+        request.setIncludeIngredients(List.of(includeIngredients));
+        return request;
+    }
+}
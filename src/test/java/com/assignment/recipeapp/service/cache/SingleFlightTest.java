@@ -0,0 +1,117 @@
+package com.assignment.recipeapp.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightTest {
+
+    private static final int CALLS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, Object> singleFlight = new SingleFlight<>("test", meterRegistry);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLS);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentIdenticalCallsShareOneRead() throws Exception {
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Object result = new Object();
+
+        Future<Object> leader = executor.submit(() -> singleFlight.get("key", () -> {
+            reads.incrementAndGet();
+            await(release);
+            return result;
+        }));
+        waitUntil(() -> singleFlight.inFlight() == 1);
+        List<Future<Object>> waiters = new ArrayList<>();
+        for (int i = 1; i < CALLS; i++) {
+            waiters.add(executor.submit(() -> singleFlight.get("key", () -> {
+                reads.incrementAndGet();
+                return new Object();
+            })));
+        }
+        waitUntil(() -> coalesced() == CALLS - 1);
+        release.countDown();
+
+        assertSame(result, leader.get(5, TimeUnit.SECONDS));
+        for (Future<Object> waiter : waiters) {
+            assertSame(result, waiter.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, reads.get());
+        assertEquals(1, meterRegistry.counter(SingleFlight.METRIC, "name", "test", "result", "executed").count());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    public void rethrowsFailuresToEveryWaiter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalArgumentException failure = new IllegalArgumentException("read failed");
+
+        Future<Object> leader = executor.submit(() -> singleFlight.get("key", () -> {
+            await(release);
+            throw failure;
+        }));
+        waitUntil(() -> singleFlight.inFlight() == 1);
+        Future<Object> waiter = executor.submit(() -> singleFlight.get("key", Object::new));
+        waitUntil(() -> coalesced() == 1);
+        release.countDown();
+
+        assertSame(failure, assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+        assertSame(failure, assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS)).getCause());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    public void sequentialAndDistinctCallsAreNotCoalesced() {
+        AtomicInteger reads = new AtomicInteger();
+
+        singleFlight.get("key", reads::incrementAndGet);
+        singleFlight.get("key", reads::incrementAndGet);
+        singleFlight.get("other", () -> singleFlight.get("key", reads::incrementAndGet));
+
+        assertEquals(3, reads.get());
+        assertEquals(0, coalesced());
+    }
+
+    private double coalesced() {
+        return meterRegistry.counter(SingleFlight.METRIC, "name", "test", "result", "coalesced").count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(1);
+        }
+    }
+}
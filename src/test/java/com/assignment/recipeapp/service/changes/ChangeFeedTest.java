@@ -0,0 +1,164 @@
+package com.assignment.recipeapp.service.changes;
+
+import com.assignment.recipeapp.dto.response.ChangeEvent;
+import com.assignment.recipeapp.event.ChangeType;
+import com.assignment.recipeapp.event.IngredientChangedEvent;
+import com.assignment.recipeapp.event.RecipeChangedEvent;
+import com.assignment.recipeapp.exception.TooManySubscribersException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ChangeFeedTest {
+
+    private static final int HISTORY = 4;
+    private static final int BUFFER = 2;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // senders run when the test says so, as a slow subscriber would
+    private final Queue<Runnable> senders = new ArrayDeque<>();
+    private final ChangeFeed changeFeed = new ChangeFeed(meterRegistry, null, HISTORY, BUFFER, 2, Duration.ZERO, senders::add);
+
+    @Test
+    public void subscribersAreSentTheChangesInOrder() {
+        RecordingSink sink = new RecordingSink();
+        changeFeed.onRecipeChanged(RecipeChangedEvent.deleted(7L));
+        changeFeed.subscribe(null, sink);
+        changeFeed.onIngredientChanged(new IngredientChangedEvent(ChangeType.CREATED, 3L, "Salt"));
+        changeFeed.onRecipeChanged(RecipeChangedEvent.deleted(8L));
+        runSenders();
+
+        assertEquals(List.of("ready 1", "change 2 INGREDIENT CREATED 3 Salt", "change 3 RECIPE DELETED 8 null"), sink.messages);
+        assertEquals(1, meterRegistry.get("recipeapp.changes.subscribers").gauge().value());
+    }
+
+    @Test
+    public void subscribersResumeFromRetainedChanges() {
+        publish(5);
+        RecordingSink resumed = new RecordingSink();
+        RecordingSink expired = new RecordingSink();
+        RecordingSink unknown = new RecordingSink();
+
+        changeFeed.subscribe(3L, resumed);
+        changeFeed.subscribe(0L, expired);
+        assertThrows(TooManySubscribersException.class, () -> changeFeed.subscribe(9L, unknown));
+        publish(1);
+        runSenders();
+
+        assertEquals(List.of("change 4 RECIPE DELETED 4 null", "change 5 RECIPE DELETED 5 null", "change 6 RECIPE DELETED 6 null"), resumed.messages);
+        // the first change is no longer retained, the next one is folded into the pending resync
+        assertEquals(List.of("resync 6"), expired.messages);
+        assertEquals(1, meterRegistry.get("recipeapp.changes.resyncs").tag("reason", "expired").counter().count());
+    }
+
+    @Test
+    public void slowSubscribersAreResyncedWithoutBlockingPublishers() {
+        RecordingSink slow = new RecordingSink();
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(0L, slow);
+        publish(5);
+        runSenders();
+        publish(1);
+        runSenders();
+
+        // the third change overflowed the buffer of two, the next ones were folded into the resync
+        assertEquals(List.of("resync 5", "change 6 RECIPE DELETED 6 null"), slow.messages);
+        assertEquals(1, meterRegistry.get("recipeapp.changes.resyncs").tag("reason", "overflow").counter().count());
+
+        subscription.cancel();
+        publish(1);
+        runSenders();
+        assertEquals(2, slow.messages.size());
+        assertEquals(0, meterRegistry.get("recipeapp.changes.subscribers").gauge().value());
+    }
+
+    @Test
+    public void failingSubscribersAreUnsubscribed() {
+        changeFeed.subscribe(null, new RecordingSink() {
+            @Override
+            public void change(ChangeEvent change) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        });
+        publish(1);
+        runSenders();
+
+        assertEquals(0, meterRegistry.get("recipeapp.changes.subscribers").gauge().value());
+    }
+
+    @Test
+    public void subscribersCatchUpFromTheJournalAfterARestart(@TempDir Path directory) {
+        ChangeJournal journal = new ChangeJournal(directory, 256, Duration.ofDays(1), Long.MAX_VALUE, false, Clock.systemUTC());
+        ChangeFeed beforeRestart = new ChangeFeed(meterRegistry, journal, HISTORY, BUFFER, 2, Duration.ZERO, senders::add);
+        for (long id = 1; id <= 10; id++) {
+            beforeRestart.onRecipeChanged(RecipeChangedEvent.deleted(id));
+        }
+        journal.close();
+
+        ChangeJournal reopened = new ChangeJournal(directory, 256, Duration.ofDays(1), Long.MAX_VALUE, false, Clock.systemUTC());
+        ChangeFeed afterRestart = new ChangeFeed(meterRegistry, reopened, HISTORY, BUFFER, 2, Duration.ZERO, senders::add);
+        assertEquals(10, afterRestart.sequence());
+        RecordingSink sink = new RecordingSink();
+        afterRestart.subscribe(2L, sink);
+        // more than the buffer holds, read from the journal rather than buffered
+        for (long id = 11; id <= 14; id++) {
+            afterRestart.onRecipeChanged(RecipeChangedEvent.deleted(id));
+        }
+        runSenders();
+        afterRestart.onRecipeChanged(RecipeChangedEvent.deleted(15L));
+        runSenders();
+        reopened.close();
+
+        assertEquals(LongStream.rangeClosed(3, 15).mapToObj(id -> "change " + id + " RECIPE DELETED " + id + " null").toList(), sink.messages);
+    }
+
+    private void publish(int changes) {
+        for (int i = 0; i < changes; i++) {
+            changeFeed.onRecipeChanged(RecipeChangedEvent.deleted(changeFeed.sequence() + 1));
+        }
+    }
+
+    private void runSenders() {
+        for (Runnable sender = senders.poll(); sender != null; sender = senders.poll()) {
+            sender.run();
+        }
+    }
+
+    private static class RecordingSink implements ChangeSink {
+
+        private final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void ready(long sequence) throws IOException {
+            messages.add("ready " + sequence);
+        }
+
+        @Override
+        public void change(ChangeEvent change) throws IOException {
+            messages.add(String.join(" ", "change", Long.toString(change.sequence()), change.entity().name(),
+                    change.changeType().name(), Long.toString(change.id()), String.valueOf(change.name())));
+        }
+
+        @Override
+        public void resync(long sequence) throws IOException {
+            messages.add("resync " + sequence);
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            messages.add("heartbeat");
+        }
+    }
+}
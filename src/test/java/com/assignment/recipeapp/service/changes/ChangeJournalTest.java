@@ -0,0 +1,203 @@
+package com.assignment.recipeapp.service.changes;
+
+import com.assignment.recipeapp.dto.response.ChangeEvent;
+import com.assignment.recipeapp.event.ChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChangeJournalTest {
+
+    // a few records per segment
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    private final List<ChangeJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        journals.forEach(ChangeJournal::close);
+    }
+
+    @Test
+    public void changesAreReadBackAcrossSegmentsAndRestarts() throws IOException {
+        ChangeJournal journal = open(false, Clock.systemUTC());
+        appendRecipes(journal, 1, 20);
+
+        assertTrue(segmentFiles() > 3);
+        assertEquals(LongStream.rangeClosed(1, 20).boxed().toList(), sequences(journal.read(0)));
+        assertEquals(LongStream.rangeClosed(13, 20).boxed().toList(), sequences(journal.read(12)));
+        assertThrows(IllegalArgumentException.class, () -> journal.append(change(20, 1L, "Late")));
+        journal.close();
+
+        ChangeJournal reopened = open(false, Clock.systemUTC());
+        assertEquals(20, reopened.lastSequence());
+        List<ChangeEvent> changes = readAll(reopened.read(0));
+        assertEquals(20, changes.size());
+        assertEquals("Recipe 7", changes.get(6).name());
+        assertEquals(ChangeEvent.Entity.RECIPE, changes.get(6).entity());
+        appendRecipes(reopened, 21, 21);
+        assertEquals(List.of(21L), sequences(reopened.read(20)));
+    }
+
+    @Test
+    public void cursorsTailTheJournal() {
+        ChangeJournal journal = open(false, Clock.systemUTC());
+        ChangeJournal.Cursor cursor = journal.read(0);
+        assertNull(cursor.next());
+
+        appendRecipes(journal, 1, 1);
+        assertEquals(1, cursor.next().sequence());
+        assertNull(cursor.next());
+
+        // across segments sealed meanwhile
+        appendRecipes(journal, 2, 12);
+        assertEquals(LongStream.rangeClosed(2, 12).boxed().toList(), sequences(cursor));
+        assertEquals(12, cursor.position());
+    }
+
+    @Test
+    public void tornRecordsAreErasedWhenOpening() throws IOException {
+        ChangeJournal journal = open(false, Clock.systemUTC());
+        appendRecipes(journal, 1, 3);
+        journal.close();
+
+        // flip the last byte of the name of the last change
+        Path segment = lastSegmentFile();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long position = file.length() - 1;
+            for (file.seek(position); file.read() == 0; file.seek(--position)) {
+                // the zeros after the last record
+            }
+            file.seek(position);
+            file.write('x');
+        }
+
+        ChangeJournal reopened = open(false, Clock.systemUTC());
+        assertEquals(2, reopened.lastSequence());
+        appendRecipes(reopened, 3, 3);
+        assertEquals(List.of(1L, 2L, 3L), sequences(reopened.read(0)));
+    }
+
+    @Test
+    public void oldSegmentsAreDeletedBeyondTheMaximumSizeOrRetention() throws IOException {
+        ChangeJournal journal = new ChangeJournal(directory, SEGMENT_SIZE, Duration.ofDays(7), 3 * SEGMENT_SIZE, false, Clock.systemUTC());
+        journals.add(journal);
+        appendRecipes(journal, 1, 1);
+        ChangeJournal.Cursor cursor = journal.read(0);
+        appendRecipes(journal, 2, 30);
+
+        journal.maintain();
+
+        assertEquals(3, segmentFiles());
+        assertFalse(journal.retainsAfter(0));
+        assertTrue(journal.retainsAfter(30));
+        // the cursor reads the segment it was opened on, then finds the next ones deleted
+        assertEquals(LongStream.rangeClosed(1, 4).boxed().toList(), sequences(cursor));
+        assertTrue(cursor.isExpired());
+        journal.close();
+
+        ChangeJournal expired = open(false, Clock.fixed(Instant.now().plus(Duration.ofDays(8)), Clock.systemUTC().getZone()));
+        expired.maintain();
+        // the active segment is kept
+        assertEquals(1, segmentFiles());
+        assertEquals(30, expired.lastSequence());
+    }
+
+    @Test
+    public void compactionKeepsTheLastChangeOfEveryEntity() throws IOException {
+        ChangeJournal journal = open(true, Clock.systemUTC());
+        ChangeJournal.Cursor tailing = journal.read(0);
+        for (long sequence = 1; sequence <= 40; sequence++) {
+            journal.append(change(sequence, sequence % 2, "Recipe " + sequence));
+        }
+        int segments = segmentFiles();
+        assertEquals(LongStream.rangeClosed(1, 4).boxed().toList(), sequences(tailing, 4));
+
+        journal.maintain();
+
+        assertTrue(segmentFiles() < segments);
+        assertTrue(journal.retainsAfter(0));
+        List<ChangeEvent> compacted = readAll(journal.read(0));
+        assertTrue(compacted.size() < 40);
+        assertEquals(40, compacted.get(compacted.size() - 1).sequence());
+        // the cursor opened before compaction goes on from where it was, in order
+        List<Long> rest = sequences(tailing);
+        assertEquals(40L, rest.get(rest.size() - 1));
+        assertEquals(rest.stream().sorted().distinct().toList(), rest);
+        assertTrue(rest.get(0) > 4);
+        journal.close();
+
+        ChangeJournal reopened = open(true, Clock.systemUTC());
+        assertEquals(40, reopened.lastSequence());
+        assertEquals(compacted.stream().map(ChangeEvent::sequence).toList(), sequences(reopened.read(0)));
+    }
+
+    private ChangeJournal open(boolean compaction, Clock clock) {
+        ChangeJournal journal = new ChangeJournal(directory, SEGMENT_SIZE, Duration.ofDays(7), Long.MAX_VALUE, compaction, clock);
+        journals.add(journal);
+        return journal;
+    }
+
+    private static void appendRecipes(ChangeJournal journal, long from, long to) {
+        for (long sequence = from; sequence <= to; sequence++) {
+            journal.append(change(sequence, sequence, "Recipe " + sequence));
+        }
+    }
+
+    private static ChangeEvent change(long sequence, Long id, String name) {
+        return new ChangeEvent(sequence, ChangeEvent.Entity.RECIPE, ChangeType.UPDATED, id, name, Instant.now());
+    }
+
+    private static List<ChangeEvent> readAll(ChangeJournal.Cursor cursor) {
+        List<ChangeEvent> changes = new ArrayList<>();
+        for (ChangeEvent change = cursor.next(); change != null; change = cursor.next()) {
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    private static List<Long> sequences(ChangeJournal.Cursor cursor) {
+        return readAll(cursor).stream().map(ChangeEvent::sequence).toList();
+    }
+
+    private static List<Long> sequences(ChangeJournal.Cursor cursor, int limit) {
+        List<Long> sequences = new ArrayList<>();
+        for (int i = 0; i < limit; i++) {
+            sequences.add(cursor.next().sequence());
+        }
+        return sequences;
+    }
+
+    private int segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return (int) files.filter(path -> path.toString().endsWith(JournalSegment.SUFFIX)).count();
+        }
+    }
+
+    private Path lastSegmentFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(JournalSegment.SUFFIX)).sorted().reduce((first, second) -> second).orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.assignment.recipeapp.service.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetGeneratorTest {
+
+    @Test
+    public void sameSeedYieldsSameCatalog() {
+        DatasetGenerator generator = new DatasetGenerator(7, 500);
+        DatasetGenerator other = new DatasetGenerator(7, 500);
+
+        assertEquals(generator.ingredientNames(), other.ingredientNames());
+        assertEquals(describe(generator.recipes(0, 100)), describe(other.recipes(0, 100)));
+        assertNotEquals(describe(generator.recipes(0, 100)), describe(new DatasetGenerator(8, 500).recipes(0, 100)));
+    }
+
+    @Test
+    public void recipesDoNotDependOnChunks() {
+        DatasetGenerator generator = new DatasetGenerator(7, 500);
+
+        List<GeneratedRecipe> whole = generator.recipes(0, 10);
+
+        assertEquals(describe(whole.subList(5, 10)), describe(generator.recipes(5, 5)));
+    }
+
+    @Test
+    public void ingredientNamesAreDistinctIgnoringCase() {
+        List<String> names = new DatasetGenerator(7, 5000).ingredientNames();
+
+        assertEquals(5000, names.size());
+        assertEquals(5000, names.stream().map(name -> name.toLowerCase(Locale.ROOT)).distinct().count());
+    }
+
+    @Test
+    public void recipesStayWithinBounds() {
+        DatasetGenerator generator = new DatasetGenerator(7, 500);
+
+        for (GeneratedRecipe recipe : generator.recipes(0, 1000)) {
+            Set<Integer> ingredients = new HashSet<>();
+            for (int ingredient : recipe.ingredients()) {
+                assertTrue(ingredient >= 0 && ingredient < 500);
+                ingredients.add(ingredient);
+            }
+            assertEquals(recipe.ingredients().length, ingredients.size());
+            assertTrue(ingredients.size() >= DatasetGenerator.MIN_INGREDIENTS && ingredients.size() <= DatasetGenerator.MAX_INGREDIENTS);
+            assertTrue(recipe.servings() > 0);
+            assertFalse(recipe.name().isBlank());
+            assertTrue(recipe.name().length() <= DatasetGenerator.MAX_NAME_LENGTH);
+            assertTrue(recipe.description().length() <= DatasetGenerator.MAX_DESCRIPTION_LENGTH);
+            assertTrue(recipe.instructions().startsWith("1. "));
+        }
+    }
+
+    private static List<String> describe(List<GeneratedRecipe> recipes) {
+        return recipes.stream()
+                .map(recipe -> recipe.name() + "|" + recipe.description() + "|" + recipe.instructions() + "|"
+                        + recipe.servings() + "|" + recipe.vegetarian() + "|"
+                        + java.util.Arrays.stream(recipe.ingredients()).mapToObj(Integer::toString).collect(Collectors.joining(",")))
+                .toList();
+    }
+}
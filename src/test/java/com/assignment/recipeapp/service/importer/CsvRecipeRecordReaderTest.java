@@ -0,0 +1,57 @@
+package com.assignment.recipeapp.service.importer;
+
+import com.assignment.recipeapp.exception.InvalidImportException;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvRecipeRecordReaderTest {
+
+    @Test
+    public void readsQuotedFieldsAcrossLines() throws IOException {
+        RecipeRecordReader reader = reader("""
+                name,servings,description,instructions,ingredients,vegetarian
+                Soup,2,"Hot, ""fresh"" soup","Chop.
+                Boil.",Tomato | Basil,true
+                Pasta,4,Plain,Boil,Pasta,false
+                """);
+
+        ParsedRecord soup = reader.next();
+        ParsedRecord pasta = reader.next();
+
+        assertEquals(2, soup.line());
+        assertEquals("Hot, \"fresh\" soup", soup.record().getDescription());
+        assertEquals("Chop.\nBoil.", soup.record().getInstructions());
+        assertEquals(List.of("Tomato", "Basil"), soup.record().getIngredients());
+        assertTrue(soup.record().getVegetarian());
+        assertEquals(4, pasta.line());
+        assertEquals(4, pasta.record().getServings());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void reportsMalformedRows() throws IOException {
+        RecipeRecordReader reader = reader("name,servings,description,instructions,ingredients\nSoup,two,d,i,Tomato\n");
+
+        ParsedRecord record = reader.next();
+
+        assertNull(record.record());
+        assertEquals("servings: not a number", record.error());
+    }
+
+    @Test
+    public void requiresHeaderColumns() {
+        RecipeRecordReader reader = reader("name,servings\nSoup,2\n");
+
+        assertThrows(InvalidImportException.class, reader::next);
+    }
+
+    private static RecipeRecordReader reader(String csv) {
+        return new CsvRecipeRecordReader(new BufferedReader(new StringReader(csv)));
+    }
+}